@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a SQL provider method (see {@link SelectProvider}, {@link InsertProvider}, {@link UpdateProvider} and
+ * {@link DeleteProvider}) whose parsed SQL can be reused.
+ * <p>
+ * Without a {@link #keyMethod()}, the provider method is still invoked for every execution but the SQL it returns
+ * is only parsed once per distinct text. With a key method, the provider method is only invoked when the key is
+ * not cached yet. The key method takes the same parameters as the provider method and returns the key, which must
+ * identify the returned SQL and implement <code>equals</code> and <code>hashCode</code>.
+ * <p>
+ * The provider type is instantiated once for non static methods, so the provider must be thread safe.
+ *
+ * @since 3.5.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheableProvider {
+
+  /**
+   * The name of the method of the provider type that returns the cache key.
+   */
+  String keyMethod() default "";
+
+}
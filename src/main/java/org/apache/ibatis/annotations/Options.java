@@ -21,6 +21,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.mapping.StatementType;
 
@@ -63,4 +64,37 @@ public @interface Options {
   String keyColumn() default "";
   
   String resultSets() default "";
+
+  /**
+   * Same as the <code>resultOrdered</code> attribute of a select statement: the rows of every parent object of
+   * a nested result map are returned together, so each object is handed out as soon as the next one starts
+   * and is not kept for the rest of the query.
+   *
+   * @since 3.5.0
+   */
+  boolean resultOrdered() default false;
+
+  /**
+   * Same as the <code>slowStatementThreshold</code> attribute of a statement: the time in milliseconds above which
+   * an execution is captured by the slow statement log, 0 to disable the check. -1 uses the global setting.
+   *
+   * @since 3.5.0
+   */
+  int slowStatementThreshold() default -1;
+
+  /**
+   * Same as the <code>largeResultThreshold</code> attribute of a statement: the number of rows above which an
+   * execution is captured by the slow statement log, 0 to disable the check. -1 uses the global setting.
+   *
+   * @since 3.5.0
+   */
+  int largeResultThreshold() default -1;
+
+  /**
+   * Same as the <code>route</code> attribute of a select statement: the data source the statement runs on when the
+   * environment uses a routing data source.
+   *
+   * @since 3.5.0
+   */
+  DataSourceRoute route() default DataSourceRoute.DEFAULT;
 }
@@ -18,9 +18,13 @@ package org.apache.ibatis.binding;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.result.DefaultGroupResultHandler;
+import org.apache.ibatis.executor.result.DefaultMapResultHandler;
+import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reactive.Publisher;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.reflection.TypeParameterResolver;
@@ -28,12 +32,15 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Clinton Begin
@@ -53,6 +60,29 @@ public class MapperMethod {
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
+    if (method.returnsFuture()) {
+      return executeAsync(sqlSession.getConfiguration(), args);
+    }
+    return executeSync(sqlSession, args);
+  }
+
+  /*
+   * Runs the method on the async executor with a session of its own, so that independent calls use separate
+   * connections. The session is committed (when it has pending changes) and closed before the future completes.
+   * The session of the caller is not used, so writes are not rolled back with its transaction.
+   */
+  private CompletableFuture<Object> executeAsync(Configuration configuration, Object[] args) {
+    SqlSessionFactory sqlSessionFactory = new DefaultSqlSessionFactory(configuration);
+    return CompletableFuture.supplyAsync(() -> {
+      try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+        Object result = executeSync(sqlSession, args);
+        sqlSession.commit();
+        return result;
+      }
+    }, configuration.getAsyncExecutor());
+  }
+
+  private Object executeSync(SqlSession sqlSession, Object[] args) {
     Object result;
     //insert|update|delete|select，分别调用SqlSession的4大类方法
     switch (command.getType()) {
@@ -80,11 +110,16 @@ public class MapperMethod {
         } else if (method.returnsMany()) {
           //返回多条
           result = executeForMany(sqlSession, args);
+        } else if (method.returnsGroupedMap()) {
+          //返回是按key分组的map
+          result = executeForGroupedMap(sqlSession, args);
         } else if (method.returnsMap()) {
           result = executeForMap(sqlSession, args);
           //返回是map
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPublisher()) {
+          result = executeForPublisher(sqlSession, args);
         } else {
           //返回单条
           Object param = method.convertArgsToSqlCommandParam(args);
@@ -161,9 +196,16 @@ public class MapperMethod {
    * @param <E>
    * @return
    */
+  @SuppressWarnings("unchecked")
   private <E> Object executeForMany(SqlSession sqlSession, Object[] args) {
     List<E> result;
     Object param = method.convertArgsToSqlCommandParam(args);
+    if (!method.getReturnType().isArray() && !method.getReturnType().isAssignableFrom(List.class)) {
+      // fill the declared collection as the rows are read
+      Collection<E> collection = (Collection<E>) sqlSession.getConfiguration().getObjectFactory().create(method.getReturnType());
+      this.<E>selectInto(sqlSession, param, args, context -> collection.add(context.getResultObject()));
+      return collection;
+    }
     if (method.hasRowBounds()) {
       RowBounds rowBounds = method.extractRowBounds(args);
       result = sqlSession.<E>selectList(command.getName(), param, rowBounds);
@@ -193,6 +235,18 @@ public class MapperMethod {
     return result;
   }
 
+  private <T> Publisher<T> executeForPublisher(SqlSession sqlSession, Object[] args) {
+    Publisher<T> result;
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      result = sqlSession.<T>selectPublisher(command.getName(), param, rowBounds);
+    } else {
+      result = sqlSession.<T>selectPublisher(command.getName(), param);
+    }
+    return result;
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -214,9 +268,17 @@ public class MapperMethod {
     }
   }
 
+  @SuppressWarnings("unchecked")
   private <K, V> Map<K, V> executeForMap(SqlSession sqlSession, Object[] args) {
     Map<K, V> result;
     Object param = method.convertArgsToSqlCommandParam(args);
+    if (!Map.class.equals(method.getReturnType())) {
+      Configuration config = sqlSession.getConfiguration();
+      result = (Map<K, V>) config.getObjectFactory().create(method.getReturnType());
+      selectInto(sqlSession, param, args, new DefaultMapResultHandler<K, V>(result, method.getMapKey(),
+          config.getObjectFactory(), config.getObjectWrapperFactory(), config.getReflectorFactory()));
+      return result;
+    }
     if (method.hasRowBounds()) {
       RowBounds rowBounds = method.extractRowBounds(args);
       result = sqlSession.<K, V>selectMap(command.getName(), param, method.getMapKey(), rowBounds);
@@ -226,6 +288,34 @@ public class MapperMethod {
     return result;
   }
 
+  @SuppressWarnings("unchecked")
+  private <K, V> Map<K, Collection<V>> executeForGroupedMap(SqlSession sqlSession, Object[] args) {
+    Configuration config = sqlSession.getConfiguration();
+    Object param = method.convertArgsToSqlCommandParam(args);
+    Map<K, Collection<V>> result = (Map<K, Collection<V>>) config.getObjectFactory().create(method.getReturnType());
+    selectInto(sqlSession, param, args, new DefaultGroupResultHandler<K, V>(result, method.getMapKey(),
+        method.getMapValueType(), config.getObjectFactory(), config.getObjectWrapperFactory(), config.getReflectorFactory()));
+    return result;
+  }
+
+  /**
+   * 将结果逐条交给handler处理；语句不能安全流式处理时（二级缓存、嵌套结果映射等）先查询列表再逐条处理
+   */
+  private <E> void selectInto(SqlSession sqlSession, Object param, Object[] args, ResultHandler<E> handler) {
+    MappedStatement ms = sqlSession.getConfiguration().getMappedStatement(command.getName());
+    RowBounds rowBounds = method.hasRowBounds() ? method.extractRowBounds(args) : RowBounds.DEFAULT;
+    if (ms.isResultStreamable()) {
+      sqlSession.select(command.getName(), param, rowBounds, handler);
+    } else {
+      List<E> list = sqlSession.<E>selectList(command.getName(), param, rowBounds);
+      DefaultResultContext<E> context = new DefaultResultContext<>();
+      for (E element : list) {
+        context.nextResultObject(element);
+        handler.handleResult(context);
+      }
+    }
+  }
+
   public static class ParamMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -2212268410512043556L;
@@ -302,28 +392,44 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsPublisher;
     private final boolean returnsOptional;
+    private final boolean returnsFuture;
     private final Class<?> returnType;
     private final String mapKey;
+    private final Class<?> mapValueType;
     private final Integer resultHandlerIndex;
     private final Integer rowBoundsIndex;
     private final ParamNameResolver paramNameResolver;
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
+      this.returnsFuture = resolvedReturnType instanceof ParameterizedType
+          && CompletableFuture.class.equals(((ParameterizedType) resolvedReturnType).getRawType());
+      if (this.returnsFuture) {
+        // the rest of the signature describes the value of the future
+        resolvedReturnType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      }
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
       } else if (resolvedReturnType instanceof ParameterizedType) {
         this.returnType = (Class<?>) ((ParameterizedType) resolvedReturnType).getRawType();
       } else {
-        this.returnType = method.getReturnType();
+        this.returnType = this.returnsFuture ? Object.class : method.getReturnType();
       }
-      this.returnsVoid = void.class.equals(this.returnType);
+      this.returnsVoid = void.class.equals(this.returnType) || Void.class.equals(this.returnType);
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsPublisher = Publisher.class.equals(this.returnType);
+      if (this.returnsFuture && (this.returnsCursor || this.returnsPublisher)) {
+        throw new BindingException("Mapper method '" + mapperInterface.getName() + "." + method.getName()
+            + "' cannot complete a future with a " + this.returnType.getSimpleName()
+            + ", the session of an asynchronous call is closed when it completes.");
+      }
       this.returnsOptional = Optional.class.equals(this.returnType);
-      this.mapKey = getMapKey(method);
+      this.mapKey = getMapKey(method, this.returnType);
       this.returnsMap = this.mapKey != null;
+      this.mapValueType = this.returnsMap ? resolveMapValueCollectionType(resolvedReturnType) : null;
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
@@ -365,6 +471,21 @@ public class MapperMethod {
       return returnsMap;
     }
 
+    /**
+     * return whether return type is a {@code Map} of collections keyed by the {@code @MapKey} property
+     * @since 3.5.0
+     */
+    public boolean returnsGroupedMap() {
+      return mapValueType != null;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Class<?> getMapValueType() {
+      return mapValueType;
+    }
+
     public boolean returnsVoid() {
       return returnsVoid;
     }
@@ -373,6 +494,22 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * @since 3.5.0
+     */
+    public boolean returnsPublisher() {
+      return returnsPublisher;
+    }
+
+    /**
+     * return whether the method runs asynchronously and returns a {@code CompletableFuture},
+     * in which case the other properties of the signature describe the value of the future
+     * @since 3.5.0
+     */
+    public boolean returnsFuture() {
+      return returnsFuture;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}
      * @return return {@code true}, if return type is {@code java.util.Optional}
@@ -397,9 +534,25 @@ public class MapperMethod {
       return index;
     }
 
-    private String getMapKey(Method method) {
+    private Class<?> resolveMapValueCollectionType(Type resolvedReturnType) {
+      if (resolvedReturnType instanceof ParameterizedType) {
+        Type[] typeArgs = ((ParameterizedType) resolvedReturnType).getActualTypeArguments();
+        if (typeArgs.length == 2) {
+          Type valueType = typeArgs[1];
+          if (valueType instanceof ParameterizedType) {
+            valueType = ((ParameterizedType) valueType).getRawType();
+          }
+          if (valueType instanceof Class<?> && Collection.class.isAssignableFrom((Class<?>) valueType)) {
+            return (Class<?>) valueType;
+          }
+        }
+      }
+      return null;
+    }
+
+    private String getMapKey(Method method, Class<?> returnType) {
       String mapKey = null;
-      if (Map.class.isAssignableFrom(method.getReturnType())) {
+      if (Map.class.isAssignableFrom(returnType)) {
         final MapKey mapKeyAnnotation = method.getAnnotation(MapKey.class);
         if (mapKeyAnnotation != null) {
           mapKey = mapKeyAnnotation.value();
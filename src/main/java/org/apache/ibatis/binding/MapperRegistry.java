@@ -16,15 +16,17 @@
 package org.apache.ibatis.binding;
 
 import org.apache.ibatis.builder.annotation.MapperAnnotationBuilder;
+import org.apache.ibatis.io.ClassIndex;
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author Clinton Begin
@@ -79,6 +81,19 @@ public class MapperRegistry {
     }
   }
 
+  /**
+   * Registers a mapper interface whose statements are already part of the configuration,
+   * e.g. restored from a configuration snapshot, without parsing its annotations again.
+   *
+   * @since 3.5.0
+   */
+  public <T> void addParsedMapper(Class<T> type) {
+    if (hasMapper(type)) {
+      throw new BindingException("Type " + type + " is already known to the MapperRegistry.");
+    }
+    knownMappers.put(type, new MapperProxyFactory<T>(type));
+  }
+
   /**
    * @since 3.2.2
    */
@@ -90,14 +105,28 @@ public class MapperRegistry {
    * @since 3.2.2
    */
   public void addMappers(String packageName, Class<?> superType) {
-    ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<>();
-    resolverUtil.find(new ResolverUtil.IsA(superType), packageName);
-    Set<Class<? extends Class<?>>> mapperSet = resolverUtil.getClasses();
-    for (Class<?> mapperClass : mapperSet) {
+    for (Class<?> mapperClass : findMappers(packageName, superType)) {
       addMapper(mapperClass);
     }
   }
 
+  /**
+   * Returns the mapper interfaces {@link #addMappers(String, Class)} adds for a package.
+   *
+   * @since 3.5.0
+   */
+  public List<Class<?>> findMappers(String packageName, Class<?> superType) {
+    ResolverUtil<Class<?>> resolverUtil = new ResolverUtil<>();
+    resolverUtil.find(new ResolverUtil.IsA(superType), packageName, ClassIndex.Kind.INTERFACE);
+    List<Class<?>> mappers = new ArrayList<>();
+    for (Class<?> mapperClass : resolverUtil.getClasses()) {
+      if (mapperClass.isInterface()) {
+        mappers.add(mapperClass);
+      }
+    }
+    return mappers;
+  }
+
   /**
    * @since 3.2.2
    */
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.builder;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.apache.ibatis.mapping.BoundSql;
@@ -25,7 +26,9 @@ import org.apache.ibatis.session.Configuration;
 /**
  * @author Clinton Begin
  */
-public class StaticSqlSource implements SqlSource {
+public class StaticSqlSource implements SqlSource, Serializable {
+
+  private static final long serialVersionUID = -1431079660948995391L;
 
   private final String sql;
   private final List<ParameterMapping> parameterMappings;
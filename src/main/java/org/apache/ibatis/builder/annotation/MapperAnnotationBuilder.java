@@ -34,6 +34,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
@@ -72,6 +73,7 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.DataSourceRoute;
 import org.apache.ibatis.mapping.Discriminator;
 import org.apache.ibatis.mapping.FetchType;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -82,6 +84,7 @@ import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.parsing.PropertyParser;
+import org.apache.ibatis.reactive.Publisher;
 import org.apache.ibatis.reflection.TypeParameterResolver;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
@@ -305,12 +308,16 @@ public class MapperAnnotationBuilder {
       final String mappedStatementId = type.getName() + "." + method.getName();
       Integer fetchSize = null;
       Integer timeout = null;
+      Integer slowStatementThreshold = null;
+      Integer largeResultThreshold = null;
+      DataSourceRoute route = null;
       StatementType statementType = StatementType.PREPARED;
       ResultSetType resultSetType = null;
       SqlCommandType sqlCommandType = getSqlCommandType(method);
       boolean isSelect = sqlCommandType == SqlCommandType.SELECT;
       boolean flushCache = !isSelect;
       boolean useCache = isSelect;
+      boolean resultOrdered = false;
 
       KeyGenerator keyGenerator;
       String keyProperty = null;
@@ -341,8 +348,12 @@ public class MapperAnnotationBuilder {
         useCache = options.useCache();
         fetchSize = options.fetchSize() > -1 || options.fetchSize() == Integer.MIN_VALUE ? options.fetchSize() : null; //issue #348
         timeout = options.timeout() > -1 ? options.timeout() : null;
+        slowStatementThreshold = options.slowStatementThreshold() > -1 ? options.slowStatementThreshold() : null;
+        largeResultThreshold = options.largeResultThreshold() > -1 ? options.largeResultThreshold() : null;
+        route = options.route();
         statementType = options.statementType();
         resultSetType = options.resultSetType();
+        resultOrdered = options.resultOrdered();
       }
 
       String resultMapId = null;
@@ -376,8 +387,7 @@ public class MapperAnnotationBuilder {
           resultSetType,
           flushCache,
           useCache,
-          // TODO gcode issue #577
-          false,
+          resultOrdered,
           keyGenerator,
           keyProperty,
           keyColumn,
@@ -385,7 +395,10 @@ public class MapperAnnotationBuilder {
           null,
           languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null);
+          options != null ? nullOrEmpty(options.resultSets()) : null,
+          slowStatementThreshold,
+          largeResultThreshold,
+          route);
     }
   }
   
@@ -415,8 +428,23 @@ public class MapperAnnotationBuilder {
   }
 
   private Class<?> getReturnType(Method method) {
-    Class<?> returnType = method.getReturnType();
     Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, type);
+    if (resolvedReturnType instanceof ParameterizedType
+        && CompletableFuture.class.equals(((ParameterizedType) resolvedReturnType).getRawType())) {
+      // asynchronous methods map the results to the value of the future
+      Type valueType = ((ParameterizedType) resolvedReturnType).getActualTypeArguments()[0];
+      Class<?> rawValueType = Object.class;
+      if (valueType instanceof Class<?>) {
+        rawValueType = (Class<?>) valueType;
+      } else if (valueType instanceof ParameterizedType) {
+        rawValueType = (Class<?>) ((ParameterizedType) valueType).getRawType();
+      }
+      return getReturnType(method, valueType, rawValueType);
+    }
+    return getReturnType(method, resolvedReturnType, method.getReturnType());
+  }
+
+  private Class<?> getReturnType(Method method, Type resolvedReturnType, Class<?> returnType) {
     if (resolvedReturnType instanceof Class) {
       returnType = (Class<?>) resolvedReturnType;
       if (returnType.isArray()) {
@@ -432,7 +460,8 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+          || Publisher.class.isAssignableFrom(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
@@ -457,6 +486,10 @@ public class MapperAnnotationBuilder {
             } else if (returnTypeParameter instanceof ParameterizedType) {
               // (gcode issue 443) actual type can be a also a parameterized type
               returnType = (Class<?>) ((ParameterizedType) returnTypeParameter).getRawType();
+              if (Collection.class.isAssignableFrom(returnType)) {
+                // a map grouping the results by key maps them to the element type of its values
+                returnType = getReturnType(method, returnTypeParameter, returnType);
+              }
             }
           }
       } else if (Optional.class.equals(rawType)) {
@@ -663,7 +696,8 @@ public class MapperAnnotationBuilder {
 
     assistant.addMappedStatement(id, sqlSource, statementType, sqlCommandType, fetchSize, timeout, parameterMap, parameterTypeClass, resultMap, resultTypeClass, resultSetTypeEnum,
         flushCache, useCache, false,
-        keyGenerator, keyProperty, keyColumn, null, languageDriver, null);
+        keyGenerator, keyProperty, keyColumn, null, languageDriver, null,
+        null, null, DataSourceRoute.PRIMARY);
 
     id = assistant.applyCurrentNamespace(id, false);
 
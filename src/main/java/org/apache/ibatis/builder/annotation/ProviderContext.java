@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.builder.annotation;
 
+import java.io.Serializable;
 import java.lang.reflect.Method;
 
 /**
@@ -23,7 +24,9 @@ import java.lang.reflect.Method;
  * @author Kazuki Shimizu
  * @since 3.4.5
  */
-public final class ProviderContext {
+public final class ProviderContext implements Serializable {
+
+  private static final long serialVersionUID = -976083533801431224L;
 
   private final Class<?> mapperType;
   private final Method mapperMethod;
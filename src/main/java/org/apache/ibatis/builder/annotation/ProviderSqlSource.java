@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,11 +15,20 @@
  */
 package org.apache.ibatis.builder.annotation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.apache.ibatis.annotations.CacheableProvider;
 import org.apache.ibatis.builder.BuilderException;
 import org.apache.ibatis.builder.SqlSourceBuilder;
 import org.apache.ibatis.mapping.BoundSql;
@@ -29,10 +38,20 @@ import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.session.Configuration;
 
 /**
+ * The SQL source of a statement built by a SQL provider method.
+ * <p>
+ * When the provider method is annotated with {@link CacheableProvider}, the parsed SQL is cached per cache key
+ * and parameter type, up to {@value #MAX_CACHED_SQL_SOURCES} entries per statement, and the provider type is
+ * instantiated once. {@link #getCacheHits()} and {@link #getCacheMisses()} tell how effective the cache is.
+ *
  * @author Clinton Begin
  * @author Kazuki Shimizu
  */
-public class ProviderSqlSource implements SqlSource {
+public class ProviderSqlSource implements SqlSource, Serializable {
+
+  private static final long serialVersionUID = 3853907455270955660L;
+
+  public static final int MAX_CACHED_SQL_SOURCES = 256;
 
   private final Configuration configuration;
   private final SqlSourceBuilder sqlSourceParser;
@@ -42,6 +61,12 @@ public class ProviderSqlSource implements SqlSource {
   private Class<?>[] providerMethodParameterTypes;
   private ProviderContext providerContext;
   private Integer providerContextIndex;
+  private boolean cacheable;
+  private Method providerKeyMethod;
+  private transient ConcurrentMap<List<Object>, SqlSource> sqlSourceCache;
+  private transient LongAdder cacheHits;
+  private transient LongAdder cacheMisses;
+  private transient volatile Object providerInstance;
 
   /**
    * @deprecated Please use the {@link #ProviderSqlSource(Configuration, Object, Class, Method)} instead of this.
@@ -95,6 +120,63 @@ public class ProviderSqlSource implements SqlSource {
         this.providerContextIndex = i;
       }
     }
+    CacheableProvider cacheableProvider = this.providerMethod.getAnnotation(CacheableProvider.class);
+    if (cacheableProvider != null) {
+      this.cacheable = true;
+      if (!cacheableProvider.keyMethod().isEmpty()) {
+        this.providerKeyMethod = resolveProviderKeyMethod(cacheableProvider.keyMethod());
+      }
+    }
+    initCache();
+  }
+
+  private Method resolveProviderKeyMethod(String keyMethodName) {
+    try {
+      Method keyMethod = this.providerType.getMethod(keyMethodName, this.providerMethodParameterTypes);
+      if (Modifier.isStatic(keyMethod.getModifiers()) != Modifier.isStatic(this.providerMethod.getModifiers())) {
+        throw new BuilderException("Error creating SqlSource for SqlProvider. Key method '" + keyMethodName
+            + "' and provider method '" + this.providerMethod.getName() + "' of SqlProvider '" + this.providerType.getName()
+            + "' must both be static or both be instance methods.");
+      }
+      return keyMethod;
+    } catch (NoSuchMethodException e) {
+      throw new BuilderException("Error creating SqlSource for SqlProvider. Key method '" + keyMethodName
+          + "' with the parameters of provider method '" + this.providerMethod.getName()
+          + "' not found in SqlProvider '" + this.providerType.getName() + "'.", e);
+    }
+  }
+
+  private void initCache() {
+    if (cacheable) {
+      this.sqlSourceCache = new ConcurrentHashMap<>();
+      this.cacheHits = new LongAdder();
+      this.cacheMisses = new LongAdder();
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    initCache();
+  }
+
+  /**
+   * Returns how many executions reused a cached SQL source, always 0 unless the provider method is
+   * annotated with {@link CacheableProvider}.
+   *
+   * @since 3.5.0
+   */
+  public long getCacheHits() {
+    return cacheHits == null ? 0 : cacheHits.sum();
+  }
+
+  /**
+   * Returns how many executions had to parse the provided SQL, always 0 unless the provider method is
+   * annotated with {@link CacheableProvider}.
+   *
+   * @since 3.5.0
+   */
+  public long getCacheMisses() {
+    return cacheMisses == null ? 0 : cacheMisses.sum();
   }
 
   @Override
@@ -105,28 +187,24 @@ public class ProviderSqlSource implements SqlSource {
 
   private SqlSource createSqlSource(Object parameterObject) {
     try {
-      int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
-      String sql;
-      if (providerMethodParameterTypes.length == 0) {
-        sql = invokeProviderMethod();
-      } else if (bindParameterCount == 0) {
-        sql = invokeProviderMethod(providerContext);
-      } else if (bindParameterCount == 1 &&
-              (parameterObject == null || providerMethodParameterTypes[(providerContextIndex == null || providerContextIndex == 1) ? 0 : 1].isAssignableFrom(parameterObject.getClass()))) {
-        sql = invokeProviderMethod(extractProviderMethodArguments(parameterObject));
-      } else if (parameterObject instanceof Map) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> params = (Map<String, Object>) parameterObject;
-        sql = invokeProviderMethod(extractProviderMethodArguments(params, providerMethodArgumentNames));
-      } else {
-        throw new BuilderException("Error invoking SqlProvider method ("
-                + providerType.getName() + "." + providerMethod.getName()
-                + "). Cannot invoke a method that holds "
-                + (bindParameterCount == 1 ? "named argument(@Param)": "multiple arguments")
-                + " using a specifying parameterObject. In this case, please specify a 'java.util.Map' object.");
-      }
+      Object[] args = getProviderMethodArguments(parameterObject);
       Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-      return sqlSourceParser.parse(replacePlaceholder(sql), parameterType, new HashMap<String, Object>());
+      if (!cacheable) {
+        return parseSql(invokeProviderMethod(args), parameterType);
+      }
+      Object key = providerKeyMethod != null ? providerKeyMethod.invoke(getProviderInstance(), args) : invokeProviderMethod(args);
+      List<Object> cacheKey = Arrays.asList(key, parameterType);
+      SqlSource sqlSource = sqlSourceCache.get(cacheKey);
+      if (sqlSource != null) {
+        cacheHits.increment();
+        return sqlSource;
+      }
+      cacheMisses.increment();
+      sqlSource = parseSql(providerKeyMethod != null ? invokeProviderMethod(args) : (String) key, parameterType);
+      if (sqlSourceCache.size() < MAX_CACHED_SQL_SOURCES) {
+        sqlSourceCache.putIfAbsent(cacheKey, sqlSource);
+      }
+      return sqlSource;
     } catch (BuilderException e) {
       throw e;
     } catch (Exception e) {
@@ -136,6 +214,32 @@ public class ProviderSqlSource implements SqlSource {
     }
   }
 
+  private Object[] getProviderMethodArguments(Object parameterObject) {
+    int bindParameterCount = providerMethodParameterTypes.length - (providerContext == null ? 0 : 1);
+    if (providerMethodParameterTypes.length == 0) {
+      return new Object[0];
+    } else if (bindParameterCount == 0) {
+      return new Object[] { providerContext };
+    } else if (bindParameterCount == 1 &&
+            (parameterObject == null || providerMethodParameterTypes[(providerContextIndex == null || providerContextIndex == 1) ? 0 : 1].isAssignableFrom(parameterObject.getClass()))) {
+      return extractProviderMethodArguments(parameterObject);
+    } else if (parameterObject instanceof Map) {
+      @SuppressWarnings("unchecked")
+      Map<String, Object> params = (Map<String, Object>) parameterObject;
+      return extractProviderMethodArguments(params, providerMethodArgumentNames);
+    } else {
+      throw new BuilderException("Error invoking SqlProvider method ("
+              + providerType.getName() + "." + providerMethod.getName()
+              + "). Cannot invoke a method that holds "
+              + (bindParameterCount == 1 ? "named argument(@Param)": "multiple arguments")
+              + " using a specifying parameterObject. In this case, please specify a 'java.util.Map' object.");
+    }
+  }
+
+  private SqlSource parseSql(String sql, Class<?> parameterType) {
+    return sqlSourceParser.parse(replacePlaceholder(sql), parameterType, new HashMap<String, Object>());
+  }
+
   private Object[] extractProviderMethodArguments(Object parameterObject) {
     if (providerContext != null) {
       Object[] args = new Object[2];
@@ -160,14 +264,25 @@ public class ProviderSqlSource implements SqlSource {
   }
 
   private String invokeProviderMethod(Object... args) throws Exception {
-    Object targetObject = null;
-    if (!Modifier.isStatic(providerMethod.getModifiers())) {
-      targetObject = providerType.newInstance();
-    }
-    CharSequence sql = (CharSequence) providerMethod.invoke(targetObject, args);
+    CharSequence sql = (CharSequence) providerMethod.invoke(getProviderInstance(), args);
     return sql != null ? sql.toString() : null;
   }
 
+  private Object getProviderInstance() throws Exception {
+    if (Modifier.isStatic(providerMethod.getModifiers())) {
+      return null;
+    }
+    if (!cacheable) {
+      return providerType.newInstance();
+    }
+    Object instance = providerInstance;
+    if (instance == null) {
+      instance = providerType.newInstance();
+      providerInstance = instance;
+    }
+    return instance;
+  }
+
   private String replacePlaceholder(String sql) {
     return PropertyParser.parse(sql, configuration.getVariables());
   }
@@ -0,0 +1,316 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A precompiled image of everything the mappers contributed to a {@link Configuration}: mapped statements with
+ * their SQL node trees, result maps, parameter maps, key generators, cache definitions, cache-refs and mapper
+ * interfaces. A snapshot is written once, typically at build time, and restored instead of parsing the mapper
+ * XML files and annotations again.
+ * <p>
+ * The snapshot records a checksum of every mapper resource and mapper interface it was built from.
+ * {@link #isValid()} recomputes it from the classpath, so a stale snapshot can be detected and ignored.
+ * Settings, type aliases, type handlers, plugins and environments are not part of the snapshot; they still
+ * come from the configuration file and must match the ones the snapshot was written with.
+ *
+ * @since 3.5.0
+ */
+public final class ConfigurationSnapshot {
+
+  private static final Log log = LogFactory.getLog(ConfigurationSnapshot.class);
+
+  private static final int MAGIC = 0x4d425353;
+  private static final int VERSION = 1;
+  private static final String NAMESPACE_PREFIX = "namespace:";
+  private static final String INTERFACE_PREFIX = "interface ";
+
+  private final String checksum;
+  private final List<String> resources;
+  private final byte[] payload;
+
+  private ConfigurationSnapshot(String checksum, List<String> resources, byte[] payload) {
+    this.checksum = checksum;
+    this.resources = resources;
+    this.payload = payload;
+  }
+
+  /**
+   * Writes a snapshot of the mapper part of a fully built configuration.
+   */
+  public static void write(Configuration configuration, OutputStream outputStream) throws IOException {
+    // builds all pending statements
+    configuration.getMappedStatementNames();
+    if (!configuration.getIncompleteResultMaps().isEmpty() || !configuration.getIncompleteCacheRefs().isEmpty()
+        || !configuration.getIncompleteStatements().isEmpty() || !configuration.getIncompleteMethods().isEmpty()) {
+      throw new BuilderException("Cannot write a snapshot of a configuration with unresolved elements.");
+    }
+
+    Map<String, CacheBuilder> cacheBuilders = new LinkedHashMap<>();
+    for (String id : fullNames(configuration.getCacheNames())) {
+      CacheBuilder cacheBuilder = configuration.getCacheBuilder(id);
+      if (cacheBuilder == null) {
+        throw new BuilderException("Cache " + id + " was not created by a mapper and cannot be written to a snapshot.");
+      }
+      cacheBuilders.put(id, cacheBuilder);
+    }
+    Contents contents = new Contents();
+    for (String id : fullNames(configuration.getResultMapNames())) {
+      contents.resultMaps.add(configuration.getResultMap(id));
+    }
+    for (String id : fullNames(configuration.getParameterMapNames())) {
+      contents.parameterMaps.add(configuration.getParameterMap(id));
+    }
+    for (String id : fullNames(configuration.getKeyGeneratorNames())) {
+      contents.keyGenerators.put(id, configuration.getKeyGenerator(id));
+    }
+    for (String id : fullNames(configuration.getMappedStatementNames())) {
+      contents.mappedStatements.add(configuration.getMappedStatement(id, false));
+    }
+    contents.cacheRefs.putAll(configuration.getCacheRefMap());
+    contents.mappers.addAll(configuration.getMapperRegistry().getMappers());
+
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new SnapshotObjectOutputStream(payload)) {
+      out.writeObject(cacheBuilders);
+      out.writeObject(contents);
+    }
+
+    List<String> resources = new ArrayList<>(configuration.getLoadedResources());
+    Collections.sort(resources);
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeUTF(checksum(resources));
+    out.writeInt(resources.size());
+    for (String resource : resources) {
+      out.writeUTF(resource);
+    }
+    out.writeInt(payload.size());
+    payload.writeTo(out);
+    out.flush();
+  }
+
+  /**
+   * Reads a snapshot written by {@link #write(Configuration, OutputStream)}. The stream is not closed.
+   */
+  public static ConfigurationSnapshot read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new BuilderException("Not a configuration snapshot.");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new BuilderException("Unsupported configuration snapshot version " + version + ".");
+    }
+    String checksum = in.readUTF();
+    int resourceCount = in.readInt();
+    List<String> resources = new ArrayList<>(resourceCount);
+    for (int i = 0; i < resourceCount; i++) {
+      resources.add(in.readUTF());
+    }
+    byte[] payload = new byte[in.readInt()];
+    in.readFully(payload);
+    return new ConfigurationSnapshot(checksum, Collections.unmodifiableList(resources), payload);
+  }
+
+  /**
+   * Returns the mapper resources and mapper interfaces (as <code>interface</code> + class name)
+   * the snapshot was built from.
+   */
+  public List<String> getResources() {
+    return resources;
+  }
+
+  /**
+   * Checks that every mapper resource and mapper interface the snapshot was built from is still on the
+   * classpath and unchanged.
+   */
+  public boolean isValid() {
+    try {
+      if (checksum.equals(checksum(resources))) {
+        return true;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Configuration snapshot is out of date with its mapper resources.");
+      }
+    } catch (IOException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Configuration snapshot cannot be validated. Cause: " + e);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks that the snapshot contains the given mapper resources or mapper interfaces
+   * (given as <code>interface</code> + class name).
+   */
+  public boolean covers(Collection<String> mapperResources) {
+    return resources.containsAll(mapperResources);
+  }
+
+  /**
+   * Adds the contents of the snapshot to a configuration that has its settings, type aliases and type handlers
+   * set up but no mappers yet.
+   */
+  @SuppressWarnings("unchecked")
+  public void restore(Configuration configuration) {
+    try (ObjectInputStream in = new SnapshotObjectInputStream(new ByteArrayInputStream(payload), configuration)) {
+      Map<String, CacheBuilder> cacheBuilders = (Map<String, CacheBuilder>) in.readObject();
+      for (Map.Entry<String, CacheBuilder> entry : cacheBuilders.entrySet()) {
+        if (!configuration.hasCache(entry.getKey())) {
+          Cache cache = entry.getValue().build();
+          configuration.addCache(cache);
+          configuration.addCacheBuilder(cache.getId(), entry.getValue());
+        }
+      }
+      Contents contents = (Contents) in.readObject();
+      for (ResultMap resultMap : contents.resultMaps) {
+        configuration.addResultMap(resultMap);
+      }
+      for (ParameterMap parameterMap : contents.parameterMaps) {
+        configuration.addParameterMap(parameterMap);
+      }
+      for (Map.Entry<String, KeyGenerator> entry : contents.keyGenerators.entrySet()) {
+        configuration.addKeyGenerator(entry.getKey(), entry.getValue());
+      }
+      for (MappedStatement mappedStatement : contents.mappedStatements) {
+        configuration.addMappedStatement(mappedStatement);
+      }
+      for (Map.Entry<String, String> entry : contents.cacheRefs.entrySet()) {
+        configuration.addCacheRef(entry.getKey(), entry.getValue());
+      }
+      for (String resource : resources) {
+        configuration.addLoadedResource(resource);
+      }
+      for (Class<?> mapper : contents.mappers) {
+        if (!configuration.hasMapper(mapper)) {
+          configuration.getMapperRegistry().addParsedMapper(mapper);
+        }
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new BuilderException("Error restoring configuration snapshot. Cause: " + e, e);
+    }
+  }
+
+  /*
+   * StrictMap also stores every namespaced entry under its short name; only the full names are written.
+   */
+  private static List<String> fullNames(Collection<String> names) {
+    Set<String> shortNames = new HashSet<>();
+    for (String name : names) {
+      int lastPeriod = name.lastIndexOf('.');
+      if (lastPeriod >= 0) {
+        shortNames.add(name.substring(lastPeriod + 1));
+      }
+    }
+    List<String> fullNames = new ArrayList<>();
+    for (String name : names) {
+      if (name.indexOf('.') >= 0 || !shortNames.contains(name)) {
+        fullNames.add(name);
+      }
+    }
+    Collections.sort(fullNames);
+    return fullNames;
+  }
+
+  private static String checksum(List<String> resources) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    byte[] buffer = new byte[8192];
+    for (String resource : resources) {
+      digest.update(resource.getBytes(StandardCharsets.UTF_8));
+      if (resource.startsWith(NAMESPACE_PREFIX)) {
+        continue;
+      }
+      try (InputStream in = openResource(resource)) {
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+          digest.update(buffer, 0, n);
+        }
+      }
+    }
+    StringBuilder checksum = new StringBuilder();
+    for (byte b : digest.digest()) {
+      checksum.append(String.format("%02x", b));
+    }
+    return checksum.toString();
+  }
+
+  private static InputStream openResource(String resource) throws IOException {
+    if (resource.startsWith(INTERFACE_PREFIX)) {
+      return Resources.getResourceAsStream(resource.substring(INTERFACE_PREFIX.length()).replace('.', '/') + ".class");
+    }
+    try {
+      return new URL(resource).openStream();
+    } catch (MalformedURLException e) {
+      return Resources.getResourceAsStream(resource);
+    }
+  }
+
+  private static class Contents implements Serializable {
+
+    private static final long serialVersionUID = -2015632087461129855L;
+
+    private final List<ResultMap> resultMaps = new ArrayList<>();
+    private final List<ParameterMap> parameterMaps = new ArrayList<>();
+    private final Map<String, KeyGenerator> keyGenerators = new LinkedHashMap<>();
+    private final List<MappedStatement> mappedStatements = new ArrayList<>();
+    private final Map<String, String> cacheRefs = new LinkedHashMap<>();
+    private final List<Class<?>> mappers = new ArrayList<>();
+  }
+
+}
@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reads the mapper objects of a snapshot, resolving every {@link SnapshotReference} against the target configuration.
+ */
+class SnapshotObjectInputStream extends ObjectInputStream {
+
+  private final Configuration configuration;
+
+  SnapshotObjectInputStream(InputStream in, Configuration configuration) throws IOException {
+    super(in);
+    this.configuration = configuration;
+    enableResolveObject(true);
+  }
+
+  @Override
+  protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+    try {
+      return Resources.classForName(desc.getName());
+    } catch (ClassNotFoundException e) {
+      return super.resolveClass(desc);
+    }
+  }
+
+  @Override
+  protected Object resolveObject(Object obj) throws IOException {
+    if (obj instanceof SnapshotReference) {
+      return ((SnapshotReference) obj).resolve(configuration);
+    }
+    return obj;
+  }
+
+}
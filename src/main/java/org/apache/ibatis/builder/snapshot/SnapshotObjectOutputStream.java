@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.snapshot;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Writes the mapper objects of a configuration, replacing everything that belongs to the configuration
+ * rather than to a single mapper with a {@link SnapshotReference}.
+ */
+class SnapshotObjectOutputStream extends ObjectOutputStream {
+
+  SnapshotObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+    enableReplaceObject(true);
+  }
+
+  @Override
+  protected Object replaceObject(Object obj) throws IOException {
+    if (obj instanceof Configuration) {
+      return SnapshotReference.ComponentReference.CONFIGURATION;
+    } else if (obj instanceof TypeAliasRegistry) {
+      return SnapshotReference.ComponentReference.TYPE_ALIAS_REGISTRY;
+    } else if (obj instanceof TypeHandlerRegistry) {
+      return SnapshotReference.ComponentReference.TYPE_HANDLER_REGISTRY;
+    } else if (obj instanceof SqlSourceBuilder) {
+      return SnapshotReference.ComponentReference.SQL_SOURCE_BUILDER;
+    } else if (obj instanceof LanguageDriver) {
+      return new SnapshotReference.LanguageDriverReference(((LanguageDriver) obj).getClass());
+    } else if (obj instanceof Cache) {
+      return new SnapshotReference.CacheReference(((Cache) obj).getId());
+    } else if (obj instanceof Method) {
+      return new SnapshotReference.MethodReference((Method) obj);
+    } else if (obj instanceof ParameterMapping) {
+      return new SnapshotReference.ParameterMappingReference((ParameterMapping) obj);
+    } else if (obj instanceof ResultMapping) {
+      return new SnapshotReference.ResultMappingReference((ResultMapping) obj);
+    } else if (obj instanceof TypeHandler && !(obj instanceof Serializable)) {
+      throw new NotSerializableException(obj.getClass().getName()
+          + " (type handlers can only be written as part of a parameter or result mapping)");
+    }
+    return obj;
+  }
+
+}
@@ -0,0 +1,278 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.snapshot;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.LanguageDriverRegistry;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Stands in for an object that cannot be written to a snapshot as is (the configuration itself, its registries,
+ * type handlers, caches, ...) and is resolved against the target configuration when the snapshot is restored.
+ */
+abstract class SnapshotReference implements Serializable {
+
+  private static final long serialVersionUID = -4260716416337391735L;
+
+  abstract Object resolve(Configuration configuration);
+
+  static final class ComponentReference extends SnapshotReference {
+
+    private static final long serialVersionUID = 2306734926196113440L;
+
+    static final ComponentReference CONFIGURATION = new ComponentReference(0);
+    static final ComponentReference TYPE_ALIAS_REGISTRY = new ComponentReference(1);
+    static final ComponentReference TYPE_HANDLER_REGISTRY = new ComponentReference(2);
+    static final ComponentReference SQL_SOURCE_BUILDER = new ComponentReference(3);
+
+    private final int component;
+
+    private ComponentReference(int component) {
+      this.component = component;
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      switch (component) {
+        case 0:
+          return configuration;
+        case 1:
+          return configuration.getTypeAliasRegistry();
+        case 2:
+          return configuration.getTypeHandlerRegistry();
+        default:
+          return new SqlSourceBuilder(configuration);
+      }
+    }
+  }
+
+  static final class LanguageDriverReference extends SnapshotReference {
+
+    private static final long serialVersionUID = -1480935637946329290L;
+
+    private final Class<? extends LanguageDriver> driverType;
+
+    LanguageDriverReference(Class<? extends LanguageDriver> driverType) {
+      this.driverType = driverType;
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      LanguageDriverRegistry registry = configuration.getLanguageRegistry();
+      if (registry.getDriver(driverType) == null) {
+        registry.register(driverType);
+      }
+      return registry.getDriver(driverType);
+    }
+  }
+
+  static final class CacheReference extends SnapshotReference {
+
+    private static final long serialVersionUID = 6616208364014584447L;
+
+    private final String id;
+
+    CacheReference(String id) {
+      this.id = id;
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      if (!configuration.hasCache(id)) {
+        throw new BuilderException("Cache " + id + " referenced by the snapshot is not available in the configuration.");
+      }
+      return configuration.getCache(id);
+    }
+  }
+
+  static final class MethodReference extends SnapshotReference {
+
+    private static final long serialVersionUID = 3930424962870853325L;
+
+    private final Class<?> declaringClass;
+    private final String name;
+    private final Class<?>[] parameterTypes;
+
+    MethodReference(Method method) {
+      this.declaringClass = method.getDeclaringClass();
+      this.name = method.getName();
+      this.parameterTypes = method.getParameterTypes();
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      try {
+        return declaringClass.getDeclaredMethod(name, parameterTypes);
+      } catch (NoSuchMethodException e) {
+        throw new BuilderException("Method " + declaringClass.getName() + "." + name + " referenced by the snapshot no longer exists.", e);
+      }
+    }
+  }
+
+  /**
+   * Type handlers are resolved the same way the builders resolve them: the handler registered for the mapped
+   * java and jdbc type when it is of the right class, otherwise the registered or a new instance of the handler class.
+   */
+  static final class TypeHandlerReference implements Serializable {
+
+    private static final long serialVersionUID = -2869213917000452658L;
+
+    private final Class<?> handlerType;
+    private final Class<?> javaType;
+    private final JdbcType jdbcType;
+
+    TypeHandlerReference(TypeHandler<?> typeHandler, Class<?> javaType, JdbcType jdbcType) {
+      this.handlerType = typeHandler.getClass();
+      this.javaType = javaType;
+      this.jdbcType = jdbcType;
+    }
+
+    @SuppressWarnings("unchecked")
+    TypeHandler<?> resolve(Configuration configuration) {
+      TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+      if (javaType != null) {
+        TypeHandler<?> typeHandler = registry.getTypeHandler(javaType, jdbcType);
+        if (typeHandler != null && typeHandler.getClass() == handlerType) {
+          return typeHandler;
+        }
+      }
+      TypeHandler<?> typeHandler = registry.getMappingTypeHandler((Class<? extends TypeHandler<?>>) handlerType);
+      if (typeHandler == null) {
+        typeHandler = registry.getInstance(javaType, handlerType);
+      }
+      return typeHandler;
+    }
+
+    static TypeHandlerReference of(TypeHandler<?> typeHandler, Class<?> javaType, JdbcType jdbcType) {
+      return typeHandler == null ? null : new TypeHandlerReference(typeHandler, javaType, jdbcType);
+    }
+
+    static TypeHandler<?> resolve(TypeHandlerReference reference, Configuration configuration) {
+      return reference == null ? null : reference.resolve(configuration);
+    }
+  }
+
+  static final class ParameterMappingReference extends SnapshotReference {
+
+    private static final long serialVersionUID = 5049618186307245573L;
+
+    private final String property;
+    private final ParameterMode mode;
+    private final Class<?> javaType;
+    private final JdbcType jdbcType;
+    private final Integer numericScale;
+    private final TypeHandlerReference typeHandler;
+    private final String resultMapId;
+    private final String jdbcTypeName;
+    private final String expression;
+
+    ParameterMappingReference(ParameterMapping parameterMapping) {
+      this.property = parameterMapping.getProperty();
+      this.mode = parameterMapping.getMode();
+      this.javaType = parameterMapping.getJavaType();
+      this.jdbcType = parameterMapping.getJdbcType();
+      this.numericScale = parameterMapping.getNumericScale();
+      this.typeHandler = TypeHandlerReference.of(parameterMapping.getTypeHandler(), javaType, jdbcType);
+      this.resultMapId = parameterMapping.getResultMapId();
+      this.jdbcTypeName = parameterMapping.getJdbcTypeName();
+      this.expression = parameterMapping.getExpression();
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      return new ParameterMapping.Builder(configuration, property, javaType)
+          .mode(mode)
+          .jdbcType(jdbcType)
+          .numericScale(numericScale)
+          .typeHandler(TypeHandlerReference.resolve(typeHandler, configuration))
+          .resultMapId(resultMapId)
+          .jdbcTypeName(jdbcTypeName)
+          .expression(expression)
+          .build();
+    }
+  }
+
+  static final class ResultMappingReference extends SnapshotReference {
+
+    private static final long serialVersionUID = -7725390834532497233L;
+
+    private final String property;
+    private final String column;
+    private final Class<?> javaType;
+    private final JdbcType jdbcType;
+    private final TypeHandlerReference typeHandler;
+    private final String nestedResultMapId;
+    private final String nestedQueryId;
+    private final Set<String> notNullColumns;
+    private final String columnPrefix;
+    private final List<ResultFlag> flags;
+    private final List<ResultMapping> composites;
+    private final String resultSet;
+    private final String foreignColumn;
+    private final boolean lazy;
+
+    ResultMappingReference(ResultMapping resultMapping) {
+      this.property = resultMapping.getProperty();
+      this.column = resultMapping.getColumn();
+      this.javaType = resultMapping.getJavaType();
+      this.jdbcType = resultMapping.getJdbcType();
+      this.typeHandler = TypeHandlerReference.of(resultMapping.getTypeHandler(), javaType, jdbcType);
+      this.nestedResultMapId = resultMapping.getNestedResultMapId();
+      this.nestedQueryId = resultMapping.getNestedQueryId();
+      this.notNullColumns = resultMapping.getNotNullColumns();
+      this.columnPrefix = resultMapping.getColumnPrefix();
+      this.flags = resultMapping.getFlags();
+      this.composites = resultMapping.getComposites();
+      this.resultSet = resultMapping.getResultSet();
+      this.foreignColumn = resultMapping.getForeignColumn();
+      this.lazy = resultMapping.isLazy();
+    }
+
+    @Override
+    Object resolve(Configuration configuration) {
+      return new ResultMapping.Builder(configuration, property)
+          .column(column)
+          .javaType(javaType)
+          .jdbcType(jdbcType)
+          .typeHandler(TypeHandlerReference.resolve(typeHandler, configuration))
+          .nestedResultMapId(nestedResultMapId)
+          .nestedQueryId(nestedQueryId)
+          .notNullColumns(notNullColumns)
+          .columnPrefix(columnPrefix)
+          .flags(flags)
+          .composites(composites)
+          .resultSet(resultSet)
+          .foreignColumn(foreignColumn)
+          .lazy(lazy)
+          .build();
+    }
+  }
+
+}
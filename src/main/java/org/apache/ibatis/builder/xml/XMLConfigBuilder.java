@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,11 +17,17 @@ package org.apache.ibatis.builder.xml;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.snapshot.ConfigurationSnapshot;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
@@ -30,6 +36,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -61,6 +68,7 @@ public class XMLConfigBuilder extends BaseBuilder {
   private boolean parsed;
   private final XPathParser parser;
   private String environment;
+  private ConfigurationSnapshot snapshot;
   private final ReflectorFactory localReflectorFactory = new DefaultReflectorFactory();
 
   public XMLConfigBuilder(Reader reader) {
@@ -104,6 +112,17 @@ public class XMLConfigBuilder extends BaseBuilder {
     this.parser = parser;
   }
 
+  /**
+   * Sets a snapshot to restore the mappers from instead of parsing the <code>mappers</code> element.
+   * The snapshot is only used when it contains every mapper resource and class declared in the configuration
+   * and its checksum still matches them.
+   *
+   * @since 3.5.0
+   */
+  public void setConfigurationSnapshot(ConfigurationSnapshot snapshot) {
+    this.snapshot = snapshot;
+  }
+
   /**
    * 解析配置
    * @return
@@ -214,7 +233,12 @@ public class XMLConfigBuilder extends BaseBuilder {
       //10.类型处理器
       typeHandlerElement(root.evalNode("typeHandlers"));
       //11.映射器
-      mapperElement(root.evalNode("mappers"));
+      XNode mappers = root.evalNode("mappers");
+      if (snapshot != null && snapshot.covers(declaredMapperResources(mappers)) && snapshot.isValid()) {
+        snapshot.restore(configuration);
+      } else {
+        mapperElement(mappers);
+      }
     } catch (Exception e) {
       throw new BuilderException("Error parsing SQL Mapper Configuration. Cause: " + e, e);
     }
@@ -405,10 +429,23 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setAggressiveLazyLoading(booleanValueOf(props.getProperty("aggressiveLazyLoading"), false));
     configuration.setMultipleResultSetsEnabled(booleanValueOf(props.getProperty("multipleResultSetsEnabled"), true));
     configuration.setUseColumnLabel(booleanValueOf(props.getProperty("useColumnLabel"), true));
+    configuration.setUseColumnIndex(booleanValueOf(props.getProperty("useColumnIndex"), false));
     configuration.setUseGeneratedKeys(booleanValueOf(props.getProperty("useGeneratedKeys"), false));
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    configuration.setBatchPipelineThreshold(integerValueOf(props.getProperty("batchPipelineThreshold"), null));
+    configuration.setBatchPipelineDepth(integerValueOf(props.getProperty("batchPipelineDepth"), 2));
+    configuration.setParallelMapperParsing(booleanValueOf(props.getProperty("parallelMapperParsing"), false));
+    configuration.setParallelNestedQueries(booleanValueOf(props.getProperty("parallelNestedQueries"), false));
+    configuration.setStatementMetricsListener((StatementMetricsListener) createInstance(props.getProperty("statementMetricsListener")));
+    configuration.setSlowStatementThreshold(integerValueOf(props.getProperty("slowStatementThreshold"), null));
+    configuration.setLargeResultThreshold(integerValueOf(props.getProperty("largeResultThreshold"), null));
+    configuration.setStatementSampleInterval(integerValueOf(props.getProperty("statementSampleInterval"), null));
+    configuration.setAsyncJdbcLogging(booleanValueOf(props.getProperty("asyncJdbcLogging"), false));
+    configuration.setBulkInsertParameterLimit(integerValueOf(props.getProperty("bulkInsertParameterLimit"), 1000));
+    configuration.setReadOnlySelectSessions(booleanValueOf(props.getProperty("readOnlySelectSessions"), false));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
@@ -574,40 +611,115 @@ public class XMLConfigBuilder extends BaseBuilder {
    * @throws Exception
    */
   private void mapperElement(XNode parent) throws Exception {
+    if (parent != null) {
+      List<XNode> children = parent.getChildren();
+      List<CompletableFuture<XPathParser>> documents = configuration.isParallelMapperParsing()
+          ? parseMapperDocuments(children) : null;
+      for (int i = 0; i < children.size(); i++) {
+        mapperElement(children.get(i), documents != null ? documents.get(i) : null);
+      }
+    }
+  }
+
+  /**
+   * @param document the mapper XML document of the child, already being parsed, or <code>null</code> to read it
+   */
+  private void mapperElement(XNode child, CompletableFuture<XPathParser> document) throws Exception {
+    if ("package".equals(child.getName())) {
+      //自动扫描包下所有映射器
+      String mapperPackage = child.getStringAttribute("name");
+      configuration.addMappers(mapperPackage);
+    } else {
+      String resource = child.getStringAttribute("resource");
+      String url = child.getStringAttribute("url");
+      String mapperClass = child.getStringAttribute("class");
+      if (resource != null && url == null && mapperClass == null) {
+        //使用类路径
+        ErrorContext.instance().resource(resource);
+        //TODO 解析mapper标签
+        XMLMapperBuilder mapperParser = document != null
+            ? new XMLMapperBuilder(joinMapperDocument(document), configuration, resource, configuration.getSqlFragments())
+            : new XMLMapperBuilder(Resources.getResourceAsStream(resource), configuration, resource, configuration.getSqlFragments());
+        mapperParser.parse();
+      } else if (resource == null && url != null && mapperClass == null) {
+        //使用绝对url路径
+        ErrorContext.instance().resource(url);
+        XMLMapperBuilder mapperParser = document != null
+            ? new XMLMapperBuilder(joinMapperDocument(document), configuration, url, configuration.getSqlFragments())
+            : new XMLMapperBuilder(Resources.getUrlAsStream(url), configuration, url, configuration.getSqlFragments());
+        mapperParser.parse();
+      } else if (resource == null && url == null && mapperClass != null) {
+        //使用java类名
+        Class<?> mapperInterface = Resources.classForName(mapperClass);
+        //直接把这个映射加入配置
+        configuration.addMapper(mapperInterface);
+      } else {
+        throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+      }
+    }
+  }
+
+  /**
+   * Starts reading and parsing the mapper XML documents concurrently on the common fork-join pool. They are built
+   * into the configuration one by one in declaration order, so the resulting configuration (including pending
+   * result maps, cache-refs and statements) is the same as with sequential parsing.
+   *
+   * @return the document being parsed for each child, <code>null</code> for the children that are not mapper XML
+   *         documents
+   */
+  private List<CompletableFuture<XPathParser>> parseMapperDocuments(List<XNode> children) {
+    List<CompletableFuture<XPathParser>> documents = new ArrayList<>(children.size());
+    for (XNode child : children) {
+      final String resource = child.getStringAttribute("resource");
+      final String url = child.getStringAttribute("url");
+      final String mapperClass = child.getStringAttribute("class");
+      if (!"package".equals(child.getName()) && mapperClass == null && (resource == null) != (url == null)) {
+        documents.add(CompletableFuture.supplyAsync(() -> parseMapperDocument(resource, url), ForkJoinPool.commonPool()));
+      } else {
+        documents.add(null);
+      }
+    }
+    return documents;
+  }
+
+  private static XPathParser joinMapperDocument(CompletableFuture<XPathParser> document) {
+    try {
+      return document.join();
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
+  }
+
+  private XPathParser parseMapperDocument(String resource, String url) {
+    try (InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url)) {
+      return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+    } catch (Exception e) {
+      throw new BuilderException("Error parsing Mapper XML " + (resource != null ? resource : url) + ". Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Returns the mapper resources and mapper interfaces a snapshot must contain to replace the mappers element,
+   * including the mapper interfaces currently found in its packages.
+   */
+  private List<String> declaredMapperResources(XNode parent) {
+    List<String> resources = new ArrayList<>();
     if (parent != null) {
       for (XNode child : parent.getChildren()) {
         if ("package".equals(child.getName())) {
-          //自动扫描包下所有映射器
-          String mapperPackage = child.getStringAttribute("name");
-          configuration.addMappers(mapperPackage);
-        } else {
-          String resource = child.getStringAttribute("resource");
-          String url = child.getStringAttribute("url");
-          String mapperClass = child.getStringAttribute("class");
-          if (resource != null && url == null && mapperClass == null) {
-            //使用类路径
-            ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            //TODO 解析mapper标签
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url != null && mapperClass == null) {
-            //使用绝对url路径
-            ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url == null && mapperClass != null) {
-            //使用java类名
-            Class<?> mapperInterface = Resources.classForName(mapperClass);
-            //直接把这个映射加入配置
-            configuration.addMapper(mapperInterface);
-          } else {
-            throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+          for (Class<?> mapperClass : configuration.getMapperRegistry().findMappers(child.getStringAttribute("name"), Object.class)) {
+            resources.add("interface " + mapperClass.getName());
           }
+        } else if (child.getStringAttribute("resource") != null) {
+          resources.add(child.getStringAttribute("resource"));
+        } else if (child.getStringAttribute("url") != null) {
+          resources.add(child.getStringAttribute("url"));
+        } else if (child.getStringAttribute("class") != null) {
+          resources.add("interface " + child.getStringAttribute("class"));
         }
       }
     }
+    return resources;
   }
 
   /**
@@ -16,11 +16,16 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
  * Cursors are a perfect fit to handle millions of items queries that would not normally fits in memory.
- * Cursor SQL queries must be ordered (resultOrdered="true") using the id columns of the resultMap.
+ * Cursor SQL queries must be ordered (resultOrdered="true", or <code>@Options(resultOrdered = true)</code>) using the id
+ * columns of the resultMap, so that only the nested results of the current item are kept while iterating.
  *
  * @author Guillaume Darmont / guillaume@dropinocean.com
  */
@@ -42,4 +47,21 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
      * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
      */
     int getCurrentIndex();
+
+    /**
+     * Returns a sequential stream over the items of this cursor. Like {@link #iterator()} it can only be
+     * retrieved once. Closing the stream closes the cursor.
+     *
+     * @return a stream of the remaining items
+     * @since 3.5.0
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 }
@@ -27,10 +27,24 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * This is the default implementation of a MyBatis Cursor.
  * This implementation is not thread safe.
+ * <p>
+ * When created with a prefetch size, the rows are mapped by a background thread into a buffer of that size
+ * while the caller processes the previous ones. The thread waits when the buffer is full, and mapping errors
+ * are thrown by the iterator when it reaches them.
  *
  * @author Guillaume Darmont / guillaume@dropinocean.com
  */
@@ -43,6 +57,18 @@ public class DefaultCursor<T> implements Cursor<T> {
   private final RowBounds rowBounds;
   private final ObjectWrapperResultHandler<T> objectWrapperResultHandler = new ObjectWrapperResultHandler<>();
 
+  // Prefetching stuff
+  private static final Object END_OF_ROWS = new Object();
+  private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "mybatis-cursor-prefetcher");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final int prefetchSize;
+  private BlockingQueue<Object> prefetchedObjects;
+  private Future<?> prefetcher;
+  private volatile boolean prefetchStopped;
+
   private final CursorIterator cursorIterator = new CursorIterator();
   private boolean iteratorRetrieved;
 
@@ -70,10 +96,19 @@ public class DefaultCursor<T> implements Cursor<T> {
   }
 
   public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds) {
+    this(resultSetHandler, resultMap, rsw, rowBounds, 0);
+  }
+
+  /**
+   * @param prefetchSize number of rows mapped ahead by a background thread, 0 to map each row when it is requested
+   * @since 3.5.0
+   */
+  public DefaultCursor(DefaultResultSetHandler resultSetHandler, ResultMap resultMap, ResultSetWrapper rsw, RowBounds rowBounds, int prefetchSize) {
     this.resultSetHandler = resultSetHandler;
     this.resultMap = resultMap;
     this.rsw = rsw;
     this.rowBounds = rowBounds;
+    this.prefetchSize = prefetchSize;
   }
 
   @Override
@@ -103,12 +138,22 @@ public class DefaultCursor<T> implements Cursor<T> {
     return cursorIterator;
   }
 
+  /**
+   * Returns a spliterator that splits off blocks of mapped items, sized from the fetch size of the result set.
+   * Its size is estimated from the limit of the row bounds. Like {@link #iterator()} it can only be retrieved once.
+   */
+  @Override
+  public Spliterator<T> spliterator() {
+    return new CursorSpliterator(iterator());
+  }
+
   @Override
   public void close() {
     if (isClosed()) {
       return;
     }
 
+    stopPrefetching();
     ResultSet rs = rsw.getResultSet();
     try {
       if (rs != null) {
@@ -134,16 +179,23 @@ public class DefaultCursor<T> implements Cursor<T> {
       return null;
     }
 
-    try {
+    T next;
+    if (prefetchSize > 0) {
       status = CursorStatus.OPEN;
-      if (!rsw.getResultSet().isClosed()) {
-        resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT, null);
+      next = fetchNextPrefetchedObject();
+    } else {
+      try {
+        status = CursorStatus.OPEN;
+        if (!rsw.getResultSet().isClosed()) {
+          resultSetHandler.handleRowValues(rsw, resultMap, objectWrapperResultHandler, RowBounds.DEFAULT, null);
+        }
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
       }
-    } catch (SQLException e) {
-      throw new RuntimeException(e);
+      next = objectWrapperResultHandler.result;
+      objectWrapperResultHandler.result = null;
     }
 
-    T next = objectWrapperResultHandler.result;
     if (next != null) {
       indexWithRowBound++;
     }
@@ -152,11 +204,86 @@ public class DefaultCursor<T> implements Cursor<T> {
       close();
       status = CursorStatus.CONSUMED;
     }
-    objectWrapperResultHandler.result = null;
 
     return next;
   }
 
+  @SuppressWarnings("unchecked")
+  private T fetchNextPrefetchedObject() {
+    if (prefetcher == null) {
+      prefetchedObjects = new ArrayBlockingQueue<>(prefetchSize);
+      prefetcher = PREFETCHER.submit(this::prefetchObjects);
+    }
+    Object next;
+    try {
+      next = prefetchedObjects.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the next row of the cursor.", e);
+    }
+    if (next == END_OF_ROWS) {
+      return null;
+    }
+    if (next instanceof PrefetchFailure) {
+      close();
+      Throwable cause = ((PrefetchFailure) next).cause;
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+    return (T) next;
+  }
+
+  private void prefetchObjects() {
+    final int maxRows = rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT ? -1 : rowBounds.getOffset() + rowBounds.getLimit();
+    final int[] prefetchedCount = new int[1];
+    Object last = END_OF_ROWS;
+    try {
+      if (!rsw.getResultSet().isClosed()) {
+        resultSetHandler.handleRowValues(rsw, resultMap, context -> {
+          if (!putPrefetchedObject(context.getResultObject()) || ++prefetchedCount[0] == maxRows) {
+            context.stop();
+          }
+        }, RowBounds.DEFAULT, null);
+      }
+    } catch (Throwable t) {
+      last = new PrefetchFailure(t);
+    }
+    putPrefetchedObject(last);
+  }
+
+  private boolean putPrefetchedObject(Object object) {
+    try {
+      while (!prefetchStopped) {
+        if (prefetchedObjects.offer(object, 100, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private void stopPrefetching() {
+    if (prefetcher == null) {
+      return;
+    }
+    prefetchStopped = true;
+    prefetchedObjects.clear();
+    try {
+      // the result set must not be closed while the prefetcher is reading it
+      prefetcher.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // failures are handed over through the queue
+    }
+  }
+
   private boolean isClosed() {
     return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
   }
@@ -165,6 +292,15 @@ public class DefaultCursor<T> implements Cursor<T> {
     return indexWithRowBound + 1;
   }
 
+  private static class PrefetchFailure {
+
+    private final Throwable cause;
+
+    PrefetchFailure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
   private static class ObjectWrapperResultHandler<T> implements ResultHandler<T> {
 
     private T result;
@@ -176,6 +312,81 @@ public class DefaultCursor<T> implements Cursor<T> {
     }
   }
 
+  private class CursorSpliterator implements Spliterator<T> {
+
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final int MAX_BATCH_SIZE = 1 << 25;
+
+    private final Iterator<T> iterator;
+    private int batchUnit;
+    private int batchSize;
+
+    CursorSpliterator(Iterator<T> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (iterator.hasNext()) {
+        action.accept(iterator.next());
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      while (iterator.hasNext()) {
+        action.accept(iterator.next());
+      }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      if (!iterator.hasNext()) {
+        return null;
+      }
+      if (batchUnit == 0) {
+        batchUnit = getFetchSize();
+      }
+      batchSize = Math.min(batchSize + batchUnit, MAX_BATCH_SIZE);
+      Object[] batch = new Object[batchSize];
+      int size = 0;
+      do {
+        batch[size++] = iterator.next();
+      } while (size < batchSize && iterator.hasNext());
+      return Spliterators.spliterator(batch, 0, size, characteristics());
+    }
+
+    @Override
+    public long estimateSize() {
+      if (isClosed() && cursorIterator.object == null) {
+        return 0;
+      }
+      if (rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+        return Long.MAX_VALUE;
+      }
+      return Math.max((long) rowBounds.getLimit() - cursorIterator.iteratorIndex - 1, 0);
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED;
+    }
+
+    private int getFetchSize() {
+      try {
+        int fetchSize = rsw.getResultSet().getFetchSize();
+        if (fetchSize > 0) {
+          return fetchSize;
+        }
+      } catch (SQLException e) {
+        // ignore, the result set may already be closed
+      }
+      return DEFAULT_BATCH_SIZE;
+    }
+  }
+
   private class CursorIterator implements Iterator<T> {
 
     /**
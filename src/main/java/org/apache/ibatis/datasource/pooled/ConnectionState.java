@@ -0,0 +1,212 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * The session state of a pooled connection as last set or read through its proxy: auto-commit, transaction
+ * isolation, read-only and schema, and whether a statement may have run since the last commit or rollback.
+ * Setting a value the connection already has, or reading a known value, does not reach the driver, and a connection
+ * on which no statement ran is not rolled back when it returns to the pool. The statements created through the proxy
+ * are wrapped as well, so that executing one that was created before a commit or rollback is seen too. The state is
+ * shared by the successive {@link PooledConnection} wrappers of a real connection.
+ * <p>
+ * Changes made on the real connection itself, or by SQL such as <code>SET SCHEMA</code>, are not seen. The state is
+ * forgotten and no longer tracked once the real connection has been unwrapped.
+ *
+ * @since 3.5.0
+ */
+final class ConnectionState {
+
+  /** Methods that neither change the session state nor run statements. */
+  private static final Set<String> PASSIVE_METHODS = new HashSet<>(Arrays.asList(
+      "clearWarnings", "getCatalog", "getClientInfo", "getHoldability", "getNetworkTimeout", "getTypeMap",
+      "getWarnings", "isClosed", "isValid", "nativeSQL"));
+
+  private final PoolState poolState;
+  private boolean tracked = true;
+  private Boolean autoCommit;
+  private Integer transactionIsolation;
+  private Boolean readOnly;
+  private boolean schemaKnown;
+  private String schema;
+  // also set by statements, which may be executed on other threads
+  private volatile boolean transactionStarted = true;
+
+  ConnectionState(PoolState poolState) {
+    this.poolState = poolState;
+  }
+
+  Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+    if (!tracked) {
+      return method.invoke(connection, args);
+    }
+    String methodName = method.getName();
+    int argCount = args == null ? 0 : args.length;
+    if ("getAutoCommit".equals(methodName)) {
+      return getAutoCommit(connection);
+    } else if ("setAutoCommit".equals(methodName)) {
+      boolean value = (Boolean) args[0];
+      if (autoCommit != null && autoCommit == value) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        autoCommit = null;
+        connection.setAutoCommit(value);
+        autoCommit = value;
+        transactionStarted = false;
+      }
+      return null;
+    } else if ("getTransactionIsolation".equals(methodName)) {
+      if (transactionIsolation != null) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        transactionIsolation = connection.getTransactionIsolation();
+      }
+      return transactionIsolation;
+    } else if ("setTransactionIsolation".equals(methodName)) {
+      int value = (Integer) args[0];
+      if (transactionIsolation != null && transactionIsolation == value) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        transactionIsolation = null;
+        connection.setTransactionIsolation(value);
+        transactionIsolation = value;
+      }
+      return null;
+    } else if ("isReadOnly".equals(methodName)) {
+      if (readOnly != null) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        readOnly = connection.isReadOnly();
+      }
+      return readOnly;
+    } else if ("setReadOnly".equals(methodName)) {
+      boolean value = (Boolean) args[0];
+      if (readOnly != null && readOnly == value) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        readOnly = null;
+        connection.setReadOnly(value);
+        readOnly = value;
+      }
+      return null;
+    } else if ("getSchema".equals(methodName)) {
+      if (schemaKnown) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        schema = connection.getSchema();
+        schemaKnown = true;
+      }
+      return schema;
+    } else if ("setSchema".equals(methodName)) {
+      String value = (String) args[0];
+      if (schemaKnown && value != null && value.equals(schema)) {
+        poolState.avoidedStateCallCount.increment();
+      } else {
+        schemaKnown = false;
+        connection.setSchema(value);
+        schema = value;
+        schemaKnown = true;
+      }
+      return null;
+    } else if (("commit".equals(methodName) || "rollback".equals(methodName)) && argCount == 0) {
+      Object result = method.invoke(connection, args);
+      transactionStarted = false;
+      return result;
+    } else if ("createStatement".equals(methodName) || "prepareStatement".equals(methodName)
+        || "prepareCall".equals(methodName)) {
+      transactionStarted = true;
+      return trackExecutions((Statement) method.invoke(connection, args), method.getReturnType());
+    } else if ("unwrap".equals(methodName)) {
+      untrack();
+    } else if (!PASSIVE_METHODS.contains(methodName)) {
+      transactionStarted = true;
+    }
+    return method.invoke(connection, args);
+  }
+
+  /**
+   * Wraps a statement so that executing it marks the transaction as started, even after a commit or rollback.
+   */
+  private Object trackExecutions(Statement statement, Class<?> statementType) {
+    return Proxy.newProxyInstance(statementType.getClassLoader(), new Class<?>[] { statementType },
+        (proxy, method, args) -> {
+          if ("equals".equals(method.getName()) && method.getDeclaringClass() == Object.class) {
+            return proxy == args[0];
+          } else if ("hashCode".equals(method.getName()) && method.getDeclaringClass() == Object.class) {
+            return System.identityHashCode(proxy);
+          } else if (method.getName().startsWith("execute")) {
+            transactionStarted = true;
+          }
+          try {
+            return method.invoke(statement, args);
+          } catch (Throwable t) {
+            throw ExceptionUtil.unwrapThrowable(t);
+          }
+        });
+  }
+
+  boolean getAutoCommit(Connection connection) throws SQLException {
+    if (!tracked) {
+      return connection.getAutoCommit();
+    }
+    if (autoCommit != null) {
+      poolState.avoidedStateCallCount.increment();
+    } else {
+      autoCommit = connection.getAutoCommit();
+    }
+    return autoCommit;
+  }
+
+  /**
+   * Rolls back the connection unless it is in auto-commit mode or no statement ran since the last commit or rollback.
+   */
+  void rollbackIfStarted(Connection connection) throws SQLException {
+    if (getAutoCommit(connection)) {
+      return;
+    }
+    if (tracked && !transactionStarted) {
+      poolState.avoidedRollbackCount.increment();
+      return;
+    }
+    connection.rollback();
+    transactionStarted = false;
+  }
+
+  /**
+   * Forgets the state and stops tracking it, as the connection can now be changed without going through the proxy.
+   */
+  void untrack() {
+    tracked = false;
+    autoCommit = null;
+    transactionIsolation = null;
+    readOnly = null;
+    schemaKnown = false;
+    schema = null;
+    transactionStarted = true;
+  }
+
+}
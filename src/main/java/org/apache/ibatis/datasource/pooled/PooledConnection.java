@@ -40,6 +40,7 @@ class PooledConnection implements InvocationHandler {
   private long lastUsedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private ConnectionState connectionState;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -54,6 +55,7 @@ class PooledConnection implements InvocationHandler {
     this.createdTimestamp = System.currentTimeMillis();
     this.lastUsedTimestamp = System.currentTimeMillis();
     this.valid = true;
+    this.connectionState = dataSource.isPoolTrackConnectionState() ? new ConnectionState(dataSource.getPoolState()) : null;
     this.proxyConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), IFACES, this);
   }
 
@@ -91,6 +93,45 @@ class PooledConnection implements InvocationHandler {
     return proxyConnection;
   }
 
+  /**
+   * Getter for the tracked session state of the real connection, or null if it is not tracked
+   *
+   * @return The session state
+   */
+  ConnectionState getConnectionState() {
+    return connectionState;
+  }
+
+  /**
+   * Setter for the tracked session state of the real connection, when wrapping it again
+   *
+   * @param connectionState - the session state of the previous wrapper
+   */
+  void setConnectionState(ConnectionState connectionState) {
+    this.connectionState = connectionState;
+  }
+
+  /**
+   * Gets the auto-commit mode of the real connection, without a round trip to the database when it is tracked
+   *
+   * @return The auto-commit mode
+   */
+  boolean getRealAutoCommit() throws SQLException {
+    return connectionState == null ? realConnection.getAutoCommit() : connectionState.getAutoCommit(realConnection);
+  }
+
+  /**
+   * Rolls back the real connection unless auto-commit is on or, when the state is tracked, no statement ran
+   * since the last commit or rollback
+   */
+  void rollbackIfStarted() throws SQLException {
+    if (connectionState != null) {
+      connectionState.rollbackIfStarted(realConnection);
+    } else if (!realConnection.getAutoCommit()) {
+      realConnection.rollback();
+    }
+  }
+
   /**
    * Gets the hashcode of the real connection (or 0 if it is null)
    *
@@ -241,6 +282,9 @@ class PooledConnection implements InvocationHandler {
           // issue #579 toString() should never fail
           // throw an SQLException instead of a Runtime
           checkConnection();
+          if (connectionState != null) {
+            return connectionState.invoke(realConnection, method, args);
+          }
         }
         return method.invoke(realConnection, args);
       } catch (Throwable t) {
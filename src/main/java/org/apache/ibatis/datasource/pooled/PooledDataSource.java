@@ -24,6 +24,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -54,6 +55,7 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected boolean poolTrackConnectionState = true;
 
   private int expectedConnectionTypeCode;
 
@@ -236,6 +238,20 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * Determines if the auto-commit mode, transaction isolation, read-only flag and schema of the connections are
+   * tracked, so that setting a value a connection already has, reading a known value or rolling back a connection
+   * on which no statement ran does not reach the database. Enabled by default; disable it when the session state
+   * is changed by SQL statements or on the unwrapped connections.
+   *
+   * @param poolTrackConnectionState True to track the session state of the connections
+   * @since 3.5.0
+   */
+  public void setPoolTrackConnectionState(boolean poolTrackConnectionState) {
+    this.poolTrackConnectionState = poolTrackConnectionState;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -284,6 +300,13 @@ public class PooledDataSource implements DataSource {
     return poolTimeToWait;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isPoolTrackConnectionState() {
+    return poolTrackConnectionState;
+  }
+
   public String getPoolPingQuery() {
     return poolPingQuery;
   }
@@ -300,7 +323,8 @@ public class PooledDataSource implements DataSource {
    * Closes all active and idle connections in the pool
    */
   public void forceCloseAll() {
-    synchronized (state) {
+    state.lock.lock();
+    try {
       expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
       for (int i = state.activeConnections.size(); i > 0; i--) {
         try {
@@ -308,9 +332,7 @@ public class PooledDataSource implements DataSource {
           conn.invalidate();
 
           Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
+          conn.rollbackIfStarted();
           realConn.close();
         } catch (Exception e) {
           // ignore
@@ -322,14 +344,14 @@ public class PooledDataSource implements DataSource {
           conn.invalidate();
 
           Connection realConn = conn.getRealConnection();
-          if (!realConn.getAutoCommit()) {
-            realConn.rollback();
-          }
+          conn.rollbackIfStarted();
           realConn.close();
         } catch (Exception e) {
           // ignore
         }
       }
+    } finally {
+      state.lock.unlock();
     }
     if (log.isDebugEnabled()) {
       log.debug("PooledDataSource forcefully closed/removed all connections.");
@@ -346,15 +368,15 @@ public class PooledDataSource implements DataSource {
 
   protected void pushConnection(PooledConnection conn) throws SQLException {
 
-    synchronized (state) {
+    state.lock.lock();
+    try {
       state.activeConnections.remove(conn);
       if (conn.isValid()) {
         if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
+          conn.rollbackIfStarted();
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.setConnectionState(conn.getConnectionState());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -362,12 +384,10 @@ public class PooledDataSource implements DataSource {
           if (log.isDebugEnabled()) {
             log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
           }
-          state.notifyAll();
+          state.connectionReturned.signalAll();
         } else {
           state.accumulatedCheckoutTime += conn.getCheckoutTime();
-          if (!conn.getRealConnection().getAutoCommit()) {
-            conn.getRealConnection().rollback();
-          }
+          conn.rollbackIfStarted();
           conn.getRealConnection().close();
           if (log.isDebugEnabled()) {
             log.debug("Closed connection " + conn.getRealHashCode() + ".");
@@ -380,6 +400,8 @@ public class PooledDataSource implements DataSource {
         }
         state.badConnectionCount++;
       }
+    } finally {
+      state.lock.unlock();
     }
   }
 
@@ -390,7 +412,8 @@ public class PooledDataSource implements DataSource {
     int localBadConnectionCount = 0;
 
     while (conn == null) {
-      synchronized (state) {
+      state.lock.lock();
+      try {
         if (!state.idleConnections.isEmpty()) {
           // Pool has available connection
           conn = state.idleConnections.remove(0);
@@ -415,7 +438,7 @@ public class PooledDataSource implements DataSource {
               state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
               state.accumulatedCheckoutTime += longestCheckoutTime;
               state.activeConnections.remove(oldestActiveConnection);
-              if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
+              if (!oldestActiveConnection.getRealAutoCommit()) {
                 try {
                   oldestActiveConnection.getRealConnection().rollback();
                 } catch (SQLException e) {
@@ -431,6 +454,7 @@ public class PooledDataSource implements DataSource {
                 }  
               }
               conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+              conn.setConnectionState(oldestActiveConnection.getConnectionState());
               conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
               conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
               oldestActiveConnection.invalidate();
@@ -448,7 +472,7 @@ public class PooledDataSource implements DataSource {
                   log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                 }
                 long wt = System.currentTimeMillis();
-                state.wait(poolTimeToWait);
+                state.connectionReturned.await(poolTimeToWait, TimeUnit.MILLISECONDS);
                 state.accumulatedWaitTime += System.currentTimeMillis() - wt;
               } catch (InterruptedException e) {
                 break;
@@ -459,9 +483,7 @@ public class PooledDataSource implements DataSource {
         if (conn != null) {
           // ping to server and check the connection is valid or not
           if (conn.isValid()) {
-            if (!conn.getRealConnection().getAutoCommit()) {
-              conn.getRealConnection().rollback();
-            }
+            conn.rollbackIfStarted();
             conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
             conn.setCheckoutTimestamp(System.currentTimeMillis());
             conn.setLastUsedTimestamp(System.currentTimeMillis());
@@ -483,6 +505,8 @@ public class PooledDataSource implements DataSource {
             }
           }
         }
+      } finally {
+        state.lock.unlock();
       }
 
     }
@@ -526,7 +550,7 @@ public class PooledDataSource implements DataSource {
             try (Statement statement = realConn.createStatement()) {
               statement.executeQuery(poolPingQuery).close();
             }
-            if (!realConn.getAutoCommit()) {
+            if (!conn.getRealAutoCommit()) {
               realConn.rollback();
             }
             result = true;
@@ -561,7 +585,12 @@ public class PooledDataSource implements DataSource {
     if (Proxy.isProxyClass(conn.getClass())) {
       InvocationHandler handler = Proxy.getInvocationHandler(conn);
       if (handler instanceof PooledConnection) {
-        return ((PooledConnection) handler).getRealConnection();
+        PooledConnection pooledConnection = (PooledConnection) handler;
+        if (pooledConnection.getConnectionState() != null) {
+          // the state can now be changed behind the proxy
+          pooledConnection.getConnectionState().untrack();
+        }
+        return pooledConnection.getRealConnection();
       }
     }
     return conn;
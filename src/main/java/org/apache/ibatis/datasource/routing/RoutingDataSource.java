@@ -0,0 +1,258 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A data source made of a primary and of replicas of it.
+ * <p>
+ * {@link #getConnection()} returns a connection to the primary. The
+ * {@link org.apache.ibatis.transaction.jdbc.JdbcTransaction JDBC transactions} created for this data source run
+ * selects outside of write transactions on a connection returned by {@link #getReplicaConnection()}, and every other
+ * statement on the primary (see {@link org.apache.ibatis.mapping.DataSourceRoute}).
+ * <p>
+ * A replica that fails to return a connection is ejected for {@link #getEjectionTime()} milliseconds, after which
+ * the next request tries it again. Reads run on the primary while no replica is available.
+ *
+ * @since 3.5.0
+ */
+public class RoutingDataSource implements DataSource {
+
+  private static final Log log = LogFactory.getLog(RoutingDataSource.class);
+
+  /**
+   * How a replica is chosen for a new connection.
+   */
+  public enum ReplicaSelection {
+    /** Each replica in turn. */
+    ROUND_ROBIN,
+    /**
+     * The replica with the fewest active connections, each replica in turn when they are equal. Only the active
+     * connections of {@link PooledDataSource} replicas are known, other replicas count as idle.
+     */
+    LEAST_ACTIVE
+  }
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final AtomicInteger next = new AtomicInteger();
+  private volatile ReplicaSelection replicaSelection = ReplicaSelection.ROUND_ROBIN;
+  private volatile long ejectionTime = 30000;
+
+  public RoutingDataSource(DataSource primary, DataSource... replicas) {
+    this(primary, Arrays.asList(replicas));
+  }
+
+  public RoutingDataSource(DataSource primary, List<? extends DataSource> replicas) {
+    if (primary == null) {
+      throw new IllegalArgumentException("The primary data source is required.");
+    }
+    this.primary = primary;
+    List<Replica> list = new ArrayList<>(replicas.size());
+    for (DataSource replica : replicas) {
+      list.add(new Replica(replica));
+    }
+    this.replicas = Collections.unmodifiableList(list);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return primary.getConnection(username, password);
+  }
+
+  /**
+   * Returns a connection to an available replica, or <code>null</code> if no replica is available.
+   */
+  public Connection getReplicaConnection() throws SQLException {
+    long now = System.currentTimeMillis();
+    for (Replica replica : orderReplicas()) {
+      if (replica.ejectedUntil > now) {
+        continue;
+      }
+      try {
+        Connection connection = replica.dataSource.getConnection();
+        replica.ejectedUntil = 0;
+        return connection;
+      } catch (SQLException e) {
+        replica.ejectedUntil = now + ejectionTime;
+        log.warn("Ejecting replica " + replica.dataSource + " for " + ejectionTime + " ms. Cause: " + e);
+      }
+    }
+    return null;
+  }
+
+  private List<Replica> orderReplicas() {
+    int size = replicas.size();
+    if (size <= 1) {
+      return replicas;
+    }
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    List<Replica> ordered = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ordered.add(replicas.get((start + i) % size));
+    }
+    if (replicaSelection == ReplicaSelection.LEAST_ACTIVE) {
+      // insertion sort of a snapshot of the counts, which keeps the round robin order of equal replicas
+      int[] active = new int[size];
+      for (int i = 0; i < size; i++) {
+        active[i] = ordered.get(i).getActiveConnectionCount();
+      }
+      for (int i = 1; i < size; i++) {
+        Replica replica = ordered.get(i);
+        int count = active[i];
+        int j = i - 1;
+        while (j >= 0 && active[j] > count) {
+          ordered.set(j + 1, ordered.get(j));
+          active[j + 1] = active[j];
+          j--;
+        }
+        ordered.set(j + 1, replica);
+        active[j + 1] = count;
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * Ejects a replica, e.g. after an external health check failed, until the ejection time elapsed.
+   */
+  public void eject(DataSource replica) {
+    getReplica(replica).ejectedUntil = System.currentTimeMillis() + ejectionTime;
+  }
+
+  /**
+   * Makes an ejected replica available again.
+   */
+  public void restore(DataSource replica) {
+    getReplica(replica).ejectedUntil = 0;
+  }
+
+  public boolean isEjected(DataSource replica) {
+    return getReplica(replica).ejectedUntil > System.currentTimeMillis();
+  }
+
+  private Replica getReplica(DataSource dataSource) {
+    for (Replica replica : replicas) {
+      if (replica.dataSource == dataSource) {
+        return replica;
+      }
+    }
+    throw new IllegalArgumentException(dataSource + " is not a replica of this data source.");
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public List<DataSource> getReplicas() {
+    List<DataSource> list = new ArrayList<>(replicas.size());
+    for (Replica replica : replicas) {
+      list.add(replica.dataSource);
+    }
+    return list;
+  }
+
+  public ReplicaSelection getReplicaSelection() {
+    return replicaSelection;
+  }
+
+  public void setReplicaSelection(ReplicaSelection replicaSelection) {
+    this.replicaSelection = replicaSelection;
+  }
+
+  /**
+   * Returns the time in milliseconds a replica is ejected for.
+   */
+  public long getEjectionTime() {
+    return ejectionTime;
+  }
+
+  public void setEjectionTime(long ejectionTime) {
+    this.ejectionTime = ejectionTime;
+  }
+
+  @Override
+  public PrintWriter getLogWriter() throws SQLException {
+    return primary.getLogWriter();
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter logWriter) throws SQLException {
+    primary.setLogWriter(logWriter);
+  }
+
+  @Override
+  public void setLoginTimeout(int loginTimeout) throws SQLException {
+    primary.setLoginTimeout(loginTimeout);
+  }
+
+  @Override
+  public int getLoginTimeout() throws SQLException {
+    return primary.getLoginTimeout();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    throw new SQLException(getClass().getName() + " is not a wrapper.");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return false;
+  }
+
+  @Override
+  public Logger getParentLogger() {
+    return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+  }
+
+  private static class Replica {
+    private final DataSource dataSource;
+    private volatile long ejectedUntil;
+
+    Replica(DataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+
+    int getActiveConnectionCount() {
+      if (dataSource instanceof PooledDataSource) {
+        return ((PooledDataSource) dataSource).getPoolState().getActiveConnectionCount();
+      }
+      return 0;
+    }
+  }
+
+}
@@ -20,12 +20,14 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.bulk.BulkInserter;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -35,6 +37,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
@@ -121,7 +124,7 @@ public abstract class BaseExecutor implements Executor {
    */
   @Override
   public int update(MappedStatement ms, Object parameter) throws SQLException {
-    ErrorContext.instance().resource(ms.getResource()).activity("executing an update").object(ms.getId());
+    ErrorContext.instance().statement(ms, ErrorContext.Activity.UPDATE);
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
@@ -131,6 +134,18 @@ public abstract class BaseExecutor implements Executor {
     return doUpdate(ms, parameter);
   }
 
+  @Override
+  public int insertAll(MappedStatement ms, List<?> parameters) throws SQLException {
+    ErrorContext.instance().statement(ms, ErrorContext.Activity.UPDATE);
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    clearLocalCache();
+    // pending batched statements run before the rows inserted here
+    flushStatements();
+    return new BulkInserter(ms, getConnection(ms), transaction.getTimeout()).insert(parameters);
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return flushStatements(false);
@@ -172,7 +187,7 @@ public abstract class BaseExecutor implements Executor {
   @SuppressWarnings("unchecked")
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
-    ErrorContext.instance().resource(ms.getResource()).activity("executing a query").object(ms.getId());
+    ErrorContext.instance().statement(ms, ErrorContext.Activity.QUERY);
     //执行器已关闭，抛异常
     if (closed) {
       throw new ExecutorException("Executor was closed.");
@@ -187,6 +202,10 @@ public abstract class BaseExecutor implements Executor {
       queryStack++;
       //先根据cachekey从localCache去查
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      StatementMetricsListener metricsListener = configuration.getStatementMetricsListener();
+      if (metricsListener != null && resultHandler == null) {
+        metricsListener.localCacheAccessed(ms, list != null);
+      }
       if (list != null) {
         //若查到localCache缓存，处理localOutputParameterCache
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
@@ -303,6 +322,16 @@ public abstract class BaseExecutor implements Executor {
     return localCache.getObject(key) != null;
   }
 
+  @Override
+  public void putLocalCache(MappedStatement ms, CacheKey key, List<?> list) {
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    if (localCache.getObject(key) == null) {
+      localCache.putObject(key, list);
+    }
+  }
+
   @Override
   public void commit(boolean required) throws SQLException {
     if (closed) {
@@ -416,7 +445,9 @@ public abstract class BaseExecutor implements Executor {
       localCache.removeObject(key);
     }
     //结果加入缓存
-    localCache.putObject(key, list);
+    if (resultHandler == null) {
+      localCache.putObject(key, list);
+    }
     //如果是存储过程，OUT参数也加入缓存
     if (ms.getStatementType() == StatementType.CALLABLE) {
       localOutputParameterCache.putObject(key, parameter);
@@ -425,8 +456,20 @@ public abstract class BaseExecutor implements Executor {
   }
 
   protected Connection getConnection(Log statementLog) throws SQLException {
-    Connection connection = transaction.getConnection();
-    if (statementLog.isDebugEnabled()) {
+    return wrapConnection(transaction.getConnection(), statementLog);
+  }
+
+  /**
+   * Returns the connection the transaction chooses for the statement.
+   *
+   * @since 3.5.0
+   */
+  protected Connection getConnection(MappedStatement ms) throws SQLException {
+    return wrapConnection(transaction.getConnection(ms), ms.getStatementLog());
+  }
+
+  private Connection wrapConnection(Connection connection, Log statementLog) {
+    if (statementLog.isDebugEnabled() && !configuration.isAsyncJdbcLogging()) {
       //如果需要打印Connection的日志，返回一个ConnectionLogger(代理模式, AOP思想)
       return ConnectionLogger.newInstance(connection, statementLog, queryStack);
     } else {
@@ -477,6 +520,10 @@ public abstract class BaseExecutor implements Executor {
       @SuppressWarnings( "unchecked" )
       // we suppose we get back a List
       List<Object> list = (List<Object>) localCache.getObject(key);
+      if (list == null) {
+        // the query of the key ran with a result handler, so its rows were not kept in the local cache
+        list = new ArrayList<>();
+      }
       Object value = resultExtractor.extractObjectFromList(list, targetType);
       resultObject.setValue(property, value);
     }
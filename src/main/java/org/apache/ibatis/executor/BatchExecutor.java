@@ -19,9 +19,15 @@ import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -36,6 +42,12 @@ import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * When {@link Configuration#getBatchPipelineThreshold()} is set, pending statements are handed to a
+ * background flusher once the current statement has accumulated that many rows, so the caller can
+ * keep adding rows while the database executes the previous batch. The flusher uses the same
+ * connection and runs batches strictly in the order they were added; at most
+ * {@link Configuration#getBatchPipelineDepth()} batches are in flight at a time.
+ *
  * @author Jeff Butler 
  */
 public class BatchExecutor extends BaseExecutor {
@@ -47,8 +59,20 @@ public class BatchExecutor extends BaseExecutor {
   private String currentSql;
   private MappedStatement currentStatement;
 
+  private final int pipelineThreshold;
+  private final int pipelineDepth;
+  private final Deque<Future<List<BatchResult>>> pipelinedBatches = new ArrayDeque<>();
+  private final List<BatchResult> pipelinedResults = new ArrayList<>();
+  private ExecutorService flusher;
+  private int currentBatchSize;
+  private int dispatchedCount;
+  private volatile boolean pipelineFailed;
+
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
+    Integer threshold = configuration.getBatchPipelineThreshold();
+    this.pipelineThreshold = threshold == null ? 0 : threshold;
+    this.pipelineDepth = Math.max(1, configuration.getBatchPipelineDepth());
   }
 
   @Override
@@ -66,16 +90,20 @@ public class BatchExecutor extends BaseExecutor {
       BatchResult batchResult = batchResultList.get(last);
       batchResult.addParameterObject(parameterObject);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
+      Connection connection = getConnection(ms);
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt);    //fix Issues 322
       currentSql = sql;
       currentStatement = ms;
+      currentBatchSize = 0;
       statementList.add(stmt);
       batchResultList.add(new BatchResult(ms, sql, parameterObject));
     }
   // handler.parameterize(stmt);
     handler.batch(stmt);
+    if (pipelineThreshold > 0 && ++currentBatchSize >= pipelineThreshold) {
+      dispatchPendingStatements();
+    }
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
@@ -87,7 +115,7 @@ public class BatchExecutor extends BaseExecutor {
       flushStatements();
       Configuration configuration = ms.getConfiguration();
       StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameterObject, rowBounds, resultHandler, boundSql);
-      Connection connection = getConnection(ms.getStatementLog());
+      Connection connection = getConnection(ms);
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt);
       return handler.<E>query(stmt, resultHandler);
@@ -101,7 +129,7 @@ public class BatchExecutor extends BaseExecutor {
     flushStatements();
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
-    Connection connection = getConnection(ms.getStatementLog());
+    Connection connection = getConnection(ms);
     Statement stmt = handler.prepare(connection, transaction.getTimeout());
     stmt.closeOnCompletion();
     handler.parameterize(stmt);
@@ -111,42 +139,20 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
       if (isRollback) {
+        cancelPipelinedBatches();
         return Collections.emptyList();
       }
+      drainPipelinedBatches();
+      List<BatchResult> results = new ArrayList<>(pipelinedResults);
       for (int i = 0, n = statementList.size(); i < n; i++) {
         Statement stmt = statementList.get(i);
         applyTransactionTimeout(stmt);
         BatchResult batchResult = batchResultList.get(i);
         try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
-          // Close statement to close cursor #1109
-          closeStatement(stmt);
+          executeBatch(stmt, batchResult);
         } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
-          }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
+          throw newBatchExecutorException(dispatchedCount + i, e, results, batchResult);
         }
         results.add(batchResult);
       }
@@ -158,6 +164,220 @@ public class BatchExecutor extends BaseExecutor {
       currentSql = null;
       statementList.clear();
       batchResultList.clear();
+      pipelinedResults.clear();
+      dispatchedCount = 0;
+      // the batches were either awaited or cancelled, so none of them reads the flag any more
+      pipelineFailed = false;
+    }
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    try {
+      super.close(forceRollback);
+    } finally {
+      if (flusher != null) {
+        flusher.shutdownNow();
+        flusher = null;
+      }
+    }
+  }
+
+  private void executeBatch(Statement stmt, BatchResult batchResult) throws SQLException {
+    batchResult.setUpdateCounts(stmt.executeBatch());
+    MappedStatement ms = batchResult.getMappedStatement();
+    List<Object> parameterObjects = batchResult.getParameterObjects();
+    KeyGenerator keyGenerator = ms.getKeyGenerator();
+    if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+      Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+      jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+    } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+      for (Object parameter : parameterObjects) {
+        keyGenerator.processAfter(this, ms, stmt, parameter);
+      }
+    }
+    // Close statement to close cursor #1109
+    closeStatement(stmt);
+  }
+
+  private BatchExecutorException newBatchExecutorException(int index, BatchUpdateException e,
+      List<BatchResult> results, BatchResult batchResult) {
+    StringBuilder message = new StringBuilder();
+    message.append(batchResult.getMappedStatement().getId())
+        .append(" (batch index #")
+        .append(index + 1)
+        .append(")")
+        .append(" failed.");
+    if (index > 0) {
+      message.append(" ")
+          .append(index)
+          .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+    }
+    return new BatchExecutorException(message.toString(), e, results, batchResult);
+  }
+
+  /**
+   * Hands the pending statements over to the flusher, waiting for the oldest in-flight batch first
+   * when the pipeline is full. Statements whose key generator would have to run queries on this
+   * executor are kept for the synchronous flush.
+   */
+  private void dispatchPendingStatements() throws SQLException {
+    for (BatchResult batchResult : batchResultList) {
+      Class<?> keyGeneratorType = batchResult.getMappedStatement().getKeyGenerator().getClass();
+      if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+        return;
+      }
+    }
+    while (pipelinedBatches.size() >= pipelineDepth) {
+      awaitOldestPipelinedBatch();
+    }
+    final List<Statement> statements = new ArrayList<>(statementList);
+    final List<BatchResult> batchResults = new ArrayList<>(batchResultList);
+    for (Statement stmt : statements) {
+      applyTransactionTimeout(stmt);
+    }
+    final int baseIndex = dispatchedCount;
+    if (flusher == null) {
+      flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mybatis-batch-flusher");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    pipelinedBatches.addLast(flusher.submit(() -> executePipelinedBatch(baseIndex, statements, batchResults)));
+    dispatchedCount += statements.size();
+    statementList.clear();
+    batchResultList.clear();
+    currentSql = null;
+    currentStatement = null;
+  }
+
+  private List<BatchResult> executePipelinedBatch(int baseIndex, List<Statement> statements, List<BatchResult> batchResults)
+      throws SQLException {
+    List<BatchResult> results = new ArrayList<>();
+    try {
+      for (int i = 0, n = statements.size(); i < n; i++) {
+        if (pipelineFailed) {
+          return results;
+        }
+        BatchResult batchResult = batchResults.get(i);
+        try {
+          executeBatch(statements.get(i), batchResult);
+        } catch (BatchUpdateException e) {
+          pipelineFailed = true;
+          throw new PipelinedBatchException(baseIndex + i, e, results, batchResult);
+        } catch (SQLException | RuntimeException e) {
+          pipelineFailed = true;
+          throw e;
+        }
+        results.add(batchResult);
+      }
+      return results;
+    } finally {
+      for (Statement stmt : statements) {
+        closeStatement(stmt);
+      }
+    }
+  }
+
+  private void drainPipelinedBatches() throws SQLException {
+    while (!pipelinedBatches.isEmpty()) {
+      awaitOldestPipelinedBatch();
+    }
+  }
+
+  /**
+   * Waits for the oldest in-flight batch. When it failed, the batches queued after it are cancelled before the
+   * failure is thrown.
+   */
+  private void awaitOldestPipelinedBatch() throws SQLException {
+    boolean completed = false;
+    try {
+      awaitPipelinedBatch(pipelinedBatches.removeFirst());
+      completed = true;
+    } finally {
+      if (!completed) {
+        cancelPipelinedBatches();
+      }
+    }
+  }
+
+  /**
+   * Cancels the pipelined batches that did not start yet and waits for the one the flusher may be running, even
+   * when interrupted, so that no batch runs on the connection once a failure was reported or while the transaction
+   * is rolled back.
+   */
+  private void cancelPipelinedBatches() {
+    pipelineFailed = true;
+    for (Future<List<BatchResult>> batch : pipelinedBatches) {
+      batch.cancel(false);
+    }
+    pipelinedBatches.clear();
+    if (flusher == null) {
+      return;
+    }
+    // the flusher runs its tasks in order, so this one completes after the running batch
+    Future<?> idle = flusher.submit(() -> { });
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          idle.get();
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          return;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void awaitPipelinedBatch(Future<List<BatchResult>> batch) throws SQLException {
+    try {
+      pipelinedResults.addAll(batch.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for a pipelined batch.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof PipelinedBatchException) {
+        PipelinedBatchException pbe = (PipelinedBatchException) cause;
+        List<BatchResult> results = new ArrayList<>(pipelinedResults);
+        results.addAll(pbe.successfulBatchResults);
+        throw newBatchExecutorException(pbe.index, pbe.batchUpdateException, results, pbe.batchResult);
+      } else if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new ExecutorException("Error executing a pipelined batch. Cause: " + cause, cause);
+    }
+  }
+
+  /**
+   * Carries the failure of a pipelined batch back to the calling thread, which builds the
+   * {@link BatchExecutorException} with the results of every batch that completed before it.
+   */
+  private static class PipelinedBatchException extends SQLException {
+
+    private static final long serialVersionUID = 8046718403214651442L;
+    private final int index;
+    private final BatchUpdateException batchUpdateException;
+    private final transient List<BatchResult> successfulBatchResults;
+    private final transient BatchResult batchResult;
+
+    PipelinedBatchException(int index, BatchUpdateException batchUpdateException,
+        List<BatchResult> successfulBatchResults, BatchResult batchResult) {
+      super(batchUpdateException);
+      this.index = index;
+      this.batchUpdateException = batchUpdateException;
+      this.successfulBatchResults = successfulBatchResults;
+      this.batchResult = batchResult;
     }
   }
 
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -40,9 +41,21 @@ public class CachingExecutor implements Executor {
 
   private final Executor delegate;
   private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final boolean readOnly;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * @param readOnly whether the session only reads. With no uncommitted writes to hide from other sessions, the
+   *          second level caches are then read, filled and flushed directly instead of through the
+   *          {@link TransactionalCacheManager}.
+   * @since 3.5.0
+   */
+  public CachingExecutor(Executor delegate, boolean readOnly) {
     this.delegate = delegate;
+    this.readOnly = readOnly;
     delegate.setExecutorWrapper(this);
   }
 
@@ -76,6 +89,12 @@ public class CachingExecutor implements Executor {
     return delegate.update(ms, parameterObject);
   }
 
+  @Override
+  public int insertAll(MappedStatement ms, List<?> parameters) throws SQLException {
+    flushCacheIfRequired(ms);
+    return delegate.insertAll(ms, parameters);
+  }
+
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameterObject);
@@ -97,8 +116,15 @@ public class CachingExecutor implements Executor {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
+        if (readOnly) {
+          return queryThroughCache(cache, ms, parameterObject, rowBounds, key, boundSql);
+        }
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
+        StatementMetricsListener metricsListener = ms.getConfiguration().getStatementMetricsListener();
+        if (metricsListener != null) {
+          metricsListener.cacheAccessed(ms, list != null);
+        }
         if (list == null) {
           list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
           tcm.putObject(cache, key, list); // issue #578 and #116
@@ -109,6 +135,30 @@ public class CachingExecutor implements Executor {
     return delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  private <E> List<E> queryThroughCache(Cache cache, MappedStatement ms, Object parameterObject, RowBounds rowBounds, CacheKey key, BoundSql boundSql)
+      throws SQLException {
+    @SuppressWarnings("unchecked")
+    List<E> list = (List<E>) cache.getObject(key);
+    StatementMetricsListener metricsListener = ms.getConfiguration().getStatementMetricsListener();
+    if (metricsListener != null) {
+      metricsListener.cacheAccessed(ms, list != null);
+    }
+    if (list == null) {
+      boolean stored = false;
+      try {
+        list = delegate.<E> query(ms, parameterObject, rowBounds, NO_RESULT_HANDLER, key, boundSql);
+        cache.putObject(key, list);
+        stored = true;
+      } finally {
+        if (!stored) {
+          // releases the lock a blocking cache holds on a missed key
+          cache.removeObject(key);
+        }
+      }
+    }
+    return list;
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -156,6 +206,11 @@ public class CachingExecutor implements Executor {
     delegate.deferLoad(ms, resultObject, property, key, targetType);
   }
 
+  @Override
+  public void putLocalCache(MappedStatement ms, CacheKey key, List<?> list) {
+    delegate.putLocalCache(ms, key, list);
+  }
+
   @Override
   public void clearLocalCache() {
     delegate.clearLocalCache();
@@ -163,8 +218,12 @@ public class CachingExecutor implements Executor {
 
   private void flushCacheIfRequired(MappedStatement ms) {
     Cache cache = ms.getCache();
-    if (cache != null && ms.isFlushCacheRequired()) {      
-      tcm.clear(cache);
+    if (cache != null && ms.isFlushCacheRequired()) {
+      if (readOnly) {
+        cache.clear();
+      } else {
+        tcm.clear(cache);
+      }
     }
   }
 
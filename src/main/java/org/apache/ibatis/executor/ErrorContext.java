@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.executor;
 
+import org.apache.ibatis.mapping.MappedStatement;
+
 /**
  * @author Clinton Begin
  */
@@ -23,7 +25,37 @@ public class ErrorContext {
   private static final String LINE_SEPARATOR = System.getProperty("line.separator","\n");
   private static final ThreadLocal<ErrorContext> LOCAL = new ThreadLocal<>();
 
-  private ErrorContext stored;
+  /**
+   * What a mapped statement was doing, recorded with {@link ErrorContext#statement(MappedStatement, Activity)}.
+   *
+   * @since 3.5.0
+   */
+  public enum Activity {
+    QUERY("executing a query"),
+    UPDATE("executing an update"),
+    SHARDED_QUERY("executing a query on all shards"),
+    SHARDED_UPDATE("executing an update on all shards"),
+    SETTING_PARAMETERS("setting parameters"),
+    HANDLING_RESULTS("handling results"),
+    HANDLING_CURSOR_RESULTS("handling cursor results");
+
+    private final String description;
+
+    Activity(String description) {
+      this.description = description;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  // contexts saved by store(), reused across calls
+  private Frame[] stored;
+  private int storedCount;
+
+  private MappedStatement statement;
+  private Activity statementActivity;
   private String resource;
   private String activity;
   private String object;
@@ -43,19 +75,50 @@ public class ErrorContext {
     return context;
   }
 
+  /**
+   * Saves the current context and starts an empty one, to be restored by {@link #recall()}.
+   * The saved contexts are copied into frames that are kept for the next calls.
+   */
   public ErrorContext store() {
-    ErrorContext newContext = new ErrorContext();
-    newContext.stored = this;
-    LOCAL.set(newContext);
-    return LOCAL.get();
+    if (stored == null) {
+      stored = new Frame[4];
+    } else if (storedCount == stored.length) {
+      Frame[] grown = new Frame[stored.length * 2];
+      System.arraycopy(stored, 0, grown, 0, storedCount);
+      stored = grown;
+    }
+    Frame frame = stored[storedCount];
+    if (frame == null) {
+      frame = new Frame();
+      stored[storedCount] = frame;
+    }
+    frame.save(this);
+    storedCount++;
+    clear();
+    return this;
   }
 
   public ErrorContext recall() {
-    if (stored != null) {
-      LOCAL.set(stored);
-      stored = null;
+    if (storedCount > 0) {
+      Frame frame = stored[--storedCount];
+      frame.restore(this);
     }
-    return LOCAL.get();
+    return this;
+  }
+
+  /**
+   * Records the statement being run and what it is doing. Only the references are kept; the resource, the object and
+   * the activity are read from them when the message is built, unless they were set explicitly afterwards.
+   *
+   * @since 3.5.0
+   */
+  public ErrorContext statement(MappedStatement statement, Activity activity) {
+    this.statement = statement;
+    this.statementActivity = activity;
+    this.resource = null;
+    this.activity = null;
+    this.object = null;
+    return this;
   }
 
   public ErrorContext resource(String resource) {
@@ -89,19 +152,41 @@ public class ErrorContext {
   }
 
   public ErrorContext reset() {
+    clear();
+    stored = null;
+    storedCount = 0;
+    LOCAL.remove();
+    return this;
+  }
+
+  private void clear() {
+    statement = null;
+    statementActivity = null;
     resource = null;
     activity = null;
     object = null;
     message = null;
     sql = null;
     cause = null;
-    LOCAL.remove();
-    return this;
   }
 
   @Override
   public String toString() {
     StringBuilder description = new StringBuilder();
+    String resource = this.resource;
+    String object = this.object;
+    String activity = this.activity;
+    if (statement != null) {
+      if (resource == null) {
+        resource = statement.getResource();
+      }
+      if (object == null) {
+        object = statementActivity == Activity.SETTING_PARAMETERS ? statement.getParameterMap().getId() : statement.getId();
+      }
+      if (activity == null && statementActivity != null) {
+        activity = statementActivity.getDescription();
+      }
+    }
 
     // message
     if (this.message != null) {
@@ -148,4 +233,45 @@ public class ErrorContext {
     return description.toString();
   }
 
+  private static final class Frame {
+    private MappedStatement statement;
+    private Activity statementActivity;
+    private String resource;
+    private String activity;
+    private String object;
+    private String message;
+    private String sql;
+    private Throwable cause;
+
+    private void save(ErrorContext context) {
+      statement = context.statement;
+      statementActivity = context.statementActivity;
+      resource = context.resource;
+      activity = context.activity;
+      object = context.object;
+      message = context.message;
+      sql = context.sql;
+      cause = context.cause;
+    }
+
+    private void restore(ErrorContext context) {
+      context.statement = statement;
+      context.statementActivity = statementActivity;
+      context.resource = resource;
+      context.activity = activity;
+      context.object = object;
+      context.message = message;
+      context.sql = sql;
+      context.cause = cause;
+      statement = null;
+      statementActivity = null;
+      resource = null;
+      activity = null;
+      object = null;
+      message = null;
+      sql = null;
+      cause = null;
+    }
+  }
+
 }
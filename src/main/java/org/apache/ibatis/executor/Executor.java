@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -36,6 +36,13 @@ public interface Executor {
 
   int update(MappedStatement ms, Object parameter) throws SQLException;
 
+  /**
+   * Inserts one row per parameter object with a single row insert statement.
+   *
+   * @since 3.5.0
+   */
+  int insertAll(MappedStatement ms, List<?> parameters) throws SQLException;
+
   <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException;
 
   <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException;
@@ -56,6 +63,14 @@ public interface Executor {
 
   void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType);
 
+  /**
+   * Puts the rows of a query that was run by another executor into the local cache, unless the local cache
+   * already holds the key.
+   *
+   * @since 3.5.0
+   */
+  void putLocalCache(MappedStatement ms, CacheKey key, List<?> list);
+
   Transaction getTransaction();
 
   void close(boolean forceRollback);
@@ -0,0 +1,219 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.bulk;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.executor.statement.StatementUtil;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Inserts many parameter objects with a single row insert statement.
+ * <p>
+ * Consecutive rows that produce the same SQL are inserted together. On PostgreSQL, statements of the form
+ * <code>INSERT INTO table (columns) VALUES (?, ...)</code> that do not return generated keys are run as a
+ * <code>COPY ... FROM STDIN</code> command. Other statements are rewritten into multi-row
+ * <code>VALUES (...), (...)</code> statements of at most {@link Configuration#getBulkInsertParameterLimit()}
+ * parameters, and statements that cannot be rewritten are run as a JDBC batch.
+ * The parameters are always bound with the type handlers of the statement.
+ *
+ * @since 3.5.0
+ */
+public class BulkInserter {
+
+  private final MappedStatement ms;
+  private final Configuration configuration;
+  private final Connection connection;
+  private final Integer transactionTimeout;
+  private final boolean generatedKeys;
+  private Boolean postgreSql;
+
+  public BulkInserter(MappedStatement ms, Connection connection, Integer transactionTimeout) {
+    if (ms.getSqlCommandType() != SqlCommandType.INSERT) {
+      throw new ExecutorException("Bulk insert requires an insert statement but '" + ms.getId() + "' is a " + ms.getSqlCommandType() + " statement.");
+    }
+    if (ms.getStatementType() != StatementType.PREPARED) {
+      throw new ExecutorException("Bulk insert requires a prepared statement but '" + ms.getId() + "' is a " + ms.getStatementType() + " statement.");
+    }
+    if (ms.getKeyGenerator() instanceof SelectKeyGenerator) {
+      throw new ExecutorException("Bulk insert does not support the selectKey of statement '" + ms.getId() + "'.");
+    }
+    this.ms = ms;
+    this.configuration = ms.getConfiguration();
+    this.connection = connection;
+    this.transactionTimeout = transactionTimeout;
+    this.generatedKeys = ms.getKeyGenerator() instanceof Jdbc3KeyGenerator
+        && ms.getKeyProperties() != null && ms.getKeyProperties().length > 0;
+  }
+
+  /**
+   * Inserts one row per parameter object, returns the number of rows inserted.
+   */
+  public int insert(List<?> rows) throws SQLException {
+    List<BoundSql> boundSqls = new ArrayList<>(rows.size());
+    for (Object row : rows) {
+      boundSqls.add(ms.getBoundSql(row));
+    }
+    int count = 0;
+    int from = 0;
+    while (from < rows.size()) {
+      String sql = boundSqls.get(from).getSql();
+      int to = from + 1;
+      while (to < rows.size() && sql.equals(boundSqls.get(to).getSql())) {
+        to++;
+      }
+      count += insert(sql, rows.subList(from, to), boundSqls.subList(from, to));
+      from = to;
+    }
+    return count;
+  }
+
+  private int insert(String sql, List<?> rows, List<BoundSql> boundSqls) throws SQLException {
+    InsertTemplate template = InsertTemplate.parse(sql);
+    if (template == null || template.getPlaceholders() != boundSqls.get(0).getParameterMappings().size()) {
+      return insertBatch(sql, rows, boundSqls);
+    }
+    if (!generatedKeys) {
+      String copySql = template.toCopySql();
+      if (copySql != null && isPostgreSql()) {
+        List<Object[]> values = CopyIn.bind(ms, rows, boundSqls, template.getPlaceholders());
+        if (values != null) {
+          long copied = copy(copySql, values);
+          if (copied >= 0) {
+            return (int) copied;
+          }
+        }
+      }
+    }
+    return insertValues(template, rows, boundSqls);
+  }
+
+  private long copy(String sql, List<Object[]> values) throws SQLException {
+    Log statementLog = ms.getStatementLog();
+    if (statementLog.isDebugEnabled()) {
+      statementLog.debug("==>  Executing: " + sql);
+    }
+    long copied = CopyIn.copy(connection, sql, values);
+    if (copied >= 0 && statementLog.isDebugEnabled()) {
+      statementLog.debug("<==    Updates: " + copied);
+    }
+    return copied;
+  }
+
+  private int insertValues(InsertTemplate template, List<?> rows, List<BoundSql> boundSqls) throws SQLException {
+    int columns = template.getPlaceholders();
+    int limit = configuration.getBulkInsertParameterLimit();
+    int rowsPerStatement = Math.max(1, columns == 0 ? limit : limit / columns);
+    int count = 0;
+    PreparedStatement stmt = null;
+    int statementRows = 0;
+    try {
+      for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+        int to = Math.min(rows.size(), from + rowsPerStatement);
+        if (to - from != statementRows) {
+          closeStatement(stmt);
+          stmt = null;
+          statementRows = to - from;
+          stmt = prepareStatement(template.toSql(statementRows));
+        }
+        for (int i = from; i < to; i++) {
+          new DefaultParameterHandler(ms, rows.get(i), boundSqls.get(i)).setParameters(stmt, (i - from) * columns + 1);
+        }
+        count += stmt.executeUpdate();
+        if (generatedKeys) {
+          ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, rows.subList(from, to));
+        }
+      }
+    } finally {
+      closeStatement(stmt);
+    }
+    return count;
+  }
+
+  private int insertBatch(String sql, List<?> rows, List<BoundSql> boundSqls) throws SQLException {
+    PreparedStatement stmt = prepareStatement(sql);
+    try {
+      for (int i = 0; i < rows.size(); i++) {
+        new DefaultParameterHandler(ms, rows.get(i), boundSqls.get(i)).setParameters(stmt);
+        stmt.addBatch();
+      }
+      int count = 0;
+      for (int updateCount : stmt.executeBatch()) {
+        count += updateCount == Statement.SUCCESS_NO_INFO ? 1 : updateCount;
+      }
+      if (generatedKeys) {
+        ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, rows);
+      }
+      return count;
+    } finally {
+      closeStatement(stmt);
+    }
+  }
+
+  private PreparedStatement prepareStatement(String sql) throws SQLException {
+    PreparedStatement stmt;
+    if (!generatedKeys) {
+      stmt = connection.prepareStatement(sql);
+    } else if (ms.getKeyColumns() == null) {
+      stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+    } else {
+      stmt = connection.prepareStatement(sql, ms.getKeyColumns());
+    }
+    try {
+      Integer queryTimeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+      if (queryTimeout != null) {
+        stmt.setQueryTimeout(queryTimeout);
+      }
+      StatementUtil.applyTransactionTimeout(stmt, queryTimeout, transactionTimeout);
+    } catch (SQLException e) {
+      closeStatement(stmt);
+      throw e;
+    }
+    return stmt;
+  }
+
+  private boolean isPostgreSql() throws SQLException {
+    if (postgreSql == null) {
+      postgreSql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+    return postgreSql;
+  }
+
+  private static void closeStatement(Statement stmt) {
+    if (stmt != null) {
+      try {
+        stmt.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.bulk;
+
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.type.TypeException;
+
+/**
+ * Loads rows with the PostgreSQL <code>COPY ... FROM STDIN</code> command. The driver is accessed by reflection
+ * because it is an optional dependency.
+ * <p>
+ * The parameters are bound with the type handlers of the statement to a recording {@link PreparedStatement}
+ * before anything is sent, and are encoded in the text format of <code>COPY</code> while the driver reads them.
+ * Timestamps and times are encoded with the offset of the time zone of the JVM, like the driver does for
+ * <code>setTimestamp</code> and <code>setTime</code>, so that <code>timestamptz</code> and <code>timetz</code> columns
+ * do not depend on the time zone of the server session.
+ */
+final class CopyIn {
+
+  private static final String PG_CONNECTION = "org.postgresql.PGConnection";
+
+  private CopyIn() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Binds the parameters of each row, returns <code>null</code> if a parameter is not set with a value that can be
+   * encoded as text.
+   */
+  static List<Object[]> bind(MappedStatement ms, List<?> rows, List<BoundSql> boundSqls, int columns) {
+    List<Object[]> values = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Object[] row = new Object[columns];
+      PreparedStatement recorder = newRecorder(row);
+      try {
+        new DefaultParameterHandler(ms, rows.get(i), boundSqls.get(i)).setParameters(recorder);
+      } catch (TypeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+          if (cause instanceof SQLFeatureNotSupportedException) {
+            return null;
+          }
+        }
+        throw e;
+      }
+      values.add(row);
+    }
+    return values;
+  }
+
+  /**
+   * Runs the <code>COPY</code> command, returns the number of rows inserted or <code>-1</code> if the connection
+   * is not a PostgreSQL connection.
+   */
+  static long copy(Connection connection, String sql, List<Object[]> values) throws SQLException {
+    Class<?> pgConnectionType;
+    try {
+      pgConnectionType = Resources.classForName(PG_CONNECTION);
+    } catch (ClassNotFoundException e) {
+      return -1;
+    }
+    if (!connection.isWrapperFor(pgConnectionType)) {
+      return -1;
+    }
+    Object pgConnection = connection.unwrap(pgConnectionType);
+    try {
+      Object copyManager = pgConnectionType.getMethod("getCopyAPI").invoke(pgConnection);
+      Method copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+      return (Long) copyIn.invoke(copyManager, sql, new RowReader(values));
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getTargetException();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      throw new SQLException("Error copying rows. Cause: " + cause, cause);
+    } catch (ReflectiveOperationException e) {
+      return -1;
+    }
+  }
+
+  private static PreparedStatement newRecorder(final Object[] row) {
+    return (PreparedStatement) Proxy.newProxyInstance(CopyIn.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+        (proxy, method, args) -> {
+          String name = method.getName();
+          if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+            Object value = "setNull".equals(name) ? null : args[1];
+            if (value != null && !isEncodable(value)) {
+              throw new SQLFeatureNotSupportedException("Cannot copy " + value.getClass().getName());
+            }
+            row[(Integer) args[0] - 1] = value;
+            return null;
+          }
+          throw new SQLFeatureNotSupportedException("Cannot copy with " + name);
+        });
+  }
+
+  private static boolean isEncodable(Object value) {
+    return value instanceof CharSequence || value instanceof Character || value instanceof Number
+        || value instanceof Boolean || value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp
+        || value instanceof LocalDate || value instanceof LocalTime || value instanceof LocalDateTime
+        || value instanceof OffsetDateTime || value instanceof Instant || value instanceof UUID || value instanceof byte[];
+  }
+
+  /**
+   * Encodes the rows in the text format of <code>COPY</code>, one row at a time.
+   */
+  private static class RowReader extends Reader {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final List<Object[]> values;
+    private final StringBuilder buffer = new StringBuilder();
+    private int row;
+    private int position;
+
+    RowReader(List<Object[]> values) {
+      this.values = values;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (position == buffer.length()) {
+        if (row == values.size()) {
+          return -1;
+        }
+        buffer.setLength(0);
+        position = 0;
+        encode(values.get(row++));
+      }
+      int count = Math.min(len, buffer.length() - position);
+      buffer.getChars(position, position + count, cbuf, off);
+      position += count;
+      return count;
+    }
+
+    private void encode(Object[] row) {
+      for (int i = 0; i < row.length; i++) {
+        if (i > 0) {
+          buffer.append('\t');
+        }
+        Object value = row[i];
+        if (value == null) {
+          buffer.append("\\N");
+        } else if (value instanceof byte[]) {
+          buffer.append("\\\\x");
+          for (byte b : (byte[]) value) {
+            buffer.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+          }
+        } else if (value instanceof BigDecimal) {
+          buffer.append(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Timestamp) {
+          Instant instant = ((Timestamp) value).toInstant();
+          buffer.append(instant.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        } else if (value instanceof Time) {
+          Instant instant = Instant.ofEpochMilli(((Time) value).getTime());
+          buffer.append(instant.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ISO_OFFSET_TIME));
+        } else {
+          escape(value.toString());
+        }
+      }
+      buffer.append('\n');
+    }
+
+    private void escape(String text) {
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        switch (c) {
+          case '\\':
+            buffer.append("\\\\");
+            break;
+          case '\n':
+            buffer.append("\\n");
+            break;
+          case '\r':
+            buffer.append("\\r");
+            break;
+          case '\t':
+            buffer.append("\\t");
+            break;
+          default:
+            buffer.append(c);
+        }
+      }
+    }
+
+    @Override
+    public void close() {
+      row = values.size();
+      position = buffer.length();
+    }
+  }
+
+}
@@ -0,0 +1,197 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.bulk;
+
+/**
+ * A single row <code>INSERT ... VALUES (...)</code> statement split around its row constructor, so that it can
+ * be repeated for several rows.
+ */
+final class InsertTemplate {
+
+  private final String prefix;
+  private final String tuple;
+  private final String suffix;
+  private final int placeholders;
+
+  private InsertTemplate(String prefix, String tuple, String suffix, int placeholders) {
+    this.prefix = prefix;
+    this.tuple = tuple;
+    this.suffix = suffix;
+    this.placeholders = placeholders;
+  }
+
+  /**
+   * Parses an insert statement, returns <code>null</code> unless it has exactly one <code>VALUES</code> row
+   * constructor that contains all its placeholders.
+   */
+  static InsertTemplate parse(String sql) {
+    int valuesEnd = -1;
+    int depth = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+        if (i < 0) {
+          return null;
+        }
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isKeyword(sql, i, "values")) {
+        if (valuesEnd >= 0) {
+          return null;
+        }
+        valuesEnd = i + "values".length();
+      }
+    }
+    if (valuesEnd < 0) {
+      return null;
+    }
+    int tupleStart = skipWhitespace(sql, valuesEnd);
+    if (tupleStart >= sql.length() || sql.charAt(tupleStart) != '(') {
+      return null;
+    }
+    int tupleEnd = closingParenthesis(sql, tupleStart);
+    if (tupleEnd < 0) {
+      return null;
+    }
+    String prefix = sql.substring(0, tupleStart);
+    String tuple = sql.substring(tupleStart, tupleEnd + 1);
+    String suffix = sql.substring(tupleEnd + 1);
+    int next = skipWhitespace(suffix, 0);
+    if (next < suffix.length() && suffix.charAt(next) == ',') {
+      return null;
+    }
+    if (countPlaceholders(prefix) != 0 || countPlaceholders(suffix) != 0) {
+      return null;
+    }
+    return new InsertTemplate(prefix, tuple, suffix, countPlaceholders(tuple));
+  }
+
+  int getPlaceholders() {
+    return placeholders;
+  }
+
+  /**
+   * Returns the statement with the row constructor repeated for the given number of rows.
+   */
+  String toSql(int rows) {
+    StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + rows * (tuple.length() + 2));
+    sql.append(prefix);
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(tuple);
+    }
+    sql.append(suffix);
+    return sql.toString();
+  }
+
+  /**
+   * Returns the equivalent PostgreSQL <code>COPY ... FROM STDIN</code> statement, or <code>null</code> if the
+   * statement inserts anything but plain parameters or has other clauses than <code>INSERT INTO ... VALUES</code>.
+   */
+  String toCopySql() {
+    String trimmed = prefix.trim();
+    if (!trimmed.regionMatches(true, 0, "insert", 0, "insert".length())) {
+      return null;
+    }
+    int into = skipWhitespace(trimmed, "insert".length());
+    if (into == "insert".length() || !isKeyword(trimmed, into, "into")) {
+      return null;
+    }
+    String target = trimmed.substring(into + "into".length(), trimmed.length() - "values".length()).trim();
+    if (target.isEmpty() || !suffix.trim().isEmpty()) {
+      return null;
+    }
+    String inner = tuple.substring(1, tuple.length() - 1);
+    for (String value : inner.split(",", -1)) {
+      if (!"?".equals(value.trim())) {
+        return null;
+      }
+    }
+    return "COPY " + target + " FROM STDIN";
+  }
+
+  private static boolean isKeyword(String sql, int index, String keyword) {
+    int end = index + keyword.length();
+    return sql.regionMatches(true, index, keyword, 0, keyword.length())
+        && (index == 0 || !isIdentifierPart(sql.charAt(index - 1)))
+        && (end == sql.length() || !isIdentifierPart(sql.charAt(end)));
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  private static int skipWhitespace(String sql, int index) {
+    while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static int skipQuoted(String sql, int start) {
+    char quote = sql.charAt(start);
+    for (int i = start + 1; i < sql.length(); i++) {
+      if (sql.charAt(i) == quote) {
+        if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+          i++;
+        } else {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static int closingParenthesis(String sql, int start) {
+    int depth = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int countPlaceholders(String sql) {
+    int count = 0;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+        if (i < 0) {
+          return -1;
+        }
+      } else if (c == '?') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.executor.keygen;
 
+import java.io.Serializable;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -41,7 +42,9 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  * 用于处理数据库支持自增主键的情况，如MySQL的auto_increment
  * 核心是使用JDBC3的Statement.getGeneratedKeys
  */
-public class Jdbc3KeyGenerator implements KeyGenerator {
+public class Jdbc3KeyGenerator implements KeyGenerator, Serializable {
+
+  private static final long serialVersionUID = 738456433548742539L;
 
   /**
    * A shared instance.
@@ -200,4 +203,8 @@ public class Jdbc3KeyGenerator implements KeyGenerator {
     }
   }
 
+  private Object readResolve() {
+    return INSTANCE;
+  }
+
 }
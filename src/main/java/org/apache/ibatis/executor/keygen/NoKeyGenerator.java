@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.executor.keygen;
 
+import java.io.Serializable;
 import java.sql.Statement;
 
 import org.apache.ibatis.executor.Executor;
@@ -27,7 +28,9 @@ import org.apache.ibatis.mapping.MappedStatement;
  * MappedStatement有一个keyGenerator属性，默认的就用NoKeyGenerator
  * 都是空方法
  */
-public class NoKeyGenerator implements KeyGenerator {
+public class NoKeyGenerator implements KeyGenerator, Serializable {
+
+  private static final long serialVersionUID = 1645278526227823102L;
 
   /**
    * A shared instance.
@@ -45,4 +48,8 @@ public class NoKeyGenerator implements KeyGenerator {
     // Do Nothing
   }
 
+  private Object readResolve() {
+    return INSTANCE;
+  }
+
 }
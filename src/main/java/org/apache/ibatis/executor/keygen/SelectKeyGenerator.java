@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.executor.keygen;
 
+import java.io.Serializable;
 import java.sql.Statement;
 import java.util.List;
 
@@ -31,7 +32,10 @@ import org.apache.ibatis.session.RowBounds;
  * @author Jeff Butler
  * 用于处理数据库不支持自增主键的情况，比如Oracle，postgres的sequence序列
  */
-public class SelectKeyGenerator implements KeyGenerator {
+public class SelectKeyGenerator implements KeyGenerator, Serializable {
+
+  private static final long serialVersionUID = -7144269859372797751L;
+
   
   public static final String SELECT_KEY_SUFFIX = "!selectKey";
   private final boolean executeBefore;
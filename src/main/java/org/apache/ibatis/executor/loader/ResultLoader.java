@@ -72,6 +72,16 @@ public class ResultLoader {
     return resultObject;
   }
 
+  /**
+   * Runs the query and returns its rows without extracting the result object. Like {@link #loadResult()}, the
+   * query runs on a new executor when called from another thread than the one that created this loader.
+   *
+   * @since 3.5.0
+   */
+  public <E> List<E> loadList() throws SQLException {
+    return selectList();
+  }
+
   private <E> List<E> selectList() throws SQLException {
     Executor localExecutor = executor;
     if (Thread.currentThread().getId() != this.creatorThreadId || localExecutor.isClosed()) {
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BaseExecutor;
@@ -42,12 +43,18 @@ import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
 /**
+ * The properties of a result object that are not loaded yet.
+ * <p>
+ * {@link #size()} and {@link #hasLoader(String)} can be called without holding the lock of the map, so that a
+ * proxy only synchronizes on it when a property is actually pending. A property stays in the map until its value
+ * has been set, and nested calls made while it is loading do not load or remove it again.
+ *
  * @author Clinton Begin
  * @author Franta Mejta
  */
 public class ResultLoaderMap {
 
-  private final Map<String, LoadPair> loaderMap = new HashMap<>();
+  private final Map<String, LoadPair> loaderMap = new ConcurrentHashMap<>();
 
   public void addLoader(String property, MetaObject metaResultObject, ResultLoader resultLoader) {
     String upperFirst = getUppercaseFirstProperty(property);
@@ -76,16 +83,26 @@ public class ResultLoaderMap {
   }
 
   public boolean load(String property) throws SQLException {
-    LoadPair pair = loaderMap.remove(property.toUpperCase(Locale.ENGLISH));
-    if (pair != null) {
+    String key = property.toUpperCase(Locale.ENGLISH);
+    LoadPair pair = loaderMap.get(key);
+    if (pair == null || pair.loading) {
+      return false;
+    }
+    pair.loading = true;
+    try {
       pair.load();
-      return true;
+    } finally {
+      loaderMap.remove(key, pair);
     }
-    return false;
+    return true;
   }
 
   public void remove(String property) {
-    loaderMap.remove(property.toUpperCase(Locale.ENGLISH));
+    String key = property.toUpperCase(Locale.ENGLISH);
+    LoadPair pair = loaderMap.get(key);
+    if (pair != null && !pair.loading) {
+      loaderMap.remove(key, pair);
+    }
   }
 
   public void loadAll() throws SQLException {
@@ -127,6 +144,10 @@ public class ResultLoaderMap {
      * Wow, logger.
      */
     private transient Log log;
+    /**
+     * Whether the property is being loaded by its result loader map.
+     */
+    private transient boolean loading;
     /**
      * Factory class through which we get database connection.
      */
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,32 +22,23 @@ import java.util.Properties;
 import java.util.Set;
 
 import javassist.util.proxy.MethodHandler;
-import javassist.util.proxy.Proxy;
-import javassist.util.proxy.ProxyFactory;
 
-import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.AbstractEnhancedDeserializationProxy;
 import org.apache.ibatis.executor.loader.AbstractSerialStateHolder;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
-import org.apache.ibatis.executor.loader.WriteReplaceInterface;
 import org.apache.ibatis.io.Resources;
-import org.apache.ibatis.logging.Log;
-import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.reflection.ExceptionUtil;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
-import org.apache.ibatis.reflection.property.PropertyCopier;
-import org.apache.ibatis.reflection.property.PropertyNamer;
 import org.apache.ibatis.session.Configuration;
 
 /**
+ * Creates the lazy loading proxies with Javassist. The proxy class of a result type is generated once and shared
+ * by all its proxies, see {@link ProxyType}.
+ *
  * @author Eduardo Macarron
  */
 public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.ProxyFactory {
 
-  private static final Log log = LogFactory.getLog(JavassistProxyFactory.class);
-  private static final String FINALIZE_METHOD = "finalize";
-  private static final String WRITE_REPLACE_METHOD = "writeReplace";
-
   public JavassistProxyFactory() {
     try {
       Resources.classForName("javassist.util.proxy.ProxyFactory");
@@ -71,37 +62,13 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
   }
 
   static Object crateProxy(Class<?> type, MethodHandler callback, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
-
-    ProxyFactory enhancer = new ProxyFactory();
-    enhancer.setSuperclass(type);
-
-    try {
-      type.getDeclaredMethod(WRITE_REPLACE_METHOD);
-      // ObjectOutputStream will call writeReplace of objects returned by writeReplace
-      if (log.isDebugEnabled()) {
-        log.debug(WRITE_REPLACE_METHOD + " method was found on bean " + type + ", make sure it returns this");
-      }
-    } catch (NoSuchMethodException e) {
-      enhancer.setInterfaces(new Class[]{WriteReplaceInterface.class});
-    } catch (SecurityException e) {
-      // nothing to do here
-    }
-
-    Object enhanced;
-    Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
-    Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
-    try {
-      enhanced = enhancer.create(typesArray, valuesArray);
-    } catch (Exception e) {
-      throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
-    }
-    ((Proxy) enhanced).setHandler(callback);
-    return enhanced;
+    return ProxyType.of(type).newInstance(callback, constructorArgTypes, constructorArgs);
   }
 
   private static class EnhancedResultObjectProxyImpl implements MethodHandler {
 
     private final Class<?> type;
+    private final ProxyType proxyType;
     private final ResultLoaderMap lazyLoader;
     private final boolean aggressive;
     private final Set<String> lazyLoadTriggerMethods;
@@ -111,6 +78,7 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
 
     private EnhancedResultObjectProxyImpl(Class<?> type, ResultLoaderMap lazyLoader, Configuration configuration, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
       this.type = type;
+      this.proxyType = ProxyType.of(type);
       this.lazyLoader = lazyLoader;
       this.aggressive = configuration.isAggressiveLazyLoading();
       this.lazyLoadTriggerMethods = configuration.getLazyLoadTriggerMethods();
@@ -122,41 +90,48 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
     public static Object createProxy(Object target, ResultLoaderMap lazyLoader, Configuration configuration, ObjectFactory objectFactory, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
       final Class<?> type = target.getClass();
       EnhancedResultObjectProxyImpl callback = new EnhancedResultObjectProxyImpl(type, lazyLoader, configuration, objectFactory, constructorArgTypes, constructorArgs);
-      Object enhanced = crateProxy(type, callback, constructorArgTypes, constructorArgs);
-      PropertyCopier.copyBeanProperties(type, target, enhanced);
+      Object enhanced = callback.proxyType.newInstance(callback, constructorArgTypes, constructorArgs);
+      callback.proxyType.copyFields(target, enhanced);
       return enhanced;
     }
 
     @Override
     public Object invoke(Object enhanced, Method method, Method methodProxy, Object[] args) throws Throwable {
       final String methodName = method.getName();
+      final ProxyType.ProxyMethod proxyMethod = proxyType.getMethod(methodName);
       try {
-        synchronized (lazyLoader) {
-          if (WRITE_REPLACE_METHOD.equals(methodName)) {
+        if (proxyMethod.kind == ProxyType.ProxyMethod.Kind.WRITE_REPLACE) {
+          synchronized (lazyLoader) {
             Object original;
             if (constructorArgTypes.isEmpty()) {
               original = objectFactory.create(type);
             } else {
               original = objectFactory.create(type, constructorArgTypes, constructorArgs);
             }
-            PropertyCopier.copyBeanProperties(type, enhanced, original);
+            proxyType.copyFields(enhanced, original);
             if (lazyLoader.size() > 0) {
               return new JavassistSerialStateHolder(original, lazyLoader.getProperties(), objectFactory, constructorArgTypes, constructorArgs);
             } else {
               return original;
             }
-          } else {
-            if (lazyLoader.size() > 0 && !FINALIZE_METHOD.equals(methodName)) {
-              if (aggressive || lazyLoadTriggerMethods.contains(methodName)) {
-                lazyLoader.loadAll();
-              } else if (PropertyNamer.isSetter(methodName)) {
-                final String property = PropertyNamer.methodToProperty(methodName);
-                lazyLoader.remove(property);
-              } else if (PropertyNamer.isGetter(methodName)) {
-                final String property = PropertyNamer.methodToProperty(methodName);
-                if (lazyLoader.hasLoader(property)) {
-                  lazyLoader.load(property);
-                }
+          }
+        }
+        // only take the lock when the call may load or discard a pending property
+        if (lazyLoader.size() > 0 && proxyMethod.kind != ProxyType.ProxyMethod.Kind.FINALIZE) {
+          if (aggressive || lazyLoadTriggerMethods.contains(methodName)) {
+            synchronized (lazyLoader) {
+              lazyLoader.loadAll();
+            }
+          } else if (proxyMethod.kind == ProxyType.ProxyMethod.Kind.SETTER) {
+            if (lazyLoader.hasLoader(proxyMethod.property)) {
+              synchronized (lazyLoader) {
+                lazyLoader.remove(proxyMethod.property);
+              }
+            }
+          } else if (proxyMethod.kind == ProxyType.ProxyMethod.Kind.GETTER) {
+            if (lazyLoader.hasLoader(proxyMethod.property)) {
+              synchronized (lazyLoader) {
+                lazyLoader.load(proxyMethod.property);
               }
             }
           }
@@ -179,8 +154,9 @@ public class JavassistProxyFactory implements org.apache.ibatis.executor.loader.
             List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
       final Class<?> type = target.getClass();
       EnhancedDeserializationProxyImpl callback = new EnhancedDeserializationProxyImpl(type, unloadedProperties, objectFactory, constructorArgTypes, constructorArgs);
-      Object enhanced = crateProxy(type, callback, constructorArgTypes, constructorArgs);
-      PropertyCopier.copyBeanProperties(type, target, enhanced);
+      ProxyType proxyType = ProxyType.of(type);
+      Object enhanced = proxyType.newInstance(callback, constructorArgTypes, constructorArgs);
+      proxyType.copyFields(target, enhanced);
       return enhanced;
     }
 
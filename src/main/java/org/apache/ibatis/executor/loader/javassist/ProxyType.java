@@ -0,0 +1,189 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.loader.javassist;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javassist.util.proxy.MethodHandler;
+import javassist.util.proxy.Proxy;
+import javassist.util.proxy.ProxyFactory;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.loader.WriteReplaceInterface;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+/**
+ * What all the lazy loading proxies of a result type share: the generated proxy class, the fields copied between
+ * a result object and its proxy, and what each intercepted method means for the lazy loaded properties.
+ * It is computed when the first proxy of the type is created, instead of enhancing and introspecting the type
+ * again for every result object.
+ */
+final class ProxyType {
+
+  private static final Log log = LogFactory.getLog(ProxyType.class);
+  private static final String FINALIZE_METHOD = "finalize";
+  private static final String WRITE_REPLACE_METHOD = "writeReplace";
+
+  private static final ClassValue<ProxyType> PROXY_TYPES = new ClassValue<ProxyType>() {
+    @Override
+    protected ProxyType computeValue(Class<?> type) {
+      return new ProxyType(type);
+    }
+  };
+
+  private final Class<?> proxyClass;
+  private final Field[] fields;
+  private final ConcurrentMap<String, ProxyMethod> methods = new ConcurrentHashMap<>();
+  private volatile Constructor<?> defaultConstructor;
+
+  private ProxyType(Class<?> type) {
+    ProxyFactory enhancer = new ProxyFactory();
+    enhancer.setSuperclass(type);
+    try {
+      type.getDeclaredMethod(WRITE_REPLACE_METHOD);
+      // ObjectOutputStream will call writeReplace of objects returned by writeReplace
+      if (log.isDebugEnabled()) {
+        log.debug(WRITE_REPLACE_METHOD + " method was found on bean " + type + ", make sure it returns this");
+      }
+    } catch (NoSuchMethodException e) {
+      enhancer.setInterfaces(new Class[]{WriteReplaceInterface.class});
+    } catch (SecurityException e) {
+      // nothing to do here
+    }
+    try {
+      this.proxyClass = enhancer.createClass();
+    } catch (RuntimeException e) {
+      throw new ExecutorException("Error creating lazy proxy class for " + type + ".  Cause: " + e, e);
+    }
+    this.fields = copiedFields(type);
+  }
+
+  static ProxyType of(Class<?> type) {
+    return PROXY_TYPES.get(type);
+  }
+
+  Object newInstance(MethodHandler handler, List<Class<?>> constructorArgTypes, List<Object> constructorArgs) {
+    Object enhanced;
+    try {
+      if (constructorArgTypes.isEmpty()) {
+        Constructor<?> constructor = defaultConstructor;
+        if (constructor == null) {
+          constructor = proxyClass.getConstructor();
+          defaultConstructor = constructor;
+        }
+        enhanced = constructor.newInstance();
+      } else {
+        Class<?>[] typesArray = constructorArgTypes.toArray(new Class[constructorArgTypes.size()]);
+        Object[] valuesArray = constructorArgs.toArray(new Object[constructorArgs.size()]);
+        enhanced = proxyClass.getConstructor(typesArray).newInstance(valuesArray);
+      }
+    } catch (Exception e) {
+      throw new ExecutorException("Error creating lazy proxy.  Cause: " + e, e);
+    }
+    ((Proxy) enhanced).setHandler(handler);
+    return enhanced;
+  }
+
+  /**
+   * Copies the instance fields of the type, like {@link org.apache.ibatis.reflection.property.PropertyCopier}
+   * but without looking them up again.
+   */
+  void copyFields(Object source, Object destination) {
+    for (Field field : fields) {
+      try {
+        field.set(destination, field.get(source));
+      } catch (Exception e) {
+        // Nothing useful to do, will only fail on final fields, which will be ignored.
+      }
+    }
+  }
+
+  ProxyMethod getMethod(String methodName) {
+    ProxyMethod method = methods.get(methodName);
+    if (method == null) {
+      method = ProxyMethod.of(methodName);
+      methods.putIfAbsent(methodName, method);
+    }
+    return method;
+  }
+
+  private static Field[] copiedFields(Class<?> type) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> parent = type; parent != null; parent = parent.getSuperclass()) {
+      for (Field field : parent.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        if (!field.isAccessible() && Reflector.canControlMemberAccessible()) {
+          try {
+            field.setAccessible(true);
+          } catch (SecurityException e) {
+            // copied if accessible, ignored otherwise
+          }
+        }
+        fields.add(field);
+      }
+    }
+    return fields.toArray(new Field[fields.size()]);
+  }
+
+  /**
+   * What an intercepted method means for the lazy loaded properties, derived from its name once.
+   */
+  static final class ProxyMethod {
+
+    enum Kind {
+      GETTER, SETTER, WRITE_REPLACE, FINALIZE, OTHER
+    }
+
+    private static final ProxyMethod WRITE_REPLACE = new ProxyMethod(Kind.WRITE_REPLACE, null);
+    private static final ProxyMethod FINALIZE = new ProxyMethod(Kind.FINALIZE, null);
+    private static final ProxyMethod OTHER = new ProxyMethod(Kind.OTHER, null);
+
+    final Kind kind;
+    /** The upper case property name of a getter or setter, as the keys of the result loader map. */
+    final String property;
+
+    private ProxyMethod(Kind kind, String property) {
+      this.kind = kind;
+      this.property = property;
+    }
+
+    static ProxyMethod of(String methodName) {
+      if (WRITE_REPLACE_METHOD.equals(methodName)) {
+        return WRITE_REPLACE;
+      } else if (FINALIZE_METHOD.equals(methodName)) {
+        return FINALIZE;
+      } else if (PropertyNamer.isSetter(methodName)) {
+        return new ProxyMethod(Kind.SETTER, PropertyNamer.methodToProperty(methodName).toUpperCase(Locale.ENGLISH));
+      } else if (PropertyNamer.isGetter(methodName)) {
+        return new ProxyMethod(Kind.GETTER, PropertyNamer.methodToProperty(methodName).toUpperCase(Locale.ENGLISH));
+      }
+      return OTHER;
+    }
+  }
+
+}
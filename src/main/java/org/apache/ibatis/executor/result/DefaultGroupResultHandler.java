@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapperFactory;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Groups the results by the value of a property: each key is mapped to a collection
+ * of all the results having that value.
+ *
+ * @since 3.5.0
+ */
+public class DefaultGroupResultHandler<K, V> implements ResultHandler<V> {
+
+  private final Map<K, Collection<V>> mappedResults;
+  private final String mapKey;
+  private final Class<?> collectionType;
+  private final ObjectFactory objectFactory;
+  private final ObjectWrapperFactory objectWrapperFactory;
+  private final ReflectorFactory reflectorFactory;
+
+  public DefaultGroupResultHandler(Map<K, Collection<V>> mappedResults, String mapKey, Class<?> collectionType,
+      ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+    this.mappedResults = mappedResults;
+    this.mapKey = mapKey;
+    this.collectionType = collectionType;
+    this.objectFactory = objectFactory;
+    this.objectWrapperFactory = objectWrapperFactory;
+    this.reflectorFactory = reflectorFactory;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void handleResult(ResultContext<? extends V> context) {
+    final V value = context.getResultObject();
+    final MetaObject mo = MetaObject.forObject(value, objectFactory, objectWrapperFactory, reflectorFactory);
+    final K key = (K) mo.getValue(mapKey);
+    Collection<V> group = mappedResults.get(key);
+    if (group == null) {
+      group = (Collection<V>) objectFactory.create(collectionType);
+      mappedResults.put(key, group);
+    }
+    group.add(value);
+  }
+
+  public Map<K, Collection<V>> getMappedResults() {
+    return mappedResults;
+  }
+}
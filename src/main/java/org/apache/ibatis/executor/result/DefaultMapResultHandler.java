@@ -37,10 +37,17 @@ public class DefaultMapResultHandler<K, V> implements ResultHandler<V> {
 
   @SuppressWarnings("unchecked")
   public DefaultMapResultHandler(String mapKey, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
+    this(objectFactory.create(Map.class), mapKey, objectFactory, objectWrapperFactory, reflectorFactory);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public DefaultMapResultHandler(Map<K, V> mappedResults, String mapKey, ObjectFactory objectFactory, ObjectWrapperFactory objectWrapperFactory, ReflectorFactory reflectorFactory) {
     this.objectFactory = objectFactory;
     this.objectWrapperFactory = objectWrapperFactory;
     this.reflectorFactory = reflectorFactory;
-    this.mappedResults = objectFactory.create(Map.class);
+    this.mappedResults = mappedResults;
     this.mapKey = mapKey;
   }
 
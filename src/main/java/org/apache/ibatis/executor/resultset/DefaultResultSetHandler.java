@@ -36,6 +36,7 @@ import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ReflectorFactory;
@@ -45,7 +46,11 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.BlobByteObjectArrayTypeHandler;
+import org.apache.ibatis.type.BlobTypeHandler;
+import org.apache.ibatis.type.ClobTypeHandler;
 import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.NClobTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -72,6 +77,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERED = new Object();
 
+  // a cleared HashMap keeps its table, so the nested result objects of a large group are dropped with their map
+  private static final int MAX_RETAINED_NESTED_RESULT_OBJECTS = 1024;
+
   private final Executor executor;
   private final Configuration configuration;
   private final MappedStatement mappedStatement;
@@ -82,9 +90,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final TypeHandlerRegistry typeHandlerRegistry;
   private final ObjectFactory objectFactory;
   private final ReflectorFactory reflectorFactory;
+  private final StatementMetricsListener metricsListener;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
+  private Map<CacheKey, Object> nestedResultObjects = new HashMap<>();
   private final Map<String, Object> ancestorObjects = new HashMap<>();
   private Object previousRowValue;
 
@@ -95,6 +104,19 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
 
+  // Cached indexes of the mapped columns in the current result set, only when columns are read by index
+  private final Map<String, int[]> propertyColumnIndexesCache = new HashMap<>();
+  private final Map<String, int[]> autoMappingColumnIndexesCache = new HashMap<>();
+  private ResultSetWrapper columnIndexesResultSet;
+
+  // eager nested selects running concurrently, only while handling result sets without a result handler or sharding
+  private PendingNestedQueries pendingNestedQueries;
+
+  // counters reported to the metrics listener, only maintained when one is configured
+  private long rowsFetched;
+  private long rowsMapped;
+  private long lobLength;
+
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
@@ -129,6 +151,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     this.objectFactory = configuration.getObjectFactory();
     this.reflectorFactory = configuration.getReflectorFactory();
     this.resultHandler = resultHandler;
+    this.metricsListener = configuration.getStatementMetricsListener();
   }
 
   //
@@ -179,45 +202,72 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
   @Override
   public List<Object> handleResultSets(Statement stmt) throws SQLException {
-    ErrorContext.instance().activity("handling results").object(mappedStatement.getId());
+    ErrorContext.instance().statement(mappedStatement, ErrorContext.Activity.HANDLING_RESULTS);
 
-    final List<Object> multipleResults = new ArrayList<>();
+    if (configuration.isParallelNestedQueries() && resultHandler == null && configuration.getEnvironment() != null
+        && configuration.getSharding() == null) {
+      pendingNestedQueries = new PendingNestedQueries(configuration, executor);
+    }
+    try {
+      final List<Object> multipleResults = new ArrayList<>();
 
-    int resultSetCount = 0;
-    ResultSetWrapper rsw = getFirstResultSet(stmt);
+      int resultSetCount = 0;
+      ResultSetWrapper rsw = getFirstResultSet(stmt);
 
-    List<ResultMap> resultMaps = mappedStatement.getResultMaps();
-    int resultMapCount = resultMaps.size();
-    validateResultMapsCount(rsw, resultMapCount);
-    while (rsw != null && resultMapCount > resultSetCount) {
-      ResultMap resultMap = resultMaps.get(resultSetCount);
-      handleResultSet(rsw, resultMap, multipleResults, null);
-      rsw = getNextResultSet(stmt);
-      cleanUpAfterHandlingResultSet();
-      resultSetCount++;
-    }
-
-    String[] resultSets = mappedStatement.getResultSets();
-    if (resultSets != null) {
-      while (rsw != null && resultSetCount < resultSets.length) {
-        ResultMapping parentMapping = nextResultMaps.get(resultSets[resultSetCount]);
-        if (parentMapping != null) {
-          String nestedResultMapId = parentMapping.getNestedResultMapId();
-          ResultMap resultMap = configuration.getResultMap(nestedResultMapId);
-          handleResultSet(rsw, resultMap, null, parentMapping);
-        }
+      List<ResultMap> resultMaps = mappedStatement.getResultMaps();
+      int resultMapCount = resultMaps.size();
+      validateResultMapsCount(rsw, resultMapCount);
+      while (rsw != null && resultMapCount > resultSetCount) {
+        ResultMap resultMap = resultMaps.get(resultSetCount);
+        handleResultSet(rsw, resultMap, multipleResults, null);
         rsw = getNextResultSet(stmt);
         cleanUpAfterHandlingResultSet();
         resultSetCount++;
       }
+
+      String[] resultSets = mappedStatement.getResultSets();
+      if (resultSets != null) {
+        while (rsw != null && resultSetCount < resultSets.length) {
+          ResultMapping parentMapping = nextResultMaps.get(resultSets[resultSetCount]);
+          if (parentMapping != null) {
+            String nestedResultMapId = parentMapping.getNestedResultMapId();
+            ResultMap resultMap = configuration.getResultMap(nestedResultMapId);
+            handleResultSet(rsw, resultMap, null, parentMapping);
+          }
+          rsw = getNextResultSet(stmt);
+          cleanUpAfterHandlingResultSet();
+          resultSetCount++;
+        }
+      }
+
+      if (pendingNestedQueries != null) {
+        pendingNestedQueries.join();
+      }
+      if (metricsListener != null) {
+        reportMetrics();
+      }
+      return collapseSingleResultList(multipleResults);
+    } finally {
+      if (pendingNestedQueries != null) {
+        pendingNestedQueries.cancel();
+        pendingNestedQueries = null;
+      }
     }
+  }
 
-    return collapseSingleResultList(multipleResults);
+  private void reportMetrics() {
+    metricsListener.rowsHandled(mappedStatement, rowsFetched, rowsMapped);
+    if (lobLength > 0) {
+      metricsListener.lobRead(mappedStatement, lobLength);
+    }
+    rowsFetched = 0;
+    rowsMapped = 0;
+    lobLength = 0;
   }
 
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
-    ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
+    ErrorContext.instance().statement(mappedStatement, ErrorContext.Activity.HANDLING_CURSOR_RESULTS);
 
     ResultSetWrapper rsw = getFirstResultSet(stmt);
 
@@ -230,9 +280,39 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      // nested selects would use the executor from the prefetching thread
+      return new DefaultCursor<>(this, resultMap, rsw, rowBounds, prefetchSize);
+    }
     return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
   }
 
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> visitedResultMapIds) {
+    if (!visitedResultMapIds.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    List<String> nestedResultMapIds = new ArrayList<>();
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      if (resultMapping.getNestedResultMapId() != null) {
+        nestedResultMapIds.add(resultMapping.getNestedResultMapId());
+      }
+    }
+    if (resultMap.getDiscriminator() != null) {
+      nestedResultMapIds.addAll(resultMap.getDiscriminator().getDiscriminatorMap().values());
+    }
+    for (String nestedResultMapId : nestedResultMapIds) {
+      if (configuration.hasResultMap(nestedResultMapId)
+          && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visitedResultMapIds)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
     ResultSet rs = stmt.getResultSet();
     while (rs == null) {
@@ -281,7 +361,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private void cleanUpAfterHandlingResultSet() {
-    nestedResultObjects.clear();
+    evictNestedResultObjects();
+  }
+
+  private void evictNestedResultObjects() {
+    if (nestedResultObjects.size() > MAX_RETAINED_NESTED_RESULT_OBJECTS) {
+      nestedResultObjects = new HashMap<>();
+    } else {
+      nestedResultObjects.clear();
+    }
   }
 
   private void validateResultMapsCount(ResultSetWrapper rsw, int resultMapCount) {
@@ -350,6 +438,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowsFetched++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
@@ -357,6 +446,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
+    rowsMapped++;
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
     } else {
@@ -426,19 +516,30 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    final int[] columnIndexes = configuration.isUseColumnIndex() ? getPropertyColumnIndexes(rsw, resultMap, columnPrefix) : null;
+    final List<String> mappedColumnNames = columnIndexes == null ? rsw.getMappedColumnNames(resultMap, columnPrefix) : null;
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      if (propertyMapping.getNestedResultMapId() != null) {
-        // the user added a column attribute to a nested result map, ignore it
-        column = null;
+    for (int i = 0, n = propertyMappings.size(); i < n; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      final int columnIndex;
+      final boolean mappedColumn;
+      if (columnIndexes != null) {
+        columnIndex = columnIndexes[i];
+        mappedColumn = columnIndex > 0;
+      } else {
+        String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+        if (propertyMapping.getNestedResultMapId() != null) {
+          // the user added a column attribute to a nested result map, ignore it
+          column = null;
+        }
+        columnIndex = 0;
+        mappedColumn = column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH));
       }
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || mappedColumn
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix, columnIndex);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -459,8 +560,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
-      throws SQLException {
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix,
+                                         int columnIndex) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
@@ -468,8 +570,52 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       return DEFERED;
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
+      if (columnIndex > 0) {
+        return getColumnValue(rsw, typeHandler, null, columnIndex);
+      }
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(rsw, typeHandler, column);
+    }
+  }
+
+  private int[] getPropertyColumnIndexes(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) {
+    resetColumnIndexesCache(rsw);
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    int[] columnIndexes = propertyColumnIndexesCache.get(mapKey);
+    if (columnIndexes == null) {
+      final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+      columnIndexes = new int[propertyMappings.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        final ResultMapping propertyMapping = propertyMappings.get(i);
+        // the user added a column attribute to a nested result map, ignore it
+        final String column = propertyMapping.getNestedResultMapId() == null ? prependPrefix(propertyMapping.getColumn(), columnPrefix) : null;
+        columnIndexes[i] = column != null ? rsw.getColumnIndex(column) : -1;
+      }
+      propertyColumnIndexesCache.put(mapKey, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
+  private int[] getAutoMappingColumnIndexes(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix, List<UnMappedColumnAutoMapping> autoMapping) {
+    resetColumnIndexesCache(rsw);
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    int[] columnIndexes = autoMappingColumnIndexesCache.get(mapKey);
+    if (columnIndexes == null) {
+      columnIndexes = new int[autoMapping.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        columnIndexes[i] = rsw.getColumnIndex(autoMapping.get(i).column);
+      }
+      autoMappingColumnIndexesCache.put(mapKey, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
+  private void resetColumnIndexesCache(ResultSetWrapper rsw) {
+    if (columnIndexesResultSet != rsw) {
+      // the same columns may have other indexes in another result set
+      propertyColumnIndexesCache.clear();
+      autoMappingColumnIndexesCache.clear();
+      columnIndexesResultSet = rsw;
     }
   }
 
@@ -517,8 +663,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
-      for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+      final int[] columnIndexes = configuration.isUseColumnIndex() ? getAutoMappingColumnIndexes(rsw, resultMap, columnPrefix, autoMapping) : null;
+      for (int i = 0, n = autoMapping.size(); i < n; i++) {
+        final UnMappedColumnAutoMapping mapping = autoMapping.get(i);
+        final Object value = columnIndexes != null
+            ? getColumnValue(rsw, mapping.typeHandler, mapping.column, columnIndexes[i])
+            : getColumnValue(rsw, mapping.typeHandler, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -635,7 +785,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           value = getRowValue(rsw, resultMap, constructorMapping.getColumnPrefix());
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, typeHandler, prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -669,7 +819,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       Class<?> parameterType = constructor.getParameterTypes()[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(columnName, columnPrefix));
+      Object value = getColumnValue(rsw, typeHandler, prependPrefix(columnName, columnPrefix));
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -710,7 +860,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(rsw, typeHandler, columnName);
   }
 
   //
@@ -753,6 +903,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (propertyMapping.isLazy()) {
           lazyLoader.addLoader(property, metaResultObject, resultLoader);
           value = DEFERED;
+        } else if (pendingNestedQueries != null && property != null
+            && pendingNestedQueries.add(metaResultObject, property, nestedQuery, key, targetType, resultLoader)) {
+          value = DEFERED;
         } else {
           value = resultLoader.loadResult();
         }
@@ -836,6 +989,37 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return typeHandler.getResult(rs, prependPrefix(resultMapping.getColumn(), columnPrefix));
   }
 
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    final int columnIndex = configuration.isUseColumnIndex() && column != null ? rsw.getColumnIndex(column) : 0;
+    return getColumnValue(rsw, typeHandler, column, columnIndex);
+  }
+
+  // reads the column by name unless its index is known
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column, int columnIndex) throws SQLException {
+    final Object value;
+    if (columnIndex > 0) {
+      value = typeHandler.getResult(rsw.getResultSet(), columnIndex);
+    } else {
+      value = typeHandler.getResult(rsw.getResultSet(), column);
+    }
+    if (metricsListener != null && value != null) {
+      lobLength += getLobLength(typeHandler, value);
+    }
+    return value;
+  }
+
+  // bytes for BLOBs, characters for CLOBs
+  private long getLobLength(TypeHandler<?> typeHandler, Object value) {
+    if (typeHandler instanceof BlobTypeHandler) {
+      return ((byte[]) value).length;
+    } else if (typeHandler instanceof BlobByteObjectArrayTypeHandler) {
+      return ((Byte[]) value).length;
+    } else if (typeHandler instanceof ClobTypeHandler || typeHandler instanceof NClobTypeHandler) {
+      return ((String) value).length();
+    }
+    return 0;
+  }
+
   private String prependPrefix(String columnName, String prefix) {
     if (columnName == null || columnName.length() == 0 || prefix == null || prefix.length() == 0) {
       return columnName;
@@ -853,13 +1037,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowsFetched++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
       if (mappedStatement.isResultOrdered()) {
         if (partialObject == null && rowValue != null) {
-          nestedResultObjects.clear();
+          // the previous parent is complete, only the objects of the new one are kept
+          evictNestedResultObjects();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
         }
         rowValue = getRowValue(rsw, discriminatedResultMap, rowKey, null, partialObject);
@@ -1056,7 +1242,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
         if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+          final Object value = getColumnValue(rsw, th, column);
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
             cacheKey.update(column);
             cacheKey.update(value);
@@ -0,0 +1,170 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.ResultExtractor;
+import org.apache.ibatis.executor.loader.ResultLoader;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The eager nested selects of the rows handled so far, running concurrently while the following rows are mapped.
+ * <p>
+ * Each nested select is a {@link ResultLoader} created on the handling thread, so it opens its own executor and
+ * connection when it runs on another thread. Only nested selects whose own rows have no nested selects run this
+ * way: the others may refer back to a query in progress, which only the executor of the session resolves through
+ * its local cache, and would hold another connection for every level. The rows read on another thread are put into
+ * the local cache of the session when they are joined. A nested select that did not start yet when the values are
+ * joined runs on the joining thread with the executor of the session instead.
+ *
+ * @since 3.5.0
+ */
+class PendingNestedQueries {
+
+  private final ExecutorService asyncExecutor;
+  private final Executor executor;
+  private final boolean callSettersOnNulls;
+  private final ResultExtractor resultExtractor;
+  private final Map<String, Boolean> concurrentStatements = new HashMap<>();
+  private final Map<CacheKey, Task> tasks = new LinkedHashMap<>();
+  private final List<PendingValue> values = new ArrayList<>();
+
+  PendingNestedQueries(Configuration configuration, Executor executor) {
+    this.asyncExecutor = configuration.getAsyncExecutor();
+    this.executor = executor;
+    this.callSettersOnNulls = configuration.isCallSettersOnNulls();
+    this.resultExtractor = new ResultExtractor(configuration, configuration.getObjectFactory());
+  }
+
+  /**
+   * Starts the nested select unless the same one was already started for another row, and sets its result to the
+   * property when {@link #join()} is called.
+   *
+   * @return false, leaving the nested select to the caller, when it has to run on the executor of the session
+   */
+  boolean add(MetaObject metaResultObject, String property, MappedStatement nestedQuery, CacheKey key,
+      Class<?> targetType, ResultLoader resultLoader) {
+    if (!concurrentStatements.computeIfAbsent(nestedQuery.getId(),
+        id -> nestedQuery.getStatementType() != StatementType.CALLABLE && !nestedQuery.hasNestedQueries())) {
+      return false;
+    }
+    Task task = tasks.get(key);
+    if (task == null) {
+      task = new Task(nestedQuery, key, new FutureTask<>(resultLoader::loadList));
+      tasks.put(key, task);
+      try {
+        asyncExecutor.execute(task.future);
+      } catch (RejectedExecutionException e) {
+        // runs on join
+      }
+    }
+    values.add(new PendingValue(metaResultObject, property, targetType, task));
+    return true;
+  }
+
+  /**
+   * Waits for all the nested selects, puts their rows into the local cache of the session and sets their results.
+   */
+  void join() throws SQLException {
+    try {
+      for (Task task : tasks.values()) {
+        // does nothing if the task was started by the pool
+        task.future.run();
+      }
+      for (Task task : tasks.values()) {
+        executor.putLocalCache(task.nestedQuery, task.key, task.future.get());
+      }
+      for (PendingValue pendingValue : values) {
+        pendingValue.set(resultExtractor.extractObjectFromList(pendingValue.task.future.get(), pendingValue.targetType));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for nested queries.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ExecutorException("Error executing nested query.  Cause: " + cause, cause);
+    } finally {
+      cancel();
+    }
+  }
+
+  /**
+   * Discards the nested selects that did not start yet.
+   */
+  void cancel() {
+    for (Task task : tasks.values()) {
+      task.future.cancel(false);
+    }
+    tasks.clear();
+    values.clear();
+  }
+
+  private static final class Task {
+    private final MappedStatement nestedQuery;
+    private final CacheKey key;
+    private final FutureTask<List<Object>> future;
+
+    private Task(MappedStatement nestedQuery, CacheKey key, FutureTask<List<Object>> future) {
+      this.nestedQuery = nestedQuery;
+      this.key = key;
+      this.future = future;
+    }
+  }
+
+  private final class PendingValue {
+    private final MetaObject metaResultObject;
+    private final String property;
+    private final Class<?> targetType;
+    private final Task task;
+
+    private PendingValue(MetaObject metaResultObject, String property, Class<?> targetType, Task task) {
+      this.metaResultObject = metaResultObject;
+      this.property = property;
+      this.targetType = targetType;
+      this.task = task;
+    }
+
+    private void set(Object value) {
+      if (value != null || (callSettersOnNulls && !metaResultObject.getSetterType(property).isPrimitive())) {
+        metaResultObject.setValue(property, value);
+      }
+    }
+  }
+
+}
@@ -48,6 +48,8 @@ public class ResultSetWrapper {
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private final Map<String, Integer> resolvedColumnIndexes = new HashMap<>();
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
@@ -56,9 +58,14 @@ public class ResultSetWrapper {
     final ResultSetMetaData metaData = rs.getMetaData();
     final int columnCount = metaData.getColumnCount();
     for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+      final String columnName = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i);
+      columnNames.add(columnName);
       jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
       classNames.add(metaData.getColumnClassName(i));
+      // like ResultSet#findColumn the first column with a name wins
+      if (columnName != null) {
+        columnIndexes.putIfAbsent(columnName.toUpperCase(Locale.ENGLISH), i);
+      }
     }
   }
 
@@ -78,6 +85,24 @@ public class ResultSetWrapper {
     return jdbcTypes;
   }
 
+  /**
+   * Returns the 1-based index of the first column with the given name, ignoring case, or -1 if there is none.
+   * The index is resolved once per column name.
+   *
+   * @since 3.5.0
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = resolvedColumnIndexes.get(columnName);
+    if (index == null) {
+      index = columnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+      if (index == null) {
+        index = -1;
+      }
+      resolvedColumnIndexes.put(columnName, index);
+    }
+    return index;
+  }
+
   public JdbcType getJdbcType(String columnName) {
     for (int i = 0 ; i < columnNames.size(); i++) {
       if (columnNames.get(i).equalsIgnoreCase(columnName)) {
@@ -0,0 +1,335 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The top level <code>ORDER BY</code> clause of a query, used to merge the sorted results of several shards.
+ * Only plain, optionally qualified or quoted, column names followed by <code>ASC</code> or <code>DESC</code> and
+ * <code>NULLS FIRST</code> or <code>NULLS LAST</code> are understood.
+ * <p>
+ * The rows are only compared like the database would when their sort keys are numbers, booleans or dates and times:
+ * strings depend on the collation of the database, and null values on the default null ordering of the database
+ * when the clause has no <code>NULLS</code> option. {@link #isMergeable(Object[])} checks this for each row.
+ */
+final class OrderBy {
+
+  private final List<Column> columns;
+
+  private OrderBy(List<Column> columns) {
+    this.columns = columns;
+  }
+
+  /**
+   * Returns the order of a query, or <code>null</code> if it has no top level <code>ORDER BY</code> clause or if
+   * the clause sorts by something else than columns.
+   */
+  static OrderBy parse(String sql) {
+    List<String> tokens = tokenize(sql);
+    int start = -1;
+    for (int i = tokens.size() - 2; i >= 0; i--) {
+      if ("ORDER".equalsIgnoreCase(tokens.get(i)) && "BY".equalsIgnoreCase(tokens.get(i + 1))) {
+        start = i + 2;
+        break;
+      }
+    }
+    if (start < 0) {
+      return null;
+    }
+    List<Column> columns = new ArrayList<>();
+    int i = start;
+    while (true) {
+      if (i >= tokens.size() || !isColumnName(tokens.get(i))) {
+        return null;
+      }
+      String name = unquote(tokens.get(i++));
+      boolean descending = false;
+      if (i < tokens.size() && ("ASC".equalsIgnoreCase(tokens.get(i)) || "DESC".equalsIgnoreCase(tokens.get(i)))) {
+        descending = "DESC".equalsIgnoreCase(tokens.get(i++));
+      }
+      boolean nullsFirst = !descending;
+      boolean nullsOrdered = false;
+      if (i < tokens.size() && "NULLS".equalsIgnoreCase(tokens.get(i))) {
+        if (i + 1 >= tokens.size()) {
+          return null;
+        } else if ("FIRST".equalsIgnoreCase(tokens.get(i + 1))) {
+          nullsFirst = true;
+        } else if ("LAST".equalsIgnoreCase(tokens.get(i + 1))) {
+          nullsFirst = false;
+        } else {
+          return null;
+        }
+        nullsOrdered = true;
+        i += 2;
+      }
+      columns.add(new Column(name, descending, nullsFirst, nullsOrdered));
+      if (i < tokens.size() && ",".equals(tokens.get(i))) {
+        i++;
+      } else if (i >= tokens.size() || isClauseEnd(tokens.get(i))) {
+        return new OrderBy(Collections.unmodifiableList(columns));
+      } else {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Returns a function that reads the sort key of a result row, or <code>null</code> if the ordered columns cannot
+   * be found in the rows of the statement.
+   */
+  Function<Object, Object[]> sortKey(MappedStatement ms, Object sampleRow) {
+    Configuration configuration = ms.getConfiguration();
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(sampleRow.getClass())) {
+      return columns.size() == 1 ? row -> new Object[] { row } : null;
+    }
+    if (sampleRow instanceof Map) {
+      return row -> {
+        Object[] key = new Object[columns.size()];
+        for (int i = 0; i < key.length && row != null; i++) {
+          key[i] = getIgnoreCase((Map<?, ?>) row, columns.get(i).name);
+        }
+        return key;
+      };
+    }
+    MetaObject sample = configuration.newMetaObject(sampleRow);
+    String[] properties = new String[columns.size()];
+    for (int i = 0; i < properties.length; i++) {
+      properties[i] = findProperty(ms, sample, columns.get(i).name);
+      if (properties[i] == null) {
+        return null;
+      }
+    }
+    return row -> {
+      Object[] key = new Object[properties.length];
+      if (row != null) {
+        MetaObject metaObject = configuration.newMetaObject(row);
+        for (int i = 0; i < key.length; i++) {
+          key[i] = metaObject.getValue(properties[i]);
+        }
+      }
+      return key;
+    };
+  }
+
+  /**
+   * Checks whether a sort key read by a {@link #sortKey(MappedStatement, Object)} function is compared in the same
+   * order as the database sorted it.
+   */
+  boolean isMergeable(Object[] key) {
+    for (int i = 0; i < columns.size(); i++) {
+      Object value = key[i];
+      if (value == null ? !columns.get(i).nullsOrdered : !isMergeableValue(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isMergeableValue(Object value) {
+    return value instanceof Comparable
+        && (value instanceof Number || value instanceof Boolean || value instanceof Date || value instanceof Temporal);
+  }
+
+  /**
+   * Compares two {@link #isMergeable(Object[]) mergeable} sort keys.
+   */
+  @SuppressWarnings("unchecked")
+  int compare(Object[] left, Object[] right) {
+    for (int i = 0; i < columns.size(); i++) {
+      Column column = columns.get(i);
+      Object a = left[i];
+      Object b = right[i];
+      int result;
+      if (a == null || b == null) {
+        result = a == b ? 0 : (a == null) == column.nullsFirst ? -1 : 1;
+      } else {
+        result = column.descending ? ((Comparable<Object>) b).compareTo(a) : ((Comparable<Object>) a).compareTo(b);
+      }
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  List<Column> getColumns() {
+    return columns;
+  }
+
+  private static String findProperty(MappedStatement ms, MetaObject sample, String column) {
+    String property = null;
+    if (!ms.getResultMaps().isEmpty()) {
+      for (ResultMapping resultMapping : ms.getResultMaps().get(0).getResultMappings()) {
+        if (column.equalsIgnoreCase(resultMapping.getColumn()) && resultMapping.getProperty() != null
+            && resultMapping.getNestedQueryId() == null && resultMapping.getNestedResultMapId() == null) {
+          property = resultMapping.getProperty();
+          break;
+        }
+      }
+    }
+    if (property == null) {
+      property = sample.findProperty(column, ms.getConfiguration().isMapUnderscoreToCamelCase());
+    }
+    return property != null && sample.hasGetter(property) ? property : null;
+  }
+
+  private static Object getIgnoreCase(Map<?, ?> row, String column) {
+    if (row.containsKey(column)) {
+      return row.get(column);
+    }
+    for (Map.Entry<?, ?> entry : row.entrySet()) {
+      if (entry.getKey() instanceof String && column.equalsIgnoreCase((String) entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static boolean isColumnName(String token) {
+    char first = token.charAt(0);
+    return first == '"' || Character.isLetter(first) || first == '_';
+  }
+
+  private static boolean isClauseEnd(String token) {
+    return ";".equals(token)
+        || "LIMIT".equalsIgnoreCase(token)
+        || "OFFSET".equalsIgnoreCase(token)
+        || "FETCH".equalsIgnoreCase(token)
+        || "FOR".equalsIgnoreCase(token);
+  }
+
+  private static String unquote(String name) {
+    int lastPeriod = -1;
+    boolean quoted = false;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == '.' && !quoted) {
+        lastPeriod = i;
+      }
+    }
+    String unqualified = name.substring(lastPeriod + 1);
+    if (unqualified.length() > 1 && unqualified.charAt(0) == '"' && unqualified.endsWith("\"")) {
+      return unqualified.substring(1, unqualified.length() - 1);
+    }
+    return unqualified;
+  }
+
+  /**
+   * Splits a statement into its top level tokens: words (names, possibly qualified or quoted, keywords and
+   * numbers), string literals, parenthesized groups and single characters.
+   */
+  private static List<String> tokenize(String sql) {
+    List<String> tokens = new ArrayList<>();
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      int start = i;
+      if (Character.isWhitespace(c)) {
+        i++;
+        continue;
+      } else if (c == '\'') {
+        i = skipQuoted(sql, i, '\'');
+      } else if (c == '(') {
+        int depth = 0;
+        while (i < length) {
+          char d = sql.charAt(i);
+          if (d == '\'' || d == '"') {
+            i = skipQuoted(sql, i, d);
+            continue;
+          } else if (d == '(') {
+            depth++;
+          } else if (d == ')' && --depth == 0) {
+            i++;
+            break;
+          }
+          i++;
+        }
+      } else if (isWordPart(c)) {
+        while (i < length && isWordPart(sql.charAt(i))) {
+          i = sql.charAt(i) == '"' ? skipQuoted(sql, i, '"') : i + 1;
+        }
+      } else {
+        i++;
+      }
+      tokens.add(sql.substring(start, i));
+    }
+    return tokens;
+  }
+
+  private static boolean isWordPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.' || c == '"';
+  }
+
+  private static int skipQuoted(String sql, int start, char quote) {
+    int i = start + 1;
+    while (i < sql.length()) {
+      if (sql.charAt(i++) == quote) {
+        if (i < sql.length() && sql.charAt(i) == quote) {
+          i++;
+        } else {
+          break;
+        }
+      }
+    }
+    return i;
+  }
+
+  static final class Column {
+    private final String name;
+    private final boolean descending;
+    private final boolean nullsFirst;
+    private final boolean nullsOrdered;
+
+    private Column(String name, boolean descending, boolean nullsFirst, boolean nullsOrdered) {
+      this.name = name;
+      this.descending = descending;
+      this.nullsFirst = nullsFirst;
+      this.nullsOrdered = nullsOrdered;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    boolean isDescending() {
+      return descending;
+    }
+
+    boolean isNullsFirst() {
+      return nullsFirst;
+    }
+
+    boolean isNullsOrdered() {
+      return nullsOrdered;
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Reads the shard key from a property of the parameter object, or from a named parameter of a mapper method.
+ * The first of the properties present in the parameter object is used. Single parameters of a simple type
+ * carry no shard key, as nothing tells whether they are one.
+ *
+ * @since 3.5.0
+ */
+public class PropertyShardKeyExtractor implements ShardKeyExtractor {
+
+  private final String[] properties;
+
+  public PropertyShardKeyExtractor(String... properties) {
+    if (properties == null || properties.length == 0) {
+      throw new IllegalArgumentException("At least one shard key property is required");
+    }
+    this.properties = properties;
+  }
+
+  @Override
+  public Object getShardKey(MappedStatement ms, Object parameterObject) {
+    if (parameterObject == null) {
+      return null;
+    }
+    Configuration configuration = ms.getConfiguration();
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+      return null;
+    }
+    MetaObject metaObject = configuration.newMetaObject(parameterObject);
+    for (String property : properties) {
+      if (metaObject.hasGetter(property)) {
+        return metaObject.getValue(property);
+      }
+    }
+    return null;
+  }
+
+}
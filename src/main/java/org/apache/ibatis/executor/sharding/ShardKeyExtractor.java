@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Reads the shard key of a statement execution from its parameter object.
+ *
+ * @since 3.5.0
+ */
+public interface ShardKeyExtractor {
+
+  /**
+   * Returns the shard key of an execution, or <code>null</code> if the parameter object has none and the statement
+   * has to run on every shard.
+   */
+  Object getShardKey(MappedStatement ms, Object parameterObject);
+
+}
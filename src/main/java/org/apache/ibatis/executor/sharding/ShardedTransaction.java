@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.TransactionException;
+
+/**
+ * The transactions of a session on each shard. There is no single connection, and commits and rollbacks are
+ * applied to the shards one after the other.
+ *
+ * @since 3.5.0
+ */
+public class ShardedTransaction implements Transaction {
+
+  private final List<Transaction> shardTransactions;
+
+  public ShardedTransaction(List<Transaction> shardTransactions) {
+    this.shardTransactions = Collections.unmodifiableList(shardTransactions);
+  }
+
+  /**
+   * Returns the transactions in the order of the shards.
+   */
+  public List<Transaction> getShardTransactions() {
+    return shardTransactions;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    throw new TransactionException("A sharded transaction has one connection per shard. Use getShardTransactions() instead.");
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    SQLException failure = null;
+    for (Transaction transaction : shardTransactions) {
+      try {
+        transaction.commit();
+      } catch (SQLException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    throwIfFailed(failure);
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    SQLException failure = null;
+    for (Transaction transaction : shardTransactions) {
+      try {
+        transaction.rollback();
+      } catch (SQLException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    throwIfFailed(failure);
+  }
+
+  @Override
+  public void close() throws SQLException {
+    SQLException failure = null;
+    for (Transaction transaction : shardTransactions) {
+      try {
+        transaction.close();
+      } catch (SQLException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    throwIfFailed(failure);
+  }
+
+  @Override
+  public Integer getTimeout() throws SQLException {
+    Integer timeout = null;
+    for (Transaction transaction : shardTransactions) {
+      Integer shardTimeout = transaction.getTimeout();
+      if (shardTimeout != null && (timeout == null || shardTimeout < timeout)) {
+        timeout = shardTimeout;
+      }
+    }
+    return timeout;
+  }
+
+  private static SQLException addFailure(SQLException failure, SQLException e) {
+    if (failure == null) {
+      return e;
+    }
+    failure.addSuppressed(e);
+    return failure;
+  }
+
+  private static void throwIfFailed(SQLException failure) throws SQLException {
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * The shards of a sharded configuration: the environments holding a part of the rows each, the extractor that
+ * reads the shard key of an execution and the router that maps a shard key to a shard. By default a shard key is
+ * routed by its hash code modulo the number of shards.
+ * <p>
+ * Sessions opened from a data source by a configuration with sharding run every statement with a shard key on its
+ * shard, and every statement without one on all the shards: the results of a query are merged, the update counts of
+ * an update or delete are summed and an insert fails. Each shard commits or rolls back on its own, there is no
+ * distributed transaction.
+ *
+ * @since 3.5.0
+ * @see ShardingExecutor
+ */
+public class Sharding {
+
+  private final List<Environment> shards;
+  private final ShardKeyExtractor shardKeyExtractor;
+  private ShardRouter shardRouter = (shardKey, shardCount) -> Math.floorMod(shardKey.hashCode(), shardCount);
+
+  public Sharding(List<Environment> shards, ShardKeyExtractor shardKeyExtractor) {
+    if (shards == null || shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    if (shardKeyExtractor == null) {
+      throw new IllegalArgumentException("Parameter 'shardKeyExtractor' must not be null");
+    }
+    this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    this.shardKeyExtractor = shardKeyExtractor;
+  }
+
+  public List<Environment> getShards() {
+    return shards;
+  }
+
+  public ShardKeyExtractor getShardKeyExtractor() {
+    return shardKeyExtractor;
+  }
+
+  public ShardRouter getShardRouter() {
+    return shardRouter;
+  }
+
+  public void setShardRouter(ShardRouter shardRouter) {
+    if (shardRouter == null) {
+      throw new IllegalArgumentException("Parameter 'shardRouter' must not be null");
+    }
+    this.shardRouter = shardRouter;
+  }
+
+  /**
+   * Returns the index of the shard an execution runs on, or -1 if it has no shard key.
+   */
+  public int getShard(MappedStatement ms, Object parameterObject) {
+    Object shardKey = shardKeyExtractor.getShardKey(ms, parameterObject);
+    if (shardKey == null) {
+      return -1;
+    }
+    int shard = shardRouter.getShard(shardKey, shards.size());
+    if (shard < 0 || shard >= shards.size()) {
+      throw new ExecutorException("Shard key '" + shardKey + "' of statement '" + ms.getId() + "' was routed to shard " + shard
+          + " but there are " + shards.size() + " shards.");
+    }
+    return shard;
+  }
+
+  /**
+   * Opens a transaction on every shard with the transaction factory of its environment.
+   */
+  public ShardedTransaction newTransaction(TransactionIsolationLevel level, boolean autoCommit, boolean readOnly) {
+    List<Transaction> transactions = new ArrayList<>(shards.size());
+    for (Environment shard : shards) {
+      transactions.add(shard.getTransactionFactory().newTransaction(shard.getDataSource(), level, autoCommit, readOnly));
+    }
+    return new ShardedTransaction(transactions);
+  }
+
+}
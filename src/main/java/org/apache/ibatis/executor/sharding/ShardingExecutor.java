@@ -0,0 +1,465 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+/**
+ * Runs the statements of a session on the shards of the {@link Sharding} of the configuration, through one
+ * executor per shard.
+ * <p>
+ * A statement whose parameter object has a shard key runs on its shard only. A query without a shard key runs on
+ * all the shards in parallel, on the {@link Configuration#getAsyncExecutor() async executor}, and their results are
+ * merged: in the order of the top level <code>ORDER BY</code> clause when it sorts by columns of the result rows
+ * holding numbers, booleans or dates and times, and null values only with an explicit <code>NULLS FIRST</code> or
+ * <code>NULLS LAST</code>, else one shard after the other. The row bounds are applied to the merged rows, each shard
+ * only returning the first <code>offset + limit</code> rows. An ordered query with row bounds fails when its rows
+ * cannot be merged in order, as the rows of the bounds could not be told apart. Updates and deletes without a shard key run on all the shards and return
+ * the sum of the update counts, inserts and cursors without a shard key fail.
+ * <p>
+ * Nested queries and lazy loads run on the shard of the row that triggers them.
+ *
+ * @since 3.5.0
+ */
+public class ShardingExecutor implements Executor {
+
+  private static final Log log = LogFactory.getLog(ShardingExecutor.class);
+
+  private final Configuration configuration;
+  private final Sharding sharding;
+  private final ShardedTransaction transaction;
+  private final List<Executor> shards;
+  private boolean closed;
+
+  /**
+   * @param shards the executors of each shard, running on the transactions of the sharded transaction in the same
+   *          order
+   */
+  public ShardingExecutor(Configuration configuration, ShardedTransaction transaction, List<Executor> shards) {
+    if (configuration.getSharding() == null) {
+      throw new ExecutorException("The configuration has no sharding.");
+    }
+    if (shards.size() != configuration.getSharding().getShards().size()) {
+      throw new ExecutorException("Expected " + configuration.getSharding().getShards().size() + " shard executors but got "
+          + shards.size() + ".");
+    }
+    this.configuration = configuration;
+    this.sharding = configuration.getSharding();
+    this.transaction = transaction;
+    this.shards = shards;
+  }
+
+  @Override
+  public int update(MappedStatement ms, Object parameter) throws SQLException {
+    int shard = sharding.getShard(ms, parameter);
+    if (shard >= 0) {
+      return shards.get(shard).update(ms, parameter);
+    }
+    if (ms.getSqlCommandType() == SqlCommandType.INSERT) {
+      throw new ExecutorException("Insert statement '" + ms.getId() + "' has no shard key.");
+    }
+    ErrorContext.instance().statement(ms, ErrorContext.Activity.SHARDED_UPDATE);
+    int updateCount = 0;
+    for (Integer shardUpdateCount : onAllShards(executor -> executor.update(ms, parameter))) {
+      if (shardUpdateCount == BatchExecutor.BATCH_UPDATE_RETURN_VALUE) {
+        return BatchExecutor.BATCH_UPDATE_RETURN_VALUE;
+      }
+      updateCount += shardUpdateCount;
+    }
+    return updateCount;
+  }
+
+  @Override
+  public int insertAll(MappedStatement ms, List<?> parameters) throws SQLException {
+    Map<Integer, List<Object>> parametersByShard = new TreeMap<>();
+    for (Object parameter : parameters) {
+      int shard = sharding.getShard(ms, parameter);
+      if (shard < 0) {
+        throw new ExecutorException("A row inserted by statement '" + ms.getId() + "' has no shard key.");
+      }
+      parametersByShard.computeIfAbsent(shard, k -> new ArrayList<>()).add(parameter);
+    }
+    int insertCount = 0;
+    for (Map.Entry<Integer, List<Object>> entry : parametersByShard.entrySet()) {
+      insertCount += shards.get(entry.getKey()).insertAll(ms, entry.getValue());
+    }
+    return insertCount;
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    int shard = sharding.getShard(ms, parameter);
+    if (shard >= 0) {
+      return shards.get(shard).query(ms, parameter, rowBounds, resultHandler);
+    }
+    return queryAllShards(ms, parameter, rowBounds, resultHandler, ms.getBoundSql(parameter));
+  }
+
+  @Override
+  public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
+    int shard = sharding.getShard(ms, parameter);
+    if (shard >= 0) {
+      return shards.get(shard).query(ms, parameter, rowBounds, resultHandler, key, boundSql);
+    }
+    return queryAllShards(ms, parameter, rowBounds, resultHandler, boundSql);
+  }
+
+  @Override
+  public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    int shard = sharding.getShard(ms, parameter);
+    if (shard < 0) {
+      throw new ExecutorException("Cursor statement '" + ms.getId() + "' has no shard key. Cursors cannot be merged across shards.");
+    }
+    return shards.get(shard).queryCursor(ms, parameter, rowBounds);
+  }
+
+  @Override
+  public List<BatchResult> flushStatements() throws SQLException {
+    List<BatchResult> results = new ArrayList<>();
+    for (Executor shard : shards) {
+      results.addAll(shard.flushStatements());
+    }
+    return results;
+  }
+
+  @Override
+  public void commit(boolean required) throws SQLException {
+    SQLException failure = null;
+    for (Executor shard : shards) {
+      try {
+        shard.commit(required);
+      } catch (SQLException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void rollback(boolean required) throws SQLException {
+    SQLException failure = null;
+    for (Executor shard : shards) {
+      try {
+        shard.rollback(required);
+      } catch (SQLException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+    return shards.get(0).createCacheKey(ms, parameterObject, rowBounds, boundSql);
+  }
+
+  @Override
+  public boolean isCached(MappedStatement ms, CacheKey key) {
+    // deferred loads are registered on the shard executor that read the parent row
+    return false;
+  }
+
+  @Override
+  public void clearLocalCache() {
+    for (Executor shard : shards) {
+      shard.clearLocalCache();
+    }
+  }
+
+  @Override
+  public void deferLoad(MappedStatement ms, MetaObject resultObject, String property, CacheKey key, Class<?> targetType) {
+    throw new ExecutorException("Deferred loads run on the executor of a shard.");
+  }
+
+  @Override
+  public void putLocalCache(MappedStatement ms, CacheKey key, List<?> list) {
+    throw new ExecutorException("Local caches belong to the executors of the shards.");
+  }
+
+  @Override
+  public Transaction getTransaction() {
+    return transaction;
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    for (Executor shard : shards) {
+      shard.close(forceRollback);
+    }
+    closed = true;
+  }
+
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void setExecutorWrapper(Executor executor) {
+    // the shard executors stay their own wrappers so that nested queries run on the shard of their parent row
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E> List<E> queryAllShards(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+    if (ms.getResultMaps().size() > 1) {
+      throw new ExecutorException("Statement '" + ms.getId() + "' returns several result sets and has no shard key.");
+    }
+    ErrorContext.instance().statement(ms, ErrorContext.Activity.SHARDED_QUERY);
+    RowBounds shardRowBounds = shardRowBounds(rowBounds);
+    List<List<E>> results = onAllShards(executor -> executor.<E>query(ms, parameter, shardRowBounds, NO_RESULT_HANDLER,
+        executor.createCacheKey(ms, parameter, shardRowBounds, boundSql), boundSql));
+    List<E> rows = merge(ms, boundSql, results, rowBounds);
+    if (resultHandler == null) {
+      return rows;
+    }
+    DefaultResultContext<E> resultContext = new DefaultResultContext<>();
+    for (E row : rows) {
+      resultContext.nextResultObject(row);
+      ((ResultHandler<E>) resultHandler).handleResult(resultContext);
+      if (resultContext.isStopped()) {
+        break;
+      }
+    }
+    return new ArrayList<>();
+  }
+
+  /**
+   * Returns the row bounds of the query of each shard: the rows skipped by the offset could be on any shard.
+   */
+  private static RowBounds shardRowBounds(RowBounds rowBounds) {
+    if (rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT) {
+      return RowBounds.DEFAULT;
+    }
+    long rows = (long) rowBounds.getOffset() + rowBounds.getLimit();
+    return new RowBounds(RowBounds.NO_ROW_OFFSET, rows >= RowBounds.NO_ROW_LIMIT ? RowBounds.NO_ROW_LIMIT : (int) rows);
+  }
+
+  private <E> List<E> merge(MappedStatement ms, BoundSql boundSql, List<List<E>> results, RowBounds rowBounds) {
+    long offset = rowBounds.getOffset();
+    long end = rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT ? Long.MAX_VALUE : offset + rowBounds.getLimit();
+    List<E> rows = new ArrayList<>();
+    long position = 0;
+    OrderBy orderBy = OrderBy.parse(boundSql.getSql());
+    List<List<Object[]>> keys = null;
+    if (orderBy != null) {
+      keys = sortKeys(ms, orderBy, results);
+      if (keys == null) {
+        if (offset != RowBounds.NO_ROW_OFFSET || end != Long.MAX_VALUE) {
+          throw new ExecutorException("Cannot apply row bounds to the results of statement '" + ms.getId()
+              + "' on all shards because they cannot be merged in the order of the database. Only columns of the"
+              + " results holding numbers, booleans or dates and times, with NULLS FIRST or NULLS LAST when they"
+              + " can be null, can be merged.");
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("The results of statement '" + ms.getId() + "' cannot be merged in the order of the database, merging the shards in order.");
+        }
+      }
+    }
+    if (keys == null) {
+      for (List<E> result : results) {
+        for (E row : result) {
+          if (position >= end) {
+            return rows;
+          }
+          if (position++ >= offset) {
+            rows.add(row);
+          }
+        }
+      }
+      return rows;
+    }
+    PriorityQueue<ShardRows<E>> heads = new PriorityQueue<>(results.size(), (left, right) -> {
+      int order = orderBy.compare(left.key, right.key);
+      return order != 0 ? order : Integer.compare(left.shard, right.shard);
+    });
+    for (int i = 0; i < results.size(); i++) {
+      ShardRows<E> shardRows = new ShardRows<>(i, results.get(i), keys.get(i));
+      if (shardRows.next()) {
+        heads.add(shardRows);
+      }
+    }
+    while (!heads.isEmpty() && position < end) {
+      ShardRows<E> head = heads.poll();
+      if (position++ >= offset) {
+        rows.add(head.row);
+      }
+      if (head.next()) {
+        heads.add(head);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the sort keys of the rows of each shard, or <code>null</code> if the rows cannot be compared like the
+   * database sorted them.
+   */
+  private static List<List<Object[]>> sortKeys(MappedStatement ms, OrderBy orderBy, List<? extends List<?>> results) {
+    Object sampleRow = firstRow(results);
+    Function<Object, Object[]> sortKey = sampleRow == null ? null : orderBy.sortKey(ms, sampleRow);
+    if (sortKey == null) {
+      return null;
+    }
+    List<List<Object[]>> keys = new ArrayList<>(results.size());
+    for (List<?> result : results) {
+      List<Object[]> shardKeys = new ArrayList<>(result.size());
+      for (Object row : result) {
+        Object[] key = sortKey.apply(row);
+        if (!orderBy.isMergeable(key)) {
+          return null;
+        }
+        shardKeys.add(key);
+      }
+      keys.add(shardKeys);
+    }
+    return keys;
+  }
+
+  private static Object firstRow(List<? extends List<?>> results) {
+    for (List<?> result : results) {
+      for (Object row : result) {
+        if (row != null) {
+          return row;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Runs a call on every shard, all but the first one being submitted to the async executor. The calling thread
+   * then runs the calls no other thread has started yet, so a busy executor cannot block it, and waits for the
+   * others.
+   */
+  private <T> List<T> onAllShards(ShardCall<T> call) throws SQLException {
+    Thread caller = Thread.currentThread();
+    List<FutureTask<T>> tasks = new ArrayList<>(shards.size());
+    for (Executor shard : shards) {
+      tasks.add(new FutureTask<>(() -> {
+        try {
+          return call.call(shard);
+        } finally {
+          if (Thread.currentThread() != caller) {
+            ErrorContext.instance().reset();
+          }
+        }
+      }));
+    }
+    ExecutorService asyncExecutor = configuration.getAsyncExecutor();
+    for (int i = 1; i < tasks.size(); i++) {
+      try {
+        asyncExecutor.execute(tasks.get(i));
+      } catch (RejectedExecutionException e) {
+        // runs on the calling thread
+      }
+    }
+    List<T> results = new ArrayList<>(tasks.size());
+    Throwable failure = null;
+    for (FutureTask<T> task : tasks) {
+      task.run();
+      try {
+        results.add(task.get());
+      } catch (ExecutionException e) {
+        failure = addFailure(failure, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure instanceof SQLException) {
+      throw (SQLException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    } else if (failure != null) {
+      throw new ExecutorException("Interrupted while waiting for the shards. Cause: " + failure, failure);
+    }
+    return results;
+  }
+
+  private static <T extends Throwable> T addFailure(T failure, T e) {
+    if (failure == null) {
+      return e;
+    }
+    if (failure != e) {
+      failure.addSuppressed(e);
+    }
+    return failure;
+  }
+
+  private interface ShardCall<T> {
+    T call(Executor shard) throws SQLException;
+  }
+
+  private static final class ShardRows<E> {
+    private final int shard;
+    private final List<E> rows;
+    private final List<Object[]> keys;
+    private int index = -1;
+    private E row;
+    private Object[] key;
+
+    private ShardRows(int shard, List<E> rows, List<Object[]> keys) {
+      this.shard = shard;
+      this.rows = rows;
+      this.keys = keys;
+    }
+
+    private boolean next() {
+      if (++index >= rows.size()) {
+        return false;
+      }
+      row = rows.get(index);
+      key = keys.get(index);
+      return true;
+    }
+  }
+
+}
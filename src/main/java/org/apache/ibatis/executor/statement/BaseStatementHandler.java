@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -25,8 +25,12 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.logging.jdbc.AsyncJdbcLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.metrics.SlowStatementLog;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementPhase;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -43,6 +47,11 @@ public abstract class BaseStatementHandler implements StatementHandler {
   protected final TypeHandlerRegistry typeHandlerRegistry;
   protected final ResultSetHandler resultSetHandler;
   protected final ParameterHandler parameterHandler;
+  protected final StatementMetricsListener metricsListener;
+  // null unless a threshold or the sampling applies to the statement
+  protected final SlowStatementLog slowStatementLog;
+  // null unless the statement is logged asynchronously
+  protected final AsyncJdbcLogger jdbcLogger;
 
   protected final Executor executor;
   protected final MappedStatement mappedStatement;
@@ -50,6 +59,9 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   protected BoundSql boundSql;
 
+  private long executeNanos;
+  private long resultHandlingNanos;
+
   protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
     this.configuration = mappedStatement.getConfiguration();
     this.executor = executor;
@@ -58,6 +70,11 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
+    this.metricsListener = configuration.getStatementMetricsListener();
+    SlowStatementLog slowStatementLog = configuration.getSlowStatementLog();
+    this.slowStatementLog = slowStatementLog != null && slowStatementLog.isMonitored(mappedStatement) ? slowStatementLog : null;
+    this.jdbcLogger = configuration.isAsyncJdbcLogging() && mappedStatement.getStatementLog().isDebugEnabled()
+        ? configuration.getAsyncJdbcLogger() : null;
 
     if (boundSql == null) { // issue #435, get the key before calculating the statement
       generateKeys(parameterObject);
@@ -84,6 +101,7 @@ public abstract class BaseStatementHandler implements StatementHandler {
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
     ErrorContext.instance().sql(boundSql.getSql());
     Statement statement = null;
+    long start = startPhase();
     try {
       statement = instantiateStatement(connection);
       setStatementTimeout(statement, transactionTimeout);
@@ -95,6 +113,8 @@ public abstract class BaseStatementHandler implements StatementHandler {
     } catch (Exception e) {
       closeStatement(statement);
       throw new ExecutorException("Error preparing statement.  Cause: " + e, e);
+    } finally {
+      endPhase(StatementPhase.PREPARE, start);
     }
   }
 
@@ -125,6 +145,58 @@ public abstract class BaseStatementHandler implements StatementHandler {
     }
   }
 
+  /**
+   * Returns the start time of a phase, or 0 when neither a {@link StatementMetricsListener} nor the
+   * {@link SlowStatementLog} needs it.
+   */
+  protected long startPhase() {
+    return metricsListener == null && slowStatementLog == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * Reports the time elapsed since {@link #startPhase()} to the configured {@link StatementMetricsListener}, if any,
+   * and keeps the execution and result handling times for the {@link SlowStatementLog}.
+   */
+  protected void endPhase(StatementPhase phase, long start) {
+    if (metricsListener == null && slowStatementLog == null) {
+      return;
+    }
+    long elapsed = System.nanoTime() - start;
+    if (metricsListener != null) {
+      metricsListener.phaseCompleted(mappedStatement, phase, elapsed);
+    }
+    if (phase == StatementPhase.EXECUTE) {
+      executeNanos += elapsed;
+    } else if (phase == StatementPhase.RESULT_HANDLING) {
+      resultHandlingNanos += elapsed;
+    }
+  }
+
+  /**
+   * Passes a completed execution to the {@link SlowStatementLog} when the statement is monitored, and to the
+   * {@link AsyncJdbcLogger} when it is logged asynchronously.
+   *
+   * @param kind {@link AsyncJdbcLogger.Kind#QUERY} or {@link AsyncJdbcLogger.Kind#UPDATE}
+   * @param rows the rows returned by a query or updated by a statement
+   */
+  protected void statementCompleted(AsyncJdbcLogger.Kind kind, long rows) {
+    if (slowStatementLog != null) {
+      slowStatementLog.statementCompleted(mappedStatement, boundSql, executeNanos, resultHandlingNanos, rows);
+      executeNanos = 0;
+      resultHandlingNanos = 0;
+    }
+    logStatement(kind, rows);
+  }
+
+  /**
+   * Hands the execution to the {@link AsyncJdbcLogger} when the statement is logged asynchronously.
+   */
+  protected void logStatement(AsyncJdbcLogger.Kind kind, long rows) {
+    if (jdbcLogger != null) {
+      jdbcLogger.log(mappedStatement.getStatementLog(), mappedStatement, boundSql, kind, rows);
+    }
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
@@ -26,11 +26,13 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.logging.jdbc.AsyncJdbcLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
@@ -47,12 +49,13 @@ public class CallableStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
-    cs.execute();
+    execute(cs);
     int rows = cs.getUpdateCount();
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, cs, parameterObject);
     resultSetHandler.handleOutputParameters(cs);
+    statementCompleted(AsyncJdbcLogger.Kind.UPDATE, rows);
     return rows;
   }
 
@@ -60,26 +63,47 @@ public class CallableStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
     cs.addBatch();
+    logStatement(AsyncJdbcLogger.Kind.BATCH, 0);
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
-    cs.execute();
-    List<E> resultList = resultSetHandler.<E>handleResultSets(cs);
+    execute(cs);
+    List<E> resultList;
+    long start = startPhase();
+    try {
+      resultList = resultSetHandler.<E>handleResultSets(cs);
+    } finally {
+      endPhase(StatementPhase.RESULT_HANDLING, start);
+    }
     resultSetHandler.handleOutputParameters(cs);
+    statementCompleted(AsyncJdbcLogger.Kind.QUERY, resultList.size());
     return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     CallableStatement cs = (CallableStatement) statement;
-    cs.execute();
+    execute(cs);
+    logStatement(AsyncJdbcLogger.Kind.CURSOR, 0);
     Cursor<E> resultList = resultSetHandler.<E>handleCursorResultSets(cs);
     resultSetHandler.handleOutputParameters(cs);
     return resultList;
   }
 
+  private void execute(CallableStatement cs) throws SQLException {
+    long start = startPhase();
+    try {
+      cs.execute();
+    } catch (SQLException | RuntimeException e) {
+      logStatement(AsyncJdbcLogger.Kind.FAILED, 0);
+      throw e;
+    } finally {
+      endPhase(StatementPhase.EXECUTE, start);
+    }
+  }
+
   @Override
   protected Statement instantiateStatement(Connection connection) throws SQLException {
     String sql = boundSql.getSql();
@@ -92,8 +116,13 @@ public class CallableStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
-    registerOutputParameters((CallableStatement) statement);
-    parameterHandler.setParameters((CallableStatement) statement);
+    long start = startPhase();
+    try {
+      registerOutputParameters((CallableStatement) statement);
+      parameterHandler.setParameters((CallableStatement) statement);
+    } finally {
+      endPhase(StatementPhase.PARAMETERIZE, start);
+    }
   }
 
   private void registerOutputParameters(CallableStatement cs) throws SQLException {
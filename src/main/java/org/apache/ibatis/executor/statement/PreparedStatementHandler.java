@@ -26,9 +26,11 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.logging.jdbc.AsyncJdbcLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -44,11 +46,12 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
-    ps.execute();
+    execute(ps);
     int rows = ps.getUpdateCount();
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, ps, parameterObject);
+    statementCompleted(AsyncJdbcLogger.Kind.UPDATE, rows);
     return rows;
   }
 
@@ -56,22 +59,44 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
     ps.addBatch();
+    logStatement(AsyncJdbcLogger.Kind.BATCH, 0);
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
-    ps.execute();
-    return resultSetHandler.<E> handleResultSets(ps);
+    execute(ps);
+    List<E> resultList;
+    long start = startPhase();
+    try {
+      resultList = resultSetHandler.<E> handleResultSets(ps);
+    } finally {
+      endPhase(StatementPhase.RESULT_HANDLING, start);
+    }
+    statementCompleted(AsyncJdbcLogger.Kind.QUERY, resultList.size());
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
-    ps.execute();
+    execute(ps);
+    logStatement(AsyncJdbcLogger.Kind.CURSOR, 0);
     return resultSetHandler.<E> handleCursorResultSets(ps);
   }
 
+  private void execute(PreparedStatement ps) throws SQLException {
+    long start = startPhase();
+    try {
+      ps.execute();
+    } catch (SQLException | RuntimeException e) {
+      logStatement(AsyncJdbcLogger.Kind.FAILED, 0);
+      throw e;
+    } finally {
+      endPhase(StatementPhase.EXECUTE, start);
+    }
+  }
+
   @Override
   protected Statement instantiateStatement(Connection connection) throws SQLException {
     String sql = boundSql.getSql();
@@ -91,7 +116,12 @@ public class PreparedStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
-    parameterHandler.setParameters((PreparedStatement) statement);
+    long start = startPhase();
+    try {
+      parameterHandler.setParameters((PreparedStatement) statement);
+    } finally {
+      endPhase(StatementPhase.PARAMETERIZE, start);
+    }
   }
 
 }
@@ -26,9 +26,11 @@ import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.logging.jdbc.AsyncJdbcLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.metrics.StatementPhase;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
@@ -48,17 +50,26 @@ public class SimpleStatementHandler extends BaseStatementHandler {
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     int rows;
     if (keyGenerator instanceof Jdbc3KeyGenerator) {
-      statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
+      long start = startPhase();
+      try {
+        statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
+      } catch (SQLException | RuntimeException e) {
+        logStatement(AsyncJdbcLogger.Kind.FAILED, 0);
+        throw e;
+      } finally {
+        endPhase(StatementPhase.EXECUTE, start);
+      }
       rows = statement.getUpdateCount();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else if (keyGenerator instanceof SelectKeyGenerator) {
-      statement.execute(sql);
+      execute(statement, sql);
       rows = statement.getUpdateCount();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else {
-      statement.execute(sql);
+      execute(statement, sql);
       rows = statement.getUpdateCount();
     }
+    statementCompleted(AsyncJdbcLogger.Kind.UPDATE, rows);
     return rows;
   }
 
@@ -66,22 +77,44 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
     statement.addBatch(sql);
+    logStatement(AsyncJdbcLogger.Kind.BATCH, 0);
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
-    statement.execute(sql);
-    return resultSetHandler.<E>handleResultSets(statement);
+    execute(statement, sql);
+    List<E> resultList;
+    long start = startPhase();
+    try {
+      resultList = resultSetHandler.<E>handleResultSets(statement);
+    } finally {
+      endPhase(StatementPhase.RESULT_HANDLING, start);
+    }
+    statementCompleted(AsyncJdbcLogger.Kind.QUERY, resultList.size());
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
-    statement.execute(sql);
+    execute(statement, sql);
+    logStatement(AsyncJdbcLogger.Kind.CURSOR, 0);
     return resultSetHandler.<E>handleCursorResultSets(statement);
   }
 
+  private void execute(Statement statement, String sql) throws SQLException {
+    long start = startPhase();
+    try {
+      statement.execute(sql);
+    } catch (SQLException | RuntimeException e) {
+      logStatement(AsyncJdbcLogger.Kind.FAILED, 0);
+      throw e;
+    } finally {
+      endPhase(StatementPhase.EXECUTE, start);
+    }
+  }
+
   @Override
   protected Statement instantiateStatement(Connection connection) throws SQLException {
     if (mappedStatement.getResultSetType() == ResultSetType.DEFAULT) {
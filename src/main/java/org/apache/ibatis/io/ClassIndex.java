@@ -0,0 +1,231 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A build-time index of the types in the class path, read from every {@value #INDEX_RESOURCE} resource
+ * visible to a class loader. The index files are written by {@link ClassIndexProcessor}.
+ * <p>
+ * {@link ResolverUtil} lists a package from the index instead of scanning it through the {@link VFS} when the
+ * index contains at least one type in that package or its subpackages and every class path root (jar or directory)
+ * that contains the package has an index file. A package split between indexed and non indexed jars is scanned.
+ *
+ * @since 3.5.0
+ */
+public final class ClassIndex {
+
+  private static final Log log = LogFactory.getLog(ClassIndex.class);
+
+  /** The location of the index files in the class path. */
+  public static final String INDEX_RESOURCE = "META-INF/mybatis/class.index";
+
+  private static final ClassIndex EMPTY = new ClassIndex(null, Collections.<Entry>emptyList(), Collections.<String>emptySet());
+
+  private static final Map<ClassLoader, ClassIndex> INDEXES = new WeakHashMap<>();
+
+  /**
+   * The kind of an indexed type.
+   */
+  public enum Kind {
+    /** Any type. */
+    ANY,
+    /** Interfaces and annotation types, top level or nested. */
+    INTERFACE,
+    /** Top level classes and enums. */
+    CLASS,
+    /** Nested classes and enums. */
+    MEMBER_CLASS;
+
+    char code() {
+      return name().charAt(0);
+    }
+
+    static Kind of(char code) {
+      for (Kind kind : values()) {
+        if (kind != ANY && kind.code() == code) {
+          return kind;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final Reference<ClassLoader> classLoader;
+  private final List<Entry> entries;
+  private final Set<String> indexedRoots;
+
+  private ClassIndex(ClassLoader classLoader, List<Entry> entries, Set<String> indexedRoots) {
+    this.classLoader = new WeakReference<>(classLoader);
+    this.entries = entries;
+    this.indexedRoots = indexedRoots;
+  }
+
+  /**
+   * Returns the index merged from all the index files visible to the class loader, loading it on first use.
+   */
+  public static ClassIndex getInstance(ClassLoader classLoader) {
+    if (classLoader == null) {
+      classLoader = ClassIndex.class.getClassLoader();
+    }
+    synchronized (INDEXES) {
+      ClassIndex index = INDEXES.get(classLoader);
+      if (index == null) {
+        index = load(classLoader);
+        INDEXES.put(classLoader, index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Checks whether the index lists all the types of the package and its subpackages: it must contain a type of the
+   * package, and every class path root of the class loader that contains the package must have an index file.
+   */
+  public boolean isIndexed(String packageName) {
+    for (Entry entry : entries) {
+      if (entry.isIn(packageName)) {
+        return isIndexedInAllRoots(packageName);
+      }
+    }
+    return false;
+  }
+
+  private boolean isIndexedInAllRoots(String packageName) {
+    ClassLoader loader = classLoader.get();
+    if (loader == null) {
+      return false;
+    }
+    String path = packageName.replace('.', '/');
+    try {
+      Enumeration<URL> urls = loader.getResources(path);
+      while (urls.hasMoreElements()) {
+        String root = rootOf(urls.nextElement().toString(), path);
+        if (root == null || !indexedRoots.contains(root)) {
+          if (log.isDebugEnabled()) {
+            log.debug("Package " + packageName + " is not indexed in " + (root != null ? root : path) + ", scanning it.");
+          }
+          return false;
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      log.warn("Could not find the class path roots of package " + packageName + ", scanning it. Cause: " + e);
+      return false;
+    }
+  }
+
+  /**
+   * Returns the class path root of a resource, or <code>null</code> if its URL does not end with the resource path.
+   */
+  private static String rootOf(String url, String path) {
+    String location = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    return location.endsWith(path) ? location.substring(0, location.length() - path.length()) : null;
+  }
+
+  /**
+   * Returns the binary names of the indexed types of a kind in the package and its subpackages.
+   */
+  public List<String> getTypes(String packageName, Kind kind) {
+    List<String> types = new ArrayList<>();
+    for (Entry entry : entries) {
+      if ((kind == Kind.ANY || entry.kind == kind) && entry.isIn(packageName)) {
+        types.add(entry.name);
+      }
+    }
+    return types;
+  }
+
+  private static ClassIndex load(ClassLoader classLoader) {
+    List<Entry> entries = new ArrayList<>();
+    Set<String> indexedRoots = new HashSet<>();
+    try {
+      Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE);
+      while (urls.hasMoreElements()) {
+        URL url = urls.nextElement();
+        String root = rootOf(url.toString(), INDEX_RESOURCE);
+        if (root != null) {
+          indexedRoots.add(root);
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Reading class index " + url);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            Entry entry = Entry.parse(line.trim());
+            if (entry != null) {
+              entries.add(entry);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not read class index, packages will be scanned. Cause: " + e);
+      return EMPTY;
+    }
+    return entries.isEmpty() ? EMPTY : new ClassIndex(classLoader, entries, indexedRoots);
+  }
+
+  static String format(Kind kind, String binaryName) {
+    return kind.code() + " " + binaryName;
+  }
+
+  private static final class Entry {
+    private final Kind kind;
+    private final String name;
+    private final String packageName;
+
+    private Entry(Kind kind, String name) {
+      this.kind = kind;
+      this.name = name;
+      int lastPeriod = name.lastIndexOf('.');
+      this.packageName = lastPeriod < 0 ? "" : name.substring(0, lastPeriod);
+    }
+
+    private boolean isIn(String parent) {
+      return packageName.equals(parent)
+          || (packageName.startsWith(parent) && packageName.charAt(parent.length()) == '.');
+    }
+
+    private static Entry parse(String line) {
+      if (line.length() < 3 || line.charAt(0) == '#' || line.charAt(1) != ' ') {
+        return null;
+      }
+      Kind kind = Kind.of(line.charAt(0));
+      return kind == null ? null : new Entry(kind, line.substring(2).trim());
+    }
+  }
+
+}
@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that writes the {@link ClassIndex} of the compiled sources, so that
+ * <code>&lt;typeAliases&gt;&lt;package&gt;</code> and <code>&lt;mappers&gt;&lt;package&gt;</code>
+ * do not need to scan the class path at startup.
+ * <p>
+ * The processor is not registered as a service and has to be enabled explicitly, e.g. with
+ * <code>javac -processor org.apache.ibatis.io.ClassIndexProcessor</code>. The <code>mybatis.index.packages</code>
+ * option restricts the index to a comma separated list of packages (and their subpackages).
+ * When the compilation output already has an index, e.g. on an incremental build, its entries for types that still
+ * exist and were not compiled again are kept.
+ *
+ * @since 3.5.0
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(ClassIndexProcessor.PACKAGES_OPTION)
+public class ClassIndexProcessor extends AbstractProcessor {
+
+  public static final String PACKAGES_OPTION = "mybatis.index.packages";
+
+  private final Set<String> lines = new TreeSet<>();
+  private final Set<String> names = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    List<String> packages = getPackages();
+    for (Element element : roundEnv.getRootElements()) {
+      if (element instanceof TypeElement) {
+        addType((TypeElement) element, false, packages);
+      }
+    }
+    if (roundEnv.processingOver()) {
+      writeIndex();
+    }
+    return false;
+  }
+
+  private void addType(TypeElement type, boolean member, List<String> packages) {
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    if (isIncluded(binaryName, packages)) {
+      ClassIndex.Kind kind;
+      if (type.getKind().isInterface()) {
+        kind = ClassIndex.Kind.INTERFACE;
+      } else {
+        kind = member ? ClassIndex.Kind.MEMBER_CLASS : ClassIndex.Kind.CLASS;
+      }
+      lines.add(ClassIndex.format(kind, binaryName));
+      names.add(binaryName);
+    }
+    for (Element enclosed : type.getEnclosedElements()) {
+      if (enclosed instanceof TypeElement) {
+        addType((TypeElement) enclosed, true, packages);
+      }
+    }
+  }
+
+  private List<String> getPackages() {
+    String option = processingEnv.getOptions().get(PACKAGES_OPTION);
+    if (option == null || option.trim().isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<String> packages = new ArrayList<>();
+    for (String packageName : option.split(",")) {
+      if (!packageName.trim().isEmpty()) {
+        packages.add(packageName.trim());
+      }
+    }
+    return packages;
+  }
+
+  private boolean isIncluded(String binaryName, List<String> packages) {
+    if (packages.isEmpty()) {
+      return true;
+    }
+    for (String packageName : packages) {
+      if (binaryName.startsWith(packageName + ".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeIndex() {
+    readPreviousIndex();
+    if (lines.isEmpty()) {
+      return;
+    }
+    try {
+      FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.INDEX_RESOURCE);
+      try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+        for (String line : lines) {
+          writer.write(line);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + ClassIndex.INDEX_RESOURCE + ": " + e);
+    }
+  }
+
+  private void readPreviousIndex() {
+    List<String> packages = getPackages();
+    try {
+      FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.INDEX_RESOURCE);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          line = line.trim();
+          if (line.length() < 3 || line.charAt(0) == '#' || line.charAt(1) != ' ') {
+            continue;
+          }
+          String binaryName = line.substring(2).trim();
+          if (!names.contains(binaryName) && isIncluded(binaryName, packages)
+              && processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null) {
+            lines.add(line);
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // no previous index
+    }
+  }
+
+}
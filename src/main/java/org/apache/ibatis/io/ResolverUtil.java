@@ -214,6 +214,29 @@ public class ResolverUtil<T> {
    *        classes, e.g. {@code net.sourceforge.stripes}
    */
   public ResolverUtil<T> find(Test test, String packageName) {
+    return find(test, packageName, ClassIndex.Kind.ANY);
+  }
+
+  /**
+   * Same as {@link #find(Test, String)}, but when the {@link ClassIndex#isIndexed(String) package is indexed} in
+   * every class path root that contains it, only the indexed types of the given kind are offered to the Test and
+   * the class path is not scanned.
+   * When the package is scanned, every class is offered regardless of the kind.
+   *
+   * @param test an instance of {@link Test} that will be used to filter classes
+   * @param packageName the name of the package from which to start scanning for classes
+   * @param kind the kind of indexed types the Test can match
+   * @since 3.5.0
+   */
+  public ResolverUtil<T> find(Test test, String packageName, ClassIndex.Kind kind) {
+    ClassIndex index = ClassIndex.getInstance(getClassLoader());
+    if (packageName != null && index.isIndexed(packageName)) {
+      for (String type : index.getTypes(packageName, kind)) {
+        addIfMatching(test, type.replace('.', '/') + ".class");
+      }
+      return this;
+    }
+
     String path = getPackagePath(packageName);
 
     try {
@@ -0,0 +1,390 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ParameterValueResolver;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.ArrayUtil;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Logs the executed statements from a background thread instead of the logging proxies, when the
+ * <code>asyncJdbcLogging</code> setting is enabled and the log of a statement is debug-enabled.
+ * <p>
+ * The statement handlers copy the SQL, the raw parameter values and the row count of each execution into a
+ * preallocated slot of a ring buffer; the writer thread formats them with the same messages as the logging proxies.
+ * When the buffer is full, or more than <code>maxEventsPerSecond</code> statements are logged in a second, the
+ * executions are not logged and their number is reported as a warning. Parameter values longer than
+ * <code>maxValueLength</code> characters are truncated.
+ * <p>
+ * Statements are logged once they completed or failed, without their nesting level, and result rows are counted but not logged
+ * at the trace level.
+ * <p>
+ * The writer thread is started by the first logged execution and stops after a second without executions, so an
+ * idle logger holds no thread. It is not a daemon thread: the pending executions are written before the JVM exits.
+ *
+ * @since 3.5.0
+ */
+public class AsyncJdbcLogger {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+  public static final int DEFAULT_MAX_VALUE_LENGTH = 256;
+
+  private static final Log log = LogFactory.getLog(AsyncJdbcLogger.class);
+
+  private static final long KEEP_ALIVE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  /**
+   * The outcome of a logged execution.
+   */
+  public enum Kind {
+    /** A query, logged with the number of rows returned. */
+    QUERY("     Total: "),
+    /** An insert, update or delete, logged with the number of rows updated. */
+    UPDATE("   Updates: "),
+    /** A statement added to a batch. */
+    BATCH(null),
+    /** A query read through a cursor. */
+    CURSOR(null),
+    /** A statement whose execution failed, logged without a row count like the logging proxies do. */
+    FAILED(null);
+
+    private final String label;
+
+    Kind(String label) {
+      this.label = label;
+    }
+  }
+
+  private final Event[] events;
+  private final int mask;
+  private final int maxEventsPerSecond;
+  private final int maxValueLength;
+
+  private final AtomicLong producerSequence = new AtomicLong();
+  private volatile long consumerSequence;
+  private final AtomicLong rateWindow = new AtomicLong();
+  private final AtomicLong rateWindowEvents = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+
+  private final AtomicBoolean started = new AtomicBoolean();
+  private volatile Thread writer;
+  private volatile boolean waiting;
+  private volatile boolean closed;
+
+  // only used by the writer thread
+  private final StringBuilder buffer = new StringBuilder(256);
+
+  public AsyncJdbcLogger() {
+    this(DEFAULT_CAPACITY, 0, DEFAULT_MAX_VALUE_LENGTH);
+  }
+
+  /**
+   * @param capacity the number of slots of the ring buffer, rounded up to a power of two
+   * @param maxEventsPerSecond the maximum number of statements logged per second, 0 for no limit
+   * @param maxValueLength the maximum length of a logged parameter value, 0 for no limit
+   */
+  public AsyncJdbcLogger(int capacity, int maxEventsPerSecond, int maxValueLength) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity of an asynchronous JDBC logger must be positive but was " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.events = new Event[size];
+    for (int i = 0; i < size; i++) {
+      events[i] = new Event(i);
+    }
+    this.mask = size - 1;
+    this.maxEventsPerSecond = maxEventsPerSecond;
+    this.maxValueLength = maxValueLength;
+  }
+
+  public int getCapacity() {
+    return events.length;
+  }
+
+  /**
+   * Returns the number of executions that were not logged because the buffer was full or the rate was exceeded,
+   * since the last warning.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Hands an execution of a statement to the writer thread.
+   */
+  public void log(Log statementLog, MappedStatement ms, BoundSql boundSql, Kind kind, long rows) {
+    if (closed || !acquirePermit()) {
+      dropped.increment();
+      return;
+    }
+    long sequence;
+    Event event;
+    for (;;) {
+      sequence = producerSequence.get();
+      event = events[(int) (sequence & mask)];
+      long available = event.sequence;
+      if (available == sequence) {
+        if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+          break;
+        }
+      } else if (available < sequence) {
+        // the writer did not free the slot yet
+        dropped.increment();
+        return;
+      }
+    }
+    try {
+      event.log = statementLog;
+      event.sql = boundSql.getSql();
+      event.prepared = ms.getStatementType() != StatementType.STATEMENT;
+      event.kind = kind;
+      event.rows = rows;
+      if (event.prepared) {
+        copyParameters(event, ms.getConfiguration(), boundSql);
+      }
+    } finally {
+      event.sequence = sequence + 1;
+    }
+    startWriter();
+    if (waiting) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  /**
+   * Waits until the executions logged before the call are written.
+   */
+  public void flush() {
+    long target = producerSequence.get();
+    while (consumerSequence < target && writer != null && writer.isAlive()) {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+  }
+
+  /**
+   * Writes the pending executions and stops the writer thread. Executions logged afterwards are dropped.
+   */
+  public void close() {
+    closed = true;
+    Thread thread = writer;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private boolean acquirePermit() {
+    if (maxEventsPerSecond <= 0) {
+      return true;
+    }
+    long window = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    long current = rateWindow.get();
+    if (window != current && rateWindow.compareAndSet(current, window)) {
+      rateWindowEvents.set(0);
+    }
+    return rateWindowEvents.incrementAndGet() <= maxEventsPerSecond;
+  }
+
+  private void copyParameters(Event event, Configuration configuration, BoundSql boundSql) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    ParameterValueResolver parameterValueResolver
+        = new ParameterValueResolver(configuration, boundSql, boundSql.getParameterObject());
+    for (int i = 0, n = parameterMappings.size(); i < n; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      event.addParameter(parameterValueResolver.getValue(parameterMapping));
+    }
+  }
+
+  private void startWriter() {
+    if (!started.get() && started.compareAndSet(false, true)) {
+      Thread thread = new Thread(this::run, "mybatis-jdbc-logger");
+      writer = thread;
+      thread.start();
+    }
+  }
+
+  private void run() {
+    long sequence = consumerSequence;
+    for (;;) {
+      Event event = events[(int) (sequence & mask)];
+      if (event.sequence == sequence + 1) {
+        write(event);
+        event.clear();
+        event.sequence = sequence + events.length;
+        consumerSequence = ++sequence;
+        continue;
+      }
+      reportDropped();
+      if (closed && producerSequence.get() == sequence) {
+        return;
+      }
+      waiting = true;
+      if (event.sequence == sequence + 1 || closed) {
+        waiting = false;
+        continue;
+      }
+      // woken up by the next execution or by close()
+      long parked = System.nanoTime();
+      LockSupport.parkNanos(this, KEEP_ALIVE_NANOS);
+      waiting = false;
+      if (System.nanoTime() - parked >= KEEP_ALIVE_NANOS && event.sequence != sequence + 1 && !closed) {
+        reportDropped();
+        if (stopWriter(event, sequence)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private boolean stopWriter(Event event, long sequence) {
+    started.set(false);
+    if (event.sequence != sequence + 1) {
+      // the next execution will start a new writer
+      return true;
+    }
+    // an execution was logged before the flag was cleared, keep writing unless it already started a new writer
+    return !started.compareAndSet(false, true);
+  }
+
+  private void write(Event event) {
+    Log statementLog = event.log;
+    try {
+      if (event.prepared) {
+        statementLog.debug(message("==>  Preparing: ", event.sql));
+        buffer.setLength(0);
+        buffer.append("==> Parameters: ");
+        for (int i = 0; i < event.parameterCount; i++) {
+          if (i > 0) {
+            buffer.append(", ");
+          }
+          appendValue(event.parameters[i]);
+        }
+        statementLog.debug(buffer.toString());
+      } else {
+        statementLog.debug(message("==>  Executing: ", event.sql));
+      }
+      if (event.kind.label != null) {
+        buffer.setLength(0);
+        statementLog.debug(buffer.append("<== ").append(event.kind.label).append(event.rows).toString());
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not log a statement. Cause: " + e);
+    }
+  }
+
+  private String message(String prefix, String sql) {
+    buffer.setLength(0);
+    buffer.append(prefix);
+    StringTokenizer tokenizer = new StringTokenizer(sql);
+    while (tokenizer.hasMoreTokens()) {
+      buffer.append(tokenizer.nextToken()).append(' ');
+    }
+    return buffer.toString();
+  }
+
+  private void appendValue(Object value) {
+    if (value == null) {
+      buffer.append("null");
+      return;
+    }
+    String string;
+    if (value instanceof Array) {
+      try {
+        string = ArrayUtil.toString(((Array) value).getArray());
+      } catch (SQLException e) {
+        string = value.toString();
+      }
+    } else {
+      string = value.toString();
+    }
+    if (maxValueLength > 0 && string.length() > maxValueLength) {
+      buffer.append(string, 0, maxValueLength).append("...");
+    } else {
+      buffer.append(string);
+    }
+    buffer.append('(').append(value.getClass().getSimpleName()).append(')');
+  }
+
+  private void reportDropped() {
+    long count = dropped.sumThenReset();
+    if (count > 0) {
+      log.warn(count + " statements were not logged because the asynchronous JDBC log was full or rate limited.");
+    }
+  }
+
+  private static final class Event {
+    volatile long sequence;
+    Log log;
+    String sql;
+    boolean prepared;
+    Kind kind;
+    long rows;
+    Object[] parameters = new Object[16];
+    int parameterCount;
+
+    Event(long sequence) {
+      this.sequence = sequence;
+    }
+
+    void addParameter(Object value) {
+      if (parameterCount == parameters.length) {
+        Object[] grown = new Object[parameters.length * 2];
+        System.arraycopy(parameters, 0, grown, 0, parameterCount);
+        parameters = grown;
+      }
+      parameters[parameterCount++] = value;
+    }
+
+    void clear() {
+      log = null;
+      sql = null;
+      kind = null;
+      for (int i = 0; i < parameterCount; i++) {
+        parameters[i] = null;
+      }
+      parameterCount = 0;
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+/**
+ * The data source a statement runs on when the environment uses a
+ * {@link org.apache.ibatis.datasource.routing.RoutingDataSource}.
+ *
+ * @since 3.5.0
+ */
+public enum DataSourceRoute {
+  /** Selects run on a replica outside of write transactions, every other statement runs on the primary. */
+  DEFAULT,
+  /** Runs on the primary, e.g. a select that locks rows or must see the latest committed data. */
+  PRIMARY,
+  /** Runs on a replica even inside a write transaction. Only applies to selects. */
+  REPLICA
+}
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.mapping;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Map;
 
@@ -23,7 +24,9 @@ import org.apache.ibatis.session.Configuration;
 /**
  * @author Clinton Begin
  */
-public class Discriminator {
+public class Discriminator implements Serializable {
+
+  private static final long serialVersionUID = -1322066510495074446L;
 
   private ResultMapping resultMapping;
   private Map<String, String> discriminatorMap;
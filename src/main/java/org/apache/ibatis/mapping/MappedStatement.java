@@ -15,9 +15,14 @@
  */
 package org.apache.ibatis.mapping;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -25,13 +30,17 @@ import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.metrics.StatementMetricsListener;
+import org.apache.ibatis.metrics.StatementPhase;
 import org.apache.ibatis.scripting.LanguageDriver;
 import org.apache.ibatis.session.Configuration;
 
 /**
  * @author Clinton Begin
  */
-public final class MappedStatement {
+public final class MappedStatement implements Serializable {
+
+  private static final long serialVersionUID = 6947006889191588556L;
 
   private String resource;
   private Configuration configuration;
@@ -53,9 +62,12 @@ public final class MappedStatement {
   private String[] keyColumns;
   private boolean hasNestedResultMaps;
   private String databaseId;
-  private Log statementLog;
+  private transient Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private Integer slowStatementThreshold;
+  private Integer largeResultThreshold;
+  private DataSourceRoute route;
 
   MappedStatement() {
     // constructor disabled
@@ -70,15 +82,12 @@ public final class MappedStatement {
       mappedStatement.sqlSource = sqlSource;
       mappedStatement.statementType = StatementType.PREPARED;
       mappedStatement.resultSetType = ResultSetType.DEFAULT;
+      mappedStatement.route = DataSourceRoute.DEFAULT;
       mappedStatement.parameterMap = new ParameterMap.Builder(configuration, "defaultParameterMap", null, new ArrayList<>()).build();
       mappedStatement.resultMaps = new ArrayList<>();
       mappedStatement.sqlCommandType = sqlCommandType;
       mappedStatement.keyGenerator = configuration.isUseGeneratedKeys() && SqlCommandType.INSERT.equals(sqlCommandType) ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE;
-      String logId = id;
-      if (configuration.getLogPrefix() != null) {
-        logId = configuration.getLogPrefix() + id;
-      }
-      mappedStatement.statementLog = LogFactory.getLog(logId);
+      mappedStatement.statementLog = newStatementLog(configuration, id);
       mappedStatement.lang = configuration.getDefaultScriptingLanguageInstance();
     }
 
@@ -174,6 +183,30 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.5.0
+     */
+    public Builder slowStatementThreshold(Integer slowStatementThreshold) {
+      mappedStatement.slowStatementThreshold = slowStatementThreshold;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder largeResultThreshold(Integer largeResultThreshold) {
+      mappedStatement.largeResultThreshold = largeResultThreshold;
+      return this;
+    }
+
+    /**
+     * @since 3.5.0
+     */
+    public Builder route(DataSourceRoute route) {
+      mappedStatement.route = route == null ? DataSourceRoute.DEFAULT : route;
+      return this;
+    }
+
     /** @deprecated Use {@link #resultSets} */
     @Deprecated
     public Builder resulSets(String resultSet) {
@@ -283,6 +316,99 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Returns the time in milliseconds above which an execution is captured by the slow statement log, or
+   * <code>null</code> to use the global setting.
+   *
+   * @since 3.5.0
+   */
+  public Integer getSlowStatementThreshold() {
+    return slowStatementThreshold;
+  }
+
+  /**
+   * Returns the number of rows above which an execution is captured by the slow statement log, or
+   * <code>null</code> to use the global setting.
+   *
+   * @since 3.5.0
+   */
+  public Integer getLargeResultThreshold() {
+    return largeResultThreshold;
+  }
+
+  /**
+   * Returns the data source this statement runs on when the environment uses a routing data source.
+   *
+   * @since 3.5.0
+   */
+  public DataSourceRoute getRoute() {
+    return route;
+  }
+
+  /**
+   * Returns whether the rows of this statement can be passed to a result handler as they are read without
+   * changing the outcome compared to fetching a list: a single result map without nested result mappings or
+   * nested selects (also in its discriminator cases), no result sets or out parameters and no second level
+   * cache that would store the list. Nested selects are excluded because a deferred load of a circular
+   * reference reads the list of the query from the local cache, which is not filled for a result handler.
+   *
+   * @since 3.5.0
+   */
+  public boolean isResultStreamable() {
+    return resultMaps.size() == 1
+        && !hasNestedResultMaps
+        && !hasNestedMappings(resultMaps.get(0), true, new HashSet<>())
+        && resultSets == null
+        && statementType != StatementType.CALLABLE
+        && (cache == null || !useCache);
+  }
+
+  /**
+   * Returns whether a result map of this statement, one of its nested result maps or one of their discriminator
+   * cases has nested selects, so that mapping its rows may run further queries.
+   *
+   * @since 3.5.0
+   */
+  public boolean hasNestedQueries() {
+    Set<String> visited = new HashSet<>();
+    for (ResultMap resultMap : resultMaps) {
+      if (hasNestedMappings(resultMap, false, visited)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean hasNestedMappings(ResultMap resultMap, boolean nestedResultMaps, Set<String> visited) {
+    if (!visited.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries() || (nestedResultMaps && resultMap.hasNestedResultMaps())) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      if (resultMapping.getNestedResultMapId() != null
+          && hasNestedMappings(resultMapping.getNestedResultMapId(), nestedResultMaps, visited)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (hasNestedMappings(caseResultMapId, nestedResultMaps, visited)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean hasNestedMappings(String resultMapId, boolean nestedResultMaps, Set<String> visited) {
+    // a result map that is not known yet could have any mapping
+    return !configuration.hasResultMap(resultMapId)
+        || hasNestedMappings(configuration.getResultMap(resultMapId), nestedResultMaps, visited);
+  }
+
   /** @deprecated Use {@link #getResultSets()} */
   @Deprecated
   public String[] getResulSets() {
@@ -290,6 +416,19 @@ public final class MappedStatement {
   }
   
   public BoundSql getBoundSql(Object parameterObject) {
+    StatementMetricsListener metricsListener = configuration.getStatementMetricsListener();
+    if (metricsListener == null) {
+      return buildBoundSql(parameterObject);
+    }
+    long start = System.nanoTime();
+    try {
+      return buildBoundSql(parameterObject);
+    } finally {
+      metricsListener.phaseCompleted(this, StatementPhase.BOUND_SQL, System.nanoTime() - start);
+    }
+  }
+
+  private BoundSql buildBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings == null || parameterMappings.isEmpty()) {
@@ -310,6 +449,19 @@ public final class MappedStatement {
     return boundSql;
   }
 
+  private static Log newStatementLog(Configuration configuration, String id) {
+    String logId = id;
+    if (configuration.getLogPrefix() != null) {
+      logId = configuration.getLogPrefix() + id;
+    }
+    return LogFactory.getLog(logId);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    statementLog = newStatementLog(configuration, id);
+  }
+
   private static String[] delimitedStringToArray(String in) {
     if (in == null || in.trim().length() == 0) {
       return null;
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Resolves the values bound to the parameter mappings of a {@link BoundSql}: an additional parameter of the mapped
+ * property if there is one, otherwise the parameter object itself when a type handler handles it, or else its
+ * property. The meta object of the parameter object is created once, when a property is first read.
+ *
+ * @since 3.5.0
+ */
+public final class ParameterValueResolver {
+
+  private final Configuration configuration;
+  private final TypeHandlerRegistry typeHandlerRegistry;
+  private final BoundSql boundSql;
+  private final Object parameterObject;
+  private MetaObject metaObject;
+
+  public ParameterValueResolver(Configuration configuration, BoundSql boundSql, Object parameterObject) {
+    this.configuration = configuration;
+    this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    this.boundSql = boundSql;
+    this.parameterObject = parameterObject;
+  }
+
+  public Object getValue(ParameterMapping parameterMapping) {
+    String propertyName = parameterMapping.getProperty();
+    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+      return boundSql.getAdditionalParameter(propertyName);
+    } else if (parameterObject == null) {
+      return null;
+    } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+      return parameterObject;
+    }
+    if (metaObject == null) {
+      metaObject = configuration.newMetaObject(parameterObject);
+    }
+    return metaObject.getValue(propertyName);
+  }
+
+}
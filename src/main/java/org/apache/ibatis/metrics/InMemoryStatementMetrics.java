@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * A {@link StatementMetricsListener} that aggregates the metrics of each mapped statement in memory, to be queried
+ * with {@link #getMetrics(String)} or dumped with {@link #dump(Appendable)}.
+ *
+ * @since 3.5.0
+ */
+public class InMemoryStatementMetrics implements StatementMetricsListener {
+
+  private final ConcurrentMap<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+
+  @Override
+  public void phaseCompleted(MappedStatement ms, StatementPhase phase, long elapsedNanos) {
+    metricsOf(ms).phaseCompleted(phase, elapsedNanos);
+  }
+
+  @Override
+  public void rowsHandled(MappedStatement ms, long rowsFetched, long rowsMapped) {
+    metricsOf(ms).rowsHandled(rowsFetched, rowsMapped);
+  }
+
+  @Override
+  public void localCacheAccessed(MappedStatement ms, boolean hit) {
+    metricsOf(ms).localCacheAccessed(hit);
+  }
+
+  @Override
+  public void cacheAccessed(MappedStatement ms, boolean hit) {
+    metricsOf(ms).cacheAccessed(hit);
+  }
+
+  @Override
+  public void lobRead(MappedStatement ms, long length) {
+    metricsOf(ms).lobRead(length);
+  }
+
+  /**
+   * Returns the metrics of a statement, or <code>null</code> if it was not executed yet.
+   */
+  public StatementMetrics getMetrics(String statementId) {
+    return metrics.get(statementId);
+  }
+
+  /**
+   * Returns the ids of the executed statements, sorted.
+   */
+  public List<String> getStatementIds() {
+    List<String> ids = new ArrayList<>(metrics.keySet());
+    Collections.sort(ids);
+    return ids;
+  }
+
+  /**
+   * Writes the metrics of all the executed statements, one block per statement.
+   */
+  public void dump(Appendable out) throws IOException {
+    for (String id : getStatementIds()) {
+      out.append(metrics.get(id).toString()).append('\n');
+    }
+  }
+
+  /**
+   * Resets the metrics of all statements to zero.
+   */
+  public void reset() {
+    for (StatementMetrics statementMetrics : metrics.values()) {
+      statementMetrics.reset();
+    }
+  }
+
+  private StatementMetrics metricsOf(MappedStatement ms) {
+    StatementMetrics statementMetrics = metrics.get(ms.getId());
+    if (statementMetrics == null) {
+      statementMetrics = metrics.computeIfAbsent(ms.getId(), StatementMetrics::new);
+    }
+    return statementMetrics;
+  }
+
+}
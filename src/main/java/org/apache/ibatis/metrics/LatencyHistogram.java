@@ -0,0 +1,101 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies with power of two microsecond buckets: the first bucket counts latencies
+ * below 1 microsecond, bucket <i>n</i> latencies below 2<sup>n</sup> microseconds and the last one all the others.
+ * Percentiles are therefore reported as the upper bound of their bucket.
+ *
+ * @since 3.5.0
+ */
+public final class LatencyHistogram {
+
+  static final int BUCKETS = 32;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  public void record(long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+    int bucket = micros == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+    buckets.incrementAndGet(bucket);
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  public long getMeanNanos() {
+    long n = getCount();
+    return n == 0 ? 0 : getTotalNanos() / n;
+  }
+
+  /**
+   * Returns the upper bound, in nanoseconds, of the bucket that contains the percentile, or the maximum latency
+   * for the last bucket.
+   *
+   * @param percentile between 0 and 100
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS - 1; i++) {
+      seen += snapshot[i];
+      if (seen >= rank && seen > 0) {
+        return TimeUnit.MICROSECONDS.toNanos(1L << i);
+      }
+    }
+    return getMaxNanos();
+  }
+
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    totalNanos.reset();
+    maxNanos.reset();
+  }
+
+}
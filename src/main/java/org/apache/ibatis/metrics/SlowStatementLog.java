@@ -0,0 +1,193 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ParameterValueResolver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Captures the executions that exceed the <code>slowStatementThreshold</code> or the <code>largeResultThreshold</code>
+ * of their statement, or that are picked by the <code>statementSampleInterval</code>, in a bounded ring buffer.
+ * The oldest records are overwritten once the buffer is full.
+ * <p>
+ * The thresholds of a mapped statement override the global settings, and a threshold of 0 disables the check.
+ * Monitored executions only read the clock; the SQL and the parameter values are only collected for the captured
+ * ones. Batched statements and cursors are not monitored, and the rows of a query that uses a result handler are
+ * not counted.
+ *
+ * @since 3.5.0
+ */
+public class SlowStatementLog {
+
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private final Lock lock = new ReentrantLock();
+  private final SlowStatementRecord[] records;
+  private int next;
+  private int size;
+
+  public SlowStatementLog() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public SlowStatementLog(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity of a slow statement log must be positive but was " + capacity);
+    }
+    this.records = new SlowStatementRecord[capacity];
+  }
+
+  public int getCapacity() {
+    return records.length;
+  }
+
+  /**
+   * Checks whether a threshold or the sampling applies to the statement.
+   */
+  public boolean isMonitored(MappedStatement ms) {
+    Configuration configuration = ms.getConfiguration();
+    return getSlowStatementThreshold(ms) > 0 || getLargeResultThreshold(ms) > 0
+        || valueOf(configuration.getStatementSampleInterval()) > 0;
+  }
+
+  /**
+   * Called when a monitored execution completes, captures it if it is slow, large or sampled.
+   */
+  public void statementCompleted(MappedStatement ms, BoundSql boundSql, long executeNanos, long resultHandlingNanos, long rows) {
+    SlowStatementRecord.Reason reason = getReason(ms, executeNanos + resultHandlingNanos, rows);
+    if (reason != null) {
+      add(new SlowStatementRecord(ms.getId(), reason, System.currentTimeMillis(), boundSql.getSql(),
+          getParameters(ms, boundSql), executeNanos, resultHandlingNanos, rows));
+    }
+  }
+
+  /**
+   * Returns the captured records, oldest first, and empties the log.
+   */
+  public List<SlowStatementRecord> drain() {
+    lock.lock();
+    try {
+      List<SlowStatementRecord> list = snapshot();
+      for (int i = 0; i < records.length; i++) {
+        records[i] = null;
+      }
+      next = 0;
+      size = 0;
+      return list;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the captured records, oldest first, leaving them in the log.
+   */
+  public List<SlowStatementRecord> getRecords() {
+    lock.lock();
+    try {
+      return snapshot();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the captured records, oldest first, leaving them in the log.
+   */
+  public void dump(Appendable out) throws IOException {
+    for (SlowStatementRecord record : getRecords()) {
+      out.append(record.toString()).append('\n');
+    }
+  }
+
+  private SlowStatementRecord.Reason getReason(MappedStatement ms, long elapsedNanos, long rows) {
+    long slowThreshold = getSlowStatementThreshold(ms);
+    if (slowThreshold > 0 && elapsedNanos >= slowThreshold * 1000000L) {
+      return SlowStatementRecord.Reason.SLOW;
+    }
+    long largeResultThreshold = getLargeResultThreshold(ms);
+    if (largeResultThreshold > 0 && rows > largeResultThreshold) {
+      return SlowStatementRecord.Reason.LARGE_RESULT;
+    }
+    int sampleInterval = valueOf(ms.getConfiguration().getStatementSampleInterval());
+    if (sampleInterval > 0 && ThreadLocalRandom.current().nextInt(sampleInterval) == 0) {
+      return SlowStatementRecord.Reason.SAMPLED;
+    }
+    return null;
+  }
+
+  private int getSlowStatementThreshold(MappedStatement ms) {
+    Integer threshold = ms.getSlowStatementThreshold();
+    return valueOf(threshold != null ? threshold : ms.getConfiguration().getSlowStatementThreshold());
+  }
+
+  private int getLargeResultThreshold(MappedStatement ms) {
+    Integer threshold = ms.getLargeResultThreshold();
+    return valueOf(threshold != null ? threshold : ms.getConfiguration().getLargeResultThreshold());
+  }
+
+  private int valueOf(Integer value) {
+    return value == null ? 0 : value;
+  }
+
+  private List<String> getParameters(MappedStatement ms, BoundSql boundSql) {
+    ParameterValueResolver parameterValueResolver
+        = new ParameterValueResolver(ms.getConfiguration(), boundSql, boundSql.getParameterObject());
+    List<String> parameters = new ArrayList<>();
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      Object value = parameterValueResolver.getValue(parameterMapping);
+      parameters.add(value == null ? "null" : value + "(" + value.getClass().getSimpleName() + ")");
+    }
+    return parameters;
+  }
+
+  private void add(SlowStatementRecord record) {
+    lock.lock();
+    try {
+      records[next] = record;
+      next = (next + 1) % records.length;
+      if (size < records.length) {
+        size++;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<SlowStatementRecord> snapshot() {
+    List<SlowStatementRecord> list = new ArrayList<>(size);
+    int first = (next - size + records.length) % records.length;
+    for (int i = 0; i < size; i++) {
+      list.add(records[(first + i) % records.length]);
+    }
+    return list;
+  }
+
+}
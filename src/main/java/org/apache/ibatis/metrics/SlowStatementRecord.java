@@ -0,0 +1,117 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An execution captured by the {@link SlowStatementLog}, with its SQL, bound parameters, timings and row count.
+ *
+ * @since 3.5.0
+ */
+public final class SlowStatementRecord {
+
+  /**
+   * Why an execution was captured. When several apply, the first one in declaration order is reported.
+   */
+  public enum Reason {
+    /** The execution and result handling took longer than the slow statement threshold. */
+    SLOW,
+    /** The statement returned or updated more rows than the large result threshold. */
+    LARGE_RESULT,
+    /** The execution was picked by the sampling. */
+    SAMPLED
+  }
+
+  private final String statementId;
+  private final Reason reason;
+  private final long timestamp;
+  private final String sql;
+  private final List<String> parameters;
+  private final long executeNanos;
+  private final long resultHandlingNanos;
+  private final long rows;
+
+  SlowStatementRecord(String statementId, Reason reason, long timestamp, String sql, List<String> parameters,
+      long executeNanos, long resultHandlingNanos, long rows) {
+    this.statementId = statementId;
+    this.reason = reason;
+    this.timestamp = timestamp;
+    this.sql = sql;
+    this.parameters = Collections.unmodifiableList(parameters);
+    this.executeNanos = executeNanos;
+    this.resultHandlingNanos = resultHandlingNanos;
+    this.rows = rows;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  /**
+   * Returns the time the execution completed, in milliseconds since the epoch.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * Returns the bound parameter values in the order of their placeholders, formatted as <code>value(Type)</code>.
+   */
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+  public long getExecuteNanos() {
+    return executeNanos;
+  }
+
+  public long getResultHandlingNanos() {
+    return resultHandlingNanos;
+  }
+
+  public long getElapsedNanos() {
+    return executeNanos + resultHandlingNanos;
+  }
+
+  /**
+   * Returns the number of rows returned by a query, or updated by an insert, update or delete.
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  @Override
+  public String toString() {
+    return statementId + " [" + reason + "] elapsed=" + TimeUnit.NANOSECONDS.toMillis(getElapsedNanos())
+        + "ms (execute=" + TimeUnit.NANOSECONDS.toMillis(executeNanos)
+        + "ms, results=" + TimeUnit.NANOSECONDS.toMillis(resultHandlingNanos)
+        + "ms), rows=" + rows
+        + "\n  SQL: " + sql
+        + "\n  Parameters: " + String.join(", ", parameters);
+  }
+
+}
@@ -0,0 +1,145 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics aggregated by {@link InMemoryStatementMetrics} for one mapped statement.
+ *
+ * @since 3.5.0
+ */
+public final class StatementMetrics {
+
+  private final String statementId;
+  private final Map<StatementPhase, LatencyHistogram> phases = new EnumMap<>(StatementPhase.class);
+  private final LongAdder rowsFetched = new LongAdder();
+  private final LongAdder rowsMapped = new LongAdder();
+  private final LongAdder localCacheHits = new LongAdder();
+  private final LongAdder localCacheMisses = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder lobLength = new LongAdder();
+
+  StatementMetrics(String statementId) {
+    this.statementId = statementId;
+    for (StatementPhase phase : StatementPhase.values()) {
+      phases.put(phase, new LatencyHistogram());
+    }
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public LatencyHistogram getLatency(StatementPhase phase) {
+    return phases.get(phase);
+  }
+
+  public long getRowsFetched() {
+    return rowsFetched.sum();
+  }
+
+  public long getRowsMapped() {
+    return rowsMapped.sum();
+  }
+
+  public long getLocalCacheHits() {
+    return localCacheHits.sum();
+  }
+
+  public long getLocalCacheMisses() {
+    return localCacheMisses.sum();
+  }
+
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  /**
+   * Returns the total length of the LOB columns read, in bytes for BLOBs and characters for CLOBs.
+   */
+  public long getLobLength() {
+    return lobLength.sum();
+  }
+
+  void phaseCompleted(StatementPhase phase, long elapsedNanos) {
+    phases.get(phase).record(elapsedNanos);
+  }
+
+  void rowsHandled(long fetched, long mapped) {
+    rowsFetched.add(fetched);
+    rowsMapped.add(mapped);
+  }
+
+  void localCacheAccessed(boolean hit) {
+    (hit ? localCacheHits : localCacheMisses).increment();
+  }
+
+  void cacheAccessed(boolean hit) {
+    (hit ? cacheHits : cacheMisses).increment();
+  }
+
+  void lobRead(long length) {
+    lobLength.add(length);
+  }
+
+  void reset() {
+    for (LatencyHistogram histogram : phases.values()) {
+      histogram.reset();
+    }
+    rowsFetched.reset();
+    rowsMapped.reset();
+    localCacheHits.reset();
+    localCacheMisses.reset();
+    cacheHits.reset();
+    cacheMisses.reset();
+    lobLength.reset();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(statementId);
+    for (Map.Entry<StatementPhase, LatencyHistogram> entry : phases.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+      if (histogram.getCount() > 0) {
+        sb.append("\n  ").append(entry.getKey())
+            .append(": count=").append(histogram.getCount())
+            .append(", mean=").append(micros(histogram.getMeanNanos()))
+            .append("us, p50<=").append(micros(histogram.getPercentileNanos(50)))
+            .append("us, p99<=").append(micros(histogram.getPercentileNanos(99)))
+            .append("us, max=").append(micros(histogram.getMaxNanos())).append("us");
+      }
+    }
+    sb.append("\n  rows: fetched=").append(getRowsFetched()).append(", mapped=").append(getRowsMapped());
+    sb.append("\n  local cache: hits=").append(getLocalCacheHits()).append(", misses=").append(getLocalCacheMisses());
+    sb.append("\n  cache: hits=").append(getCacheHits()).append(", misses=").append(getCacheMisses());
+    sb.append("\n  lob length=").append(getLobLength());
+    return sb.toString();
+  }
+
+  private static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+}
@@ -0,0 +1,63 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Receives the metrics of every statement execution, see
+ * {@link org.apache.ibatis.session.Configuration#setStatementMetricsListener(StatementMetricsListener)}.
+ * <p>
+ * The methods are called on the thread executing the statement, so they must be fast and thread safe.
+ * When no listener is registered, the statements are not timed at all.
+ *
+ * @since 3.5.0
+ * @see InMemoryStatementMetrics
+ */
+public interface StatementMetricsListener {
+
+  /**
+   * Called when a phase of the execution of a statement completed, successfully or not.
+   */
+  default void phaseCompleted(MappedStatement ms, StatementPhase phase, long elapsedNanos) {
+  }
+
+  /**
+   * Called when the result sets of a query were handled, with the number of rows read from them and the number
+   * of result objects they produced (less than the rows when nested result maps group them).
+   */
+  default void rowsHandled(MappedStatement ms, long rowsFetched, long rowsMapped) {
+  }
+
+  /**
+   * Called when a query looked up the local (session) cache.
+   */
+  default void localCacheAccessed(MappedStatement ms, boolean hit) {
+  }
+
+  /**
+   * Called when a query looked up the second level cache of its namespace.
+   */
+  default void cacheAccessed(MappedStatement ms, boolean hit) {
+  }
+
+  /**
+   * Called when a BLOB or CLOB column was read into a result property, with its length in bytes or characters.
+   */
+  default void lobRead(MappedStatement ms, long length) {
+  }
+
+}
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+/**
+ * The timed phases of a statement execution.
+ *
+ * @since 3.5.0
+ */
+public enum StatementPhase {
+  /** Building the SQL and its parameter mappings from the parameter object. */
+  BOUND_SQL,
+  /** Creating the JDBC statement and setting its timeout and fetch size. */
+  PREPARE,
+  /** Setting the parameters of the JDBC statement. */
+  PARAMETERIZE,
+  /** Executing the JDBC statement. */
+  EXECUTE,
+  /**
+   * Fetching the rows and mapping them to result objects. JDBC drivers fetch the rows while the result set is
+   * iterated, so fetching and mapping are a single phase.
+   */
+  RESULT_HANDLING
+}
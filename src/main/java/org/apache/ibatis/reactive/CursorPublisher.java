@@ -0,0 +1,210 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * A {@link Publisher} of the items of a {@link Cursor}.
+ * <p>
+ * Nothing is executed until the subscriber requests items. The cursor is then opened and read on the executor,
+ * at most <code>chunkSize</code> items per task, so that a large demand does not hold an executor thread for the
+ * whole result set. Rows are only fetched while there is demand, and cancelling the subscription closes the cursor
+ * and its statement. A cursor can only be read once, so the publisher accepts a single subscriber.
+ *
+ * @param <T> the type of the published items
+ * @since 3.5.0
+ */
+public class CursorPublisher<T> implements Publisher<T> {
+
+  public static final int DEFAULT_CHUNK_SIZE = 256;
+
+  private final Supplier<Cursor<T>> cursorSupplier;
+  private final Executor executor;
+  private final int chunkSize;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public CursorPublisher(Supplier<Cursor<T>> cursorSupplier, Executor executor, int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("The chunk size must be positive, was " + chunkSize);
+    }
+    this.cursorSupplier = cursorSupplier;
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(EmptySubscription.INSTANCE);
+      subscriber.onError(new IllegalStateException("A cursor publisher can only be subscribed once."));
+      return;
+    }
+    CursorSubscription subscription = new CursorSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private enum EmptySubscription implements Subscription {
+    INSTANCE;
+
+    @Override
+    public void request(long n) {
+      // nothing to publish
+    }
+
+    @Override
+    public void cancel() {
+      // nothing to release
+    }
+  }
+
+  private class CursorSubscription implements Subscription {
+
+    private final Subscriber<? super T> subscriber;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+
+    // only accessed by the task holding wip
+    private Cursor<T> cursor;
+    private Iterator<T> iterator;
+    private boolean done;
+
+    CursorSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("Non positive request: " + n);
+      } else {
+        long current;
+        long next;
+        do {
+          current = requested.get();
+          next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        submit();
+      }
+    }
+
+    private void submit() {
+      try {
+        executor.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        // no task can run, so the signal is sent from the calling thread that holds wip
+        done = true;
+        closeCursor();
+        subscriber.onError(e);
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      while (true) {
+        if (done) {
+          return;
+        }
+        if (cancelled) {
+          done = true;
+          closeCursor();
+          return;
+        }
+        if (invalidRequest != null) {
+          fail(invalidRequest);
+          return;
+        }
+        long demand = requested.get();
+        long emitted = 0;
+        try {
+          if (iterator == null) {
+            cursor = cursorSupplier.get();
+            iterator = cursor.iterator();
+          }
+          while (emitted < demand && emitted < chunkSize && !cancelled && iterator.hasNext()) {
+            subscriber.onNext(iterator.next());
+            emitted++;
+          }
+          if (!cancelled && !iterator.hasNext()) {
+            done = true;
+            closeCursor();
+            subscriber.onComplete();
+            return;
+          }
+        } catch (RuntimeException e) {
+          fail(e);
+          return;
+        }
+        if (emitted > 0 && demand != Long.MAX_VALUE) {
+          demand = requested.addAndGet(-emitted);
+        }
+        if (emitted == chunkSize && demand > 0 && !cancelled) {
+          // there is more to publish, give the executor thread back and continue in a new task
+          submit();
+          return;
+        }
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+
+    private void fail(Throwable throwable) {
+      done = true;
+      closeCursor();
+      subscriber.onError(throwable);
+    }
+
+    private void closeCursor() {
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (IOException e) {
+          // ignore
+        }
+        cursor = null;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+/**
+ * A provider of a potentially unbounded number of items, published to its subscribers according to their demand.
+ * <p>
+ * The contract is the one of <code>java.util.concurrent.Flow.Publisher</code> and
+ * <code>org.reactivestreams.Publisher</code>, which cannot be used while MyBatis runs on Java 8 without
+ * additional dependencies. Bridging to either of them only requires delegating the three interfaces of this package.
+ *
+ * @param <T> the type of the published items
+ * @since 3.5.0
+ */
+@FunctionalInterface
+public interface Publisher<T> {
+
+  /**
+   * Requests the publisher to start streaming items to the subscriber, which is always called back with
+   * {@link Subscriber#onSubscribe(Subscription)} first.
+   */
+  void subscribe(Subscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+/**
+ * A receiver of the items of a {@link Publisher}. No other method is called before
+ * {@link #onSubscribe(Subscription)}, and {@link #onNext(Object)} is called at most as many times as requested.
+ * Calls are never concurrent, but they may come from different threads.
+ *
+ * @param <T> the type of the received items
+ * @since 3.5.0
+ */
+public interface Subscriber<T> {
+
+  void onSubscribe(Subscription subscription);
+
+  void onNext(T item);
+
+  /**
+   * Called once when the publisher fails; no other method is called afterwards.
+   */
+  void onError(Throwable throwable);
+
+  /**
+   * Called once when all the items have been published; no other method is called afterwards.
+   */
+  void onComplete();
+
+}
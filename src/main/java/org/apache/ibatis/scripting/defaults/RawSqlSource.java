@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.defaults;
 
+import java.io.Serializable;
 import java.util.HashMap;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
@@ -32,7 +33,9 @@ import org.apache.ibatis.session.Configuration;
  * @since 3.2.0
  * @author Eduardo Macarron
  */
-public class RawSqlSource implements SqlSource {
+public class RawSqlSource implements SqlSource, Serializable {
+
+  private static final long serialVersionUID = 7868513584714357612L;
 
   private final SqlSource sqlSource;
 
@@ -15,12 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * @author Clinton Begin
  */
-public class ChooseSqlNode implements SqlNode {
+public class ChooseSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = -8381498619448126398L;
+
   private final SqlNode defaultSqlNode;
   private final List<SqlNode> ifSqlNodes;
 
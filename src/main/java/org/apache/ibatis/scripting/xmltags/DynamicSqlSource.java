@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import org.apache.ibatis.builder.SqlSourceBuilder;
@@ -25,7 +26,9 @@ import org.apache.ibatis.session.Configuration;
 /**
  * @author Clinton Begin
  */
-public class DynamicSqlSource implements SqlSource {
+public class DynamicSqlSource implements SqlSource, Serializable {
+
+  private static final long serialVersionUID = 1830177395400191760L;
 
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
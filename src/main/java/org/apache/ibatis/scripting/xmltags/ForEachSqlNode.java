@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -23,7 +24,10 @@ import org.apache.ibatis.session.Configuration;
 /**
  * @author Clinton Begin
  */
-public class ForEachSqlNode implements SqlNode {
+public class ForEachSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = 1293857842177083364L;
+
   public static final String ITEM_PREFIX = "__frch_";
 
   private final ExpressionEvaluator evaluator;
@@ -15,10 +15,15 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
+
 /**
  * @author Clinton Begin
  */
-public class IfSqlNode implements SqlNode {
+public class IfSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = -8704208185251498976L;
+
   private final ExpressionEvaluator evaluator;
   private final String test;
   private final SqlNode contents;
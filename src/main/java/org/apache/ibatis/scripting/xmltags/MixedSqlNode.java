@@ -15,12 +15,16 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * @author Clinton Begin
  */
-public class MixedSqlNode implements SqlNode {
+public class MixedSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = -2244928858053629287L;
+
   private final List<SqlNode> contents;
 
   public MixedSqlNode(List<SqlNode> contents) {
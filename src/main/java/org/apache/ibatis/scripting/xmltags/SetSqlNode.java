@@ -25,6 +25,8 @@ import org.apache.ibatis.session.Configuration;
  */
 public class SetSqlNode extends TrimSqlNode {
 
+  private static final long serialVersionUID = -3460328623417424366L;
+
   private static final List<String> COMMA = Collections.singletonList(",");
 
   public SetSqlNode(Configuration configuration,SqlNode contents) {
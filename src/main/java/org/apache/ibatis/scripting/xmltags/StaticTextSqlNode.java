@@ -15,10 +15,15 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
+
 /**
  * @author Clinton Begin
  */
-public class StaticTextSqlNode implements SqlNode {
+public class StaticTextSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = 1945171118326225437L;
+
   private final String text;
 
   public StaticTextSqlNode(String text) {
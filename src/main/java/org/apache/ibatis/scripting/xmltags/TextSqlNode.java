@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.io.Serializable;
 import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
@@ -25,7 +26,10 @@ import org.apache.ibatis.type.SimpleTypeRegistry;
 /**
  * @author Clinton Begin
  */
-public class TextSqlNode implements SqlNode {
+public class TextSqlNode implements SqlNode, Serializable {
+
+  private static final long serialVersionUID = -7211703699948365475L;
+
   private final String text;
   private final Pattern injectionFilter;
 
@@ -15,8 +15,10 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,6 +27,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.binding.MapperRegistry;
 import org.apache.ibatis.builder.CacheRefResolver;
@@ -53,12 +59,16 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.sharding.ShardedTransaction;
+import org.apache.ibatis.executor.sharding.Sharding;
+import org.apache.ibatis.executor.sharding.ShardingExecutor;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
+import org.apache.ibatis.logging.jdbc.AsyncJdbcLogger;
 import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
 import org.apache.ibatis.logging.log4j.Log4jImpl;
 import org.apache.ibatis.logging.log4j2.Log4j2Impl;
@@ -66,11 +76,14 @@ import org.apache.ibatis.logging.nologging.NoLoggingImpl;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.CacheBuilder;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.metrics.SlowStatementLog;
+import org.apache.ibatis.metrics.StatementMetricsListener;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -111,6 +124,7 @@ public class Configuration {
   protected boolean multipleResultSetsEnabled = true;
   protected boolean useGeneratedKeys;
   protected boolean useColumnLabel = true;
+  protected boolean useColumnIndex;
   /**
    * 默认启用缓存
    */
@@ -118,6 +132,8 @@ public class Configuration {
   protected boolean callSettersOnNulls;
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
+  protected boolean parallelMapperParsing;
+  protected boolean parallelNestedQueries;
 
   protected String logPrefix;
   protected Class <? extends Log> logImpl;
@@ -127,6 +143,9 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer batchPipelineThreshold;
+  protected int batchPipelineDepth = 2;
+  protected Integer cursorPrefetchSize;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
   protected AutoMappingUnknownColumnBehavior autoMappingUnknownColumnBehavior = AutoMappingUnknownColumnBehavior.NONE;
@@ -143,6 +162,17 @@ public class Configuration {
    * 对象包装器工厂
    */
   protected ObjectWrapperFactory objectWrapperFactory = new DefaultObjectWrapperFactory();
+  protected ExecutorService asyncExecutor;
+  protected StatementMetricsListener statementMetricsListener;
+  protected Integer slowStatementThreshold;
+  protected Integer largeResultThreshold;
+  protected Integer statementSampleInterval;
+  protected SlowStatementLog slowStatementLog = new SlowStatementLog();
+  protected boolean asyncJdbcLogging;
+  protected AsyncJdbcLogger asyncJdbcLogger;
+  protected int bulkInsertParameterLimit = 1000;
+  protected Sharding sharding;
+  protected boolean readOnlySelectSessions;
 
   /**
    * 默认禁用懒加载
@@ -190,6 +220,7 @@ public class Configuration {
    * 存放缓存的Map
    */
   protected final Map<String, Cache> caches = new StrictMap<>("Caches collection");
+  protected final Map<String, CacheBuilder> cacheBuilders = new HashMap<>();
   /**
    * 存放结果映射的map
    */
@@ -312,6 +343,22 @@ public class Configuration {
     this.returnInstanceForEmptyRow = returnEmptyInstance;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isParallelMapperParsing() {
+    return parallelMapperParsing;
+  }
+
+  /**
+   * Sets whether the mapper XML documents listed in the configuration are read and parsed concurrently.
+   *
+   * @since 3.5.0
+   */
+  public void setParallelMapperParsing(boolean parallelMapperParsing) {
+    this.parallelMapperParsing = parallelMapperParsing;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -360,6 +407,13 @@ public class Configuration {
     return loadedResources.contains(resource);
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public Set<String> getLoadedResources() {
+    return Collections.unmodifiableSet(loadedResources);
+  }
+
   public Environment getEnvironment() {
     return environment;
   }
@@ -479,6 +533,76 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public Integer getBatchPipelineThreshold() {
+    return batchPipelineThreshold;
+  }
+
+  /**
+   * Sets the number of rows after which a {@link BatchExecutor} hands its pending batch to a background flusher.
+   * Pipelining is disabled when not set.
+   *
+   * @since 3.5.0
+   */
+  public void setBatchPipelineThreshold(Integer batchPipelineThreshold) {
+    this.batchPipelineThreshold = batchPipelineThreshold;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getBatchPipelineDepth() {
+    return batchPipelineDepth;
+  }
+
+  /**
+   * Sets the maximum number of pipelined batches that may be in flight before the caller waits.
+   *
+   * @since 3.5.0
+   */
+  public void setBatchPipelineDepth(int batchPipelineDepth) {
+    this.batchPipelineDepth = batchPipelineDepth;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets the number of rows a cursor maps ahead on a background thread while the caller processes the previous
+   * ones. <code>null</code> (the default) maps each row when it is requested.
+   *
+   * @since 3.5.0
+   */
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isParallelNestedQueries() {
+    return parallelNestedQueries;
+  }
+
+  /**
+   * Sets whether the eager nested selects of the rows returned by a query run concurrently on the
+   * {@link #getAsyncExecutor() async executor}, each on its own connection, and are joined before the query
+   * returns. Only nested selects whose rows have no nested selects themselves run this way; the others, and all
+   * nested selects of a sharded configuration, run in sequence on the executor of the session. The rows read
+   * concurrently are put into the local cache of the session, but do not see its uncommitted changes.
+   *
+   * @since 3.5.0
+   */
+  public void setParallelNestedQueries(boolean parallelNestedQueries) {
+    this.parallelNestedQueries = parallelNestedQueries;
+  }
+
   public boolean isUseColumnLabel() {
     return useColumnLabel;
   }
@@ -487,6 +611,23 @@ public class Configuration {
     this.useColumnLabel = useColumnLabel;
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public boolean isUseColumnIndex() {
+    return useColumnIndex;
+  }
+
+  /**
+   * Sets whether mapped columns are resolved to their index once per result set and read from the type handlers
+   * by index instead of by label.
+   *
+   * @since 3.5.0
+   */
+  public void setUseColumnIndex(boolean useColumnIndex) {
+    this.useColumnIndex = useColumnIndex;
+  }
+
   public LocalCacheScope getLocalCacheScope() {
     return localCacheScope;
   }
@@ -538,6 +679,192 @@ public class Configuration {
     return mapperRegistry;
   }
 
+  /**
+   * Returns the executor that runs the statements of publishers returned by
+   * {@link SqlSession#selectPublisher(String, Object, RowBounds)}, of mapper methods returning a
+   * <code>CompletableFuture</code> and the {@link #isParallelNestedQueries() parallel nested selects}. Unless one is set, a shared pool of daemon threads, as large as the number
+   * of available processors, is used.
+   *
+   * @since 3.5.0
+   */
+  public ExecutorService getAsyncExecutor() {
+    return asyncExecutor != null ? asyncExecutor : DefaultAsyncExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAsyncExecutor(ExecutorService asyncExecutor) {
+    this.asyncExecutor = asyncExecutor;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public StatementMetricsListener getStatementMetricsListener() {
+    return statementMetricsListener;
+  }
+
+  /**
+   * Sets the listener that receives the phase timings, row counts, cache accesses and LOB lengths of every
+   * statement execution. <code>null</code> (the default) disables the measurements.
+   *
+   * @since 3.5.0
+   */
+  public void setStatementMetricsListener(StatementMetricsListener statementMetricsListener) {
+    this.statementMetricsListener = statementMetricsListener;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Integer getSlowStatementThreshold() {
+    return slowStatementThreshold;
+  }
+
+  /**
+   * Sets the time in milliseconds above which an execution is captured by the {@link SlowStatementLog}, unless the
+   * statement declares its own threshold.
+   *
+   * @since 3.5.0
+   */
+  public void setSlowStatementThreshold(Integer slowStatementThreshold) {
+    this.slowStatementThreshold = slowStatementThreshold;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Integer getLargeResultThreshold() {
+    return largeResultThreshold;
+  }
+
+  /**
+   * Sets the number of rows above which an execution is captured by the {@link SlowStatementLog}, unless the
+   * statement declares its own threshold.
+   *
+   * @since 3.5.0
+   */
+  public void setLargeResultThreshold(Integer largeResultThreshold) {
+    this.largeResultThreshold = largeResultThreshold;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Integer getStatementSampleInterval() {
+    return statementSampleInterval;
+  }
+
+  /**
+   * Sets the average number of executions between two executions captured by the {@link SlowStatementLog}
+   * regardless of their thresholds.
+   *
+   * @since 3.5.0
+   */
+  public void setStatementSampleInterval(Integer statementSampleInterval) {
+    this.statementSampleInterval = statementSampleInterval;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public SlowStatementLog getSlowStatementLog() {
+    return slowStatementLog;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setSlowStatementLog(SlowStatementLog slowStatementLog) {
+    this.slowStatementLog = slowStatementLog;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isAsyncJdbcLogging() {
+    return asyncJdbcLogging;
+  }
+
+  /**
+   * Logs the statements of debug-enabled loggers through the {@link AsyncJdbcLogger} instead of the JDBC logging
+   * proxies. A default {@link AsyncJdbcLogger} is created if none was set.
+   *
+   * @since 3.5.0
+   */
+  public void setAsyncJdbcLogging(boolean asyncJdbcLogging) {
+    if (asyncJdbcLogging && asyncJdbcLogger == null) {
+      asyncJdbcLogger = new AsyncJdbcLogger();
+    }
+    this.asyncJdbcLogging = asyncJdbcLogging;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public AsyncJdbcLogger getAsyncJdbcLogger() {
+    return asyncJdbcLogger;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public void setAsyncJdbcLogger(AsyncJdbcLogger asyncJdbcLogger) {
+    this.asyncJdbcLogger = asyncJdbcLogger;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public int getBulkInsertParameterLimit() {
+    return bulkInsertParameterLimit;
+  }
+
+  /**
+   * Sets the maximum number of parameters of a multi-row insert statement built by
+   * {@link org.apache.ibatis.session.SqlSession#insertAll(String, Iterable)}.
+   *
+   * @since 3.5.0
+   */
+  public void setBulkInsertParameterLimit(int bulkInsertParameterLimit) {
+    this.bulkInsertParameterLimit = bulkInsertParameterLimit;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public Sharding getSharding() {
+    return sharding;
+  }
+
+  /**
+   * Sets the shards the sessions opened from a data source run their statements on, instead of the data source of
+   * the environment. <code>null</code> (the default) disables sharding.
+   *
+   * @since 3.5.0
+   */
+  public void setSharding(Sharding sharding) {
+    this.sharding = sharding;
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public boolean isReadOnlySelectSessions() {
+    return readOnlySelectSessions;
+  }
+
+  /**
+   * Opens the sessions a {@link SqlSessionManager} without a managed session creates for a single call of a
+   * <code>SELECT</code> statement with {@link SqlSessionFactory#openReadOnlySession()}.
+   *
+   * @since 3.5.0
+   */
+  public void setReadOnlySelectSessions(boolean readOnlySelectSessions) {
+    this.readOnlySelectSessions = readOnlySelectSessions;
+  }
+
   public ReflectorFactory getReflectorFactory() {
 	  return reflectorFactory;
   }
@@ -660,25 +987,47 @@ public class Configuration {
    * @return
    */
   public Executor newExecutor(Transaction transaction, ExecutorType executorType) {
+    return newExecutor(transaction, executorType, false);
+  }
+
+  /**
+   * Creates the executor of a session. The executor of a read-only session skips the bookkeeping that only
+   * protects other sessions from uncommitted writes.
+   *
+   * @since 3.5.0
+   */
+  public Executor newExecutor(Transaction transaction, ExecutorType executorType, boolean readOnly) {
     executorType = executorType == null ? defaultExecutorType : executorType;
     executorType = executorType == null ? ExecutorType.SIMPLE : executorType;
     Executor executor;
-    //产生3种执行器BatchExecutor/ReuseExecutor/SimpleExecutor
-    if (ExecutorType.BATCH == executorType) {
-      executor = new BatchExecutor(this, transaction);
-    } else if (ExecutorType.REUSE == executorType) {
-      executor = new ReuseExecutor(this, transaction);
+    if (transaction instanceof ShardedTransaction) {
+      List<Executor> shardExecutors = new ArrayList<>();
+      for (Transaction shardTransaction : ((ShardedTransaction) transaction).getShardTransactions()) {
+        shardExecutors.add(newBaseExecutor(shardTransaction, executorType));
+      }
+      executor = new ShardingExecutor(this, (ShardedTransaction) transaction, shardExecutors);
     } else {
-      executor = new SimpleExecutor(this, transaction);
+      executor = newBaseExecutor(transaction, executorType);
     }
     //若要求缓存，生成CachingExecutor(默认有缓存，所以默认返回CachingExecutor),装饰者模式
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, readOnly);
     }
     executor = (Executor) interceptorChain.pluginAll(executor);
     return executor;
   }
 
+  private Executor newBaseExecutor(Transaction transaction, ExecutorType executorType) {
+    //产生3种执行器BatchExecutor/ReuseExecutor/SimpleExecutor
+    if (ExecutorType.BATCH == executorType) {
+      return new BatchExecutor(this, transaction);
+    } else if (ExecutorType.REUSE == executorType) {
+      return new ReuseExecutor(this, transaction);
+    } else {
+      return new SimpleExecutor(this, transaction);
+    }
+  }
+
   public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
     keyGenerators.put(id, keyGenerator);
   }
@@ -703,6 +1052,22 @@ public class Configuration {
     caches.put(cache.getId(), cache);
   }
 
+  /**
+   * Records the builder a cache was created with, so that it can be rebuilt e.g. from a configuration snapshot.
+   *
+   * @since 3.5.0
+   */
+  public void addCacheBuilder(String id, CacheBuilder cacheBuilder) {
+    cacheBuilders.put(id, cacheBuilder);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public CacheBuilder getCacheBuilder(String id) {
+    return cacheBuilders.get(id);
+  }
+
   public Collection<String> getCacheNames() {
     return caches.keySet();
   }
@@ -866,6 +1231,13 @@ public class Configuration {
     cacheRefMap.put(namespace, referencedNamespace);
   }
 
+  /**
+   * @since 3.5.0
+   */
+  public Map<String, String> getCacheRefMap() {
+    return Collections.unmodifiableMap(cacheRefMap);
+  }
+
   /*
    * Parses all the unprocessed statement nodes in the cache. It is recommended
    * to call this method once all the mappers are added as it provides fail-fast
@@ -968,6 +1340,23 @@ public class Configuration {
     }
   }
 
+  private static class DefaultAsyncExecutorHolder {
+
+    private static final ExecutorService INSTANCE;
+
+    static {
+      int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "mybatis-async");
+            thread.setDaemon(true);
+            return thread;
+          });
+      executor.allowCoreThreadTimeOut(true);
+      INSTANCE = executor;
+    }
+  }
+
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
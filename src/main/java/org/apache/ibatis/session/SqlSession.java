@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.reactive.Publisher;
 
 /**
  * The primary Java interface for working with MyBatis.
@@ -144,6 +145,38 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Publisher offers the same results as a Cursor, except they are pushed to a subscriber as it requests them.
+   * The statement runs on the {@link Configuration#getAsyncExecutor() async executor} once items are requested,
+   * so the session must stay open and must not be used by other threads until the publication ends.
+   * @param <T> the published element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @return Publisher of mapped objects
+   * @since 3.5.0
+   */
+  <T> Publisher<T> selectPublisher(String statement);
+
+  /**
+   * A Publisher offers the same results as a Cursor, except they are pushed to a subscriber as it requests them.
+   * @param <T> the published element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return Publisher of mapped objects
+   * @since 3.5.0
+   */
+  <T> Publisher<T> selectPublisher(String statement, Object parameter);
+
+  /**
+   * A Publisher offers the same results as a Cursor, except they are pushed to a subscriber as it requests them.
+   * @param <T> the published element type.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit object retrieval
+   * @return Publisher of mapped objects
+   * @since 3.5.0
+   */
+  <T> Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds);
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
@@ -187,6 +220,19 @@ public interface SqlSession extends Closeable {
    */
   int insert(String statement, Object parameter);
 
+  /**
+   * Inserts all the given parameter objects with a single row insert statement, using the bulk load path
+   * of the database when possible: PostgreSQL <code>COPY ... FROM STDIN</code>, otherwise multi-row
+   * <code>VALUES (...), (...)</code> statements of at most <code>bulkInsertParameterLimit</code> parameters.
+   * Generated keys are assigned to the parameter objects as with {@link #insert(String, Object)},
+   * select keys are not supported.
+   * @param statement Unique identifier matching the insert statement to execute.
+   * @param parameters The parameter objects, one per inserted row.
+   * @return int The number of rows inserted.
+   * @since 3.5.0
+   */
+  int insertAll(String statement, Iterable<?> parameters);
+
   /**
    * Execute an update statement. The number of rows affected will be returned.
    * @param statement Unique identifier matching the statement to execute.
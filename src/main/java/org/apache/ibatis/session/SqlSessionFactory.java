@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -35,6 +35,17 @@ public interface SqlSessionFactory {
   SqlSession openSession(ExecutorType execType, TransactionIsolationLevel level);
   SqlSession openSession(ExecutorType execType, Connection connection);
 
+  /**
+   * Opens a session whose statements only read. The connection is set read-only, so that the database can apply
+   * its read-only optimizations, and the session rejects inserts, updates and deletes.
+   * Opens a regular session by default.
+   *
+   * @since 3.5.0
+   */
+  default SqlSession openReadOnlySession() {
+    return openSession();
+  }
+
   Configuration getConfiguration();
 
 }
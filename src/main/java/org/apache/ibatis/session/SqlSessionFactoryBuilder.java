@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.util.Properties;
 
+import org.apache.ibatis.builder.snapshot.ConfigurationSnapshot;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.exceptions.ExceptionFactory;
 import org.apache.ibatis.executor.ErrorContext;
@@ -74,9 +75,28 @@ public class SqlSessionFactoryBuilder {
    * @return
    */
   public SqlSessionFactory build(Reader reader, String environment, Properties properties) {
+    return build(reader, null, environment, properties);
+  }
+
+  /**
+   * Builds a factory whose mappers are restored from a snapshot written by
+   * {@link ConfigurationSnapshot#write(Configuration, java.io.OutputStream)}. The mappers element of the
+   * configuration is parsed as usual when the snapshot is out of date.
+   *
+   * @since 3.5.0
+   */
+  public SqlSessionFactory build(Reader reader, ConfigurationSnapshot snapshot) {
+    return build(reader, snapshot, null, null);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public SqlSessionFactory build(Reader reader, ConfigurationSnapshot snapshot, String environment, Properties properties) {
     try {
       //XMLConfigBuilder来解析xml文件，并构建
       XMLConfigBuilder parser = new XMLConfigBuilder(reader, environment, properties);
+      parser.setConfigurationSnapshot(snapshot);
       return build(parser.parse());
     } catch (Exception e) {
       //捕获异常，包装后抛出
@@ -128,8 +148,27 @@ public class SqlSessionFactoryBuilder {
    * @return
    */
   public SqlSessionFactory build(InputStream inputStream, String environment, Properties properties) {
+    return build(inputStream, null, environment, properties);
+  }
+
+  /**
+   * Builds a factory whose mappers are restored from a snapshot written by
+   * {@link ConfigurationSnapshot#write(Configuration, java.io.OutputStream)}. The mappers element of the
+   * configuration is parsed as usual when the snapshot is out of date.
+   *
+   * @since 3.5.0
+   */
+  public SqlSessionFactory build(InputStream inputStream, ConfigurationSnapshot snapshot) {
+    return build(inputStream, snapshot, null, null);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public SqlSessionFactory build(InputStream inputStream, ConfigurationSnapshot snapshot, String environment, Properties properties) {
     try {
       XMLConfigBuilder parser = new XMLConfigBuilder(inputStream, environment, properties);
+      parser.setConfigurationSnapshot(snapshot);
       return build(parser.parse());
     } catch (Exception e) {
       throw ExceptionFactory.wrapException("Error building SqlSession.", e);
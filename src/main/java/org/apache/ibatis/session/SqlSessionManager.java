@@ -27,6 +27,8 @@ import java.util.Properties;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reactive.Publisher;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -154,6 +156,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionFactory.openSession(execType, connection);
   }
 
+  @Override
+  public SqlSession openReadOnlySession() {
+    return sqlSessionFactory.openReadOnlySession();
+  }
+
   @Override
   public Configuration getConfiguration() {
     return sqlSessionFactory.getConfiguration();
@@ -199,6 +206,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement) {
+    return sqlSessionProxy.selectPublisher(statement);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter) {
+    return sqlSessionProxy.selectPublisher(statement, parameter);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.selectPublisher(statement, parameter, rowBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.<E> selectList(statement);
@@ -239,6 +261,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.insert(statement, parameter);
   }
 
+  @Override
+  public int insertAll(String statement, Iterable<?> parameters) {
+    return sqlSessionProxy.insertAll(statement, parameters);
+  }
+
   @Override
   public int update(String statement) {
     return sqlSessionProxy.update(statement);
@@ -359,7 +386,7 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
       } else {
         // 2、不存在线程局部变量sqlSession，创建一个自动提交、回滚、关闭的SqlSession
         // （提交、回滚、关闭，将sqlSession的生命周期完全限定在方法内部）
-        try (SqlSession autoSqlSession = openSession()) {
+        try (SqlSession autoSqlSession = isReadOnlyCall(method, args) ? openReadOnlySession() : openSession()) {
           try {
             final Object result = method.invoke(autoSqlSession, args);
             autoSqlSession.commit();
@@ -371,6 +398,17 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
         }
       }
     }
+
+    private boolean isReadOnlyCall(Method method, Object[] args) {
+      Configuration configuration = getConfiguration();
+      if (!configuration.isReadOnlySelectSessions() || !method.getName().startsWith("select")
+          || args == null || args.length == 0 || !(args[0] instanceof String)) {
+        return false;
+      }
+      String statement = (String) args[0];
+      return configuration.hasStatement(statement)
+          && configuration.getMappedStatement(statement).getSqlCommandType() == SqlCommandType.SELECT;
+    }
   }
 
 }
@@ -34,10 +34,13 @@ import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reactive.CursorPublisher;
+import org.apache.ibatis.reactive.Publisher;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionException;
 
 /**
  *
@@ -52,14 +55,24 @@ public class DefaultSqlSession implements SqlSession {
   private final Executor executor;
 
   private final boolean autoCommit;
+  private final boolean readOnly;
   private boolean dirty;
   private List<Cursor<?>> cursorList;
 
   public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit) {
+    this(configuration, executor, autoCommit, false);
+  }
+
+  /**
+   * @param readOnly whether the session rejects inserts, updates and deletes, and so never becomes dirty
+   * @since 3.5.0
+   */
+  public DefaultSqlSession(Configuration configuration, Executor executor, boolean autoCommit, boolean readOnly) {
     this.configuration = configuration;
     this.executor = executor;
     this.dirty = false;
     this.autoCommit = autoCommit;
+    this.readOnly = readOnly;
   }
 
   public DefaultSqlSession(Configuration configuration, Executor executor) {
@@ -96,9 +109,14 @@ public class DefaultSqlSession implements SqlSession {
 
   @Override
   public <K, V> Map<K, V> selectMap(String statement, Object parameter, String mapKey, RowBounds rowBounds) {
-    final List<? extends V> list = selectList(statement, parameter, rowBounds);
     final DefaultMapResultHandler<K, V> mapResultHandler = new DefaultMapResultHandler<>(mapKey,
             configuration.getObjectFactory(), configuration.getObjectWrapperFactory(), configuration.getReflectorFactory());
+    if (configuration.hasStatement(statement) && configuration.getMappedStatement(statement).isResultStreamable()) {
+      // rows go straight into the map, no intermediate list
+      select(statement, parameter, rowBounds, mapResultHandler);
+      return mapResultHandler.getMappedResults();
+    }
+    final List<? extends V> list = selectList(statement, parameter, rowBounds);
     final DefaultResultContext<V> context = new DefaultResultContext<>();
     for (V o : list) {
       context.nextResultObject(o);
@@ -131,6 +149,32 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement) {
+    return selectPublisher(statement, null);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public <T> Publisher<T> selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    Integer fetchSize;
+    try {
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      fetchSize = ms.getFetchSize() != null ? ms.getFetchSize() : configuration.getDefaultFetchSize();
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+    // chunks follow the fetch size, so each task maps the rows of about one round trip
+    int chunkSize = fetchSize != null && fetchSize > 0 ? fetchSize : CursorPublisher.DEFAULT_CHUNK_SIZE;
+    return new CursorPublisher<>(() -> this.<T>selectCursor(statement, parameter, rowBounds), configuration.getAsyncExecutor(), chunkSize);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return this.selectList(statement, null);
@@ -185,6 +229,24 @@ public class DefaultSqlSession implements SqlSession {
     return update(statement, parameter);
   }
 
+  @Override
+  public int insertAll(String statement, Iterable<?> parameters) {
+    checkWritable(statement);
+    try {
+      dirty = true;
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      List<Object> rows = new ArrayList<>();
+      for (Object parameter : parameters) {
+        rows.add(wrapCollection(parameter));
+      }
+      return executor.insertAll(ms, rows);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error inserting into database.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public int update(String statement) {
     return update(statement, null);
@@ -192,6 +254,7 @@ public class DefaultSqlSession implements SqlSession {
 
   @Override
   public int update(String statement, Object parameter) {
+    checkWritable(statement);
     try {
       dirty = true;
       MappedStatement ms = configuration.getMappedStatement(statement);
@@ -313,6 +376,12 @@ public class DefaultSqlSession implements SqlSession {
     cursorList.add(cursor);
   }
 
+  private void checkWritable(String statement) {
+    if (readOnly) {
+      throw new SqlSessionException("Cannot execute statement '" + statement + "' in a read-only session.");
+    }
+  }
+
   private boolean isCommitOrRollbackRequired(boolean force) {
     return (!autoCommit && dirty) || force;
   }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.apache.ibatis.transaction;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import org.apache.ibatis.mapping.MappedStatement;
+
 /**
  * Wraps a database connection.
  * Handles the connection lifecycle that comprises: its creation, preparation, commit/rollback and close. 
@@ -34,6 +36,17 @@ public interface Transaction {
    */
   Connection getConnection() throws SQLException;
 
+  /**
+   * Retrieve the database connection a statement runs on. Returns the inner database connection by default.
+   * @param ms the statement about to run
+   * @return DataBase connection
+   * @throws SQLException
+   * @since 3.5.0
+   */
+  default Connection getConnection(MappedStatement ms) throws SQLException {
+    return getConnection();
+  }
+
   /**
    * Commit inner database connection.
    * @throws SQLException
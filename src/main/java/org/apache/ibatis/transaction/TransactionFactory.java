@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -53,4 +53,18 @@ public interface TransactionFactory {
    */
   Transaction newTransaction(DataSource dataSource, TransactionIsolationLevel level, boolean autoCommit);
 
+  /**
+   * Creates a {@link Transaction} out of a datasource, hinting the database that no statement will write.
+   * Ignores the hint by default.
+   * @param dataSource DataSource to take the connection from
+   * @param level Desired isolation level
+   * @param autoCommit Desired autocommit
+   * @param readOnly Desired read-only mode
+   * @return Transaction
+   * @since 3.5.0
+   */
+  default Transaction newTransaction(DataSource dataSource, TransactionIsolationLevel level, boolean autoCommit, boolean readOnly) {
+    return newTransaction(dataSource, level, autoCommit);
+  }
+
 }
@@ -30,6 +30,7 @@ import org.apache.ibatis.transaction.TransactionException;
  * It relies on the connection retrieved from the dataSource to manage the scope of the transaction.
  * Delays connection retrieval until getConnection() is called.
  * Ignores commit or rollback requests when autocommit is on.
+ * A read-only transaction sets the connection read-only until it is closed.
  *
  * @author Clinton Begin
  *
@@ -43,11 +44,22 @@ public class JdbcTransaction implements Transaction {
   protected DataSource dataSource;
   protected TransactionIsolationLevel level;
   protected boolean autoCommit;
+  protected boolean readOnly;
+  private boolean resetReadOnly;
 
   public JdbcTransaction(DataSource ds, TransactionIsolationLevel desiredLevel, boolean desiredAutoCommit) {
+    this(ds, desiredLevel, desiredAutoCommit, false);
+  }
+
+  /**
+   * @param desiredReadOnly whether the connection is set read-only while the transaction uses it
+   * @since 3.5.0
+   */
+  public JdbcTransaction(DataSource ds, TransactionIsolationLevel desiredLevel, boolean desiredAutoCommit, boolean desiredReadOnly) {
     dataSource = ds;
     level = desiredLevel;
     autoCommit = desiredAutoCommit;
+    readOnly = desiredReadOnly;
   }
 
   public JdbcTransaction(Connection connection) {
@@ -86,6 +98,7 @@ public class JdbcTransaction implements Transaction {
   public void close() throws SQLException {
     if (connection != null) {
       resetAutoCommit();
+      resetReadOnly();
       if (log.isDebugEnabled()) {
         log.debug("Closing JDBC Connection [" + connection + "]");
       }
@@ -131,6 +144,40 @@ public class JdbcTransaction implements Transaction {
     }
   }
 
+  protected void setDesiredReadOnly() {
+    try {
+      if (!connection.isReadOnly()) {
+        if (log.isDebugEnabled()) {
+          log.debug("Setting read-only on JDBC Connection [" + connection + "]");
+        }
+        connection.setReadOnly(true);
+        resetReadOnly = true;
+      }
+    } catch (SQLException e) {
+      throw new TransactionException("Error configuring read-only mode.  "
+          + "Your driver may not support isReadOnly() or setReadOnly().  Cause: " + e, e);
+    }
+  }
+
+  protected void resetReadOnly() {
+    if (!resetReadOnly) {
+      return;
+    }
+    try {
+      // the connection may be pooled and reused by a session that writes
+      if (log.isDebugEnabled()) {
+        log.debug("Resetting read-only to false on JDBC Connection [" + connection + "]");
+      }
+      connection.setReadOnly(false);
+      resetReadOnly = false;
+    } catch (SQLException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Error resetting read-only to false "
+          + "before closing the connection.  Cause: " + e);
+      }
+    }
+  }
+
   protected void openConnection() throws SQLException {
     if (log.isDebugEnabled()) {
       log.debug("Opening JDBC Connection");
@@ -139,6 +186,9 @@ public class JdbcTransaction implements Transaction {
     if (level != null) {
       connection.setTransactionIsolation(level.getLevel());
     }
+    if (readOnly) {
+      setDesiredReadOnly();
+    }
     setDesiredAutoCommit(autoCommit);
   }
 
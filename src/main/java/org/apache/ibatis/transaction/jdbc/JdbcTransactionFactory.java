@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -20,12 +20,14 @@ import java.util.Properties;
 
 import javax.sql.DataSource;
 
+import org.apache.ibatis.datasource.routing.RoutingDataSource;
 import org.apache.ibatis.session.TransactionIsolationLevel;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.TransactionFactory;
 
 /**
- * Creates {@link JdbcTransaction} instances.
+ * Creates {@link JdbcTransaction} instances, or {@link RoutingTransaction} instances for a
+ * {@link RoutingDataSource}.
  *
  * @author Clinton Begin
  *
@@ -44,6 +46,14 @@ public class JdbcTransactionFactory implements TransactionFactory {
 
   @Override
   public Transaction newTransaction(DataSource ds, TransactionIsolationLevel level, boolean autoCommit) {
-    return new JdbcTransaction(ds, level, autoCommit);
+    return newTransaction(ds, level, autoCommit, false);
+  }
+
+  @Override
+  public Transaction newTransaction(DataSource ds, TransactionIsolationLevel level, boolean autoCommit, boolean readOnly) {
+    if (ds instanceof RoutingDataSource) {
+      return new RoutingTransaction((RoutingDataSource) ds, level, autoCommit, readOnly);
+    }
+    return new JdbcTransaction(ds, level, autoCommit, readOnly);
   }
 }
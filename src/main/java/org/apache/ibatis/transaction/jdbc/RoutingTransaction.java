@@ -0,0 +1,150 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.transaction.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.ibatis.datasource.routing.RoutingDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.mapping.DataSourceRoute;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+
+/**
+ * {@link JdbcTransaction} of a {@link RoutingDataSource} that runs reads on a replica.
+ * <p>
+ * Selects run on a read-only, auto-commit replica connection unless their route is
+ * {@link DataSourceRoute#PRIMARY} or a write transaction is in progress, i.e. the primary connection
+ * has been used for another statement since the last commit or rollback. Every other statement runs on the
+ * primary connection, which is also returned by {@link #getConnection()}.
+ *
+ * @see JdbcTransactionFactory
+ * @since 3.5.0
+ */
+public class RoutingTransaction extends JdbcTransaction {
+
+  private static final Log log = LogFactory.getLog(RoutingTransaction.class);
+
+  protected Connection replicaConnection;
+  protected boolean writing;
+
+  public RoutingTransaction(RoutingDataSource ds, TransactionIsolationLevel desiredLevel, boolean desiredAutoCommit) {
+    this(ds, desiredLevel, desiredAutoCommit, false);
+  }
+
+  /**
+   * @since 3.5.0
+   */
+  public RoutingTransaction(RoutingDataSource ds, TransactionIsolationLevel desiredLevel, boolean desiredAutoCommit, boolean desiredReadOnly) {
+    super(ds, desiredLevel, desiredAutoCommit, desiredReadOnly);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    writing = !autoCommit;
+    return super.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(MappedStatement ms) throws SQLException {
+    if (isReplicaRead(ms)) {
+      Connection connection = getReplicaConnection();
+      if (connection != null) {
+        return connection;
+      }
+    } else if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      writing = !autoCommit;
+    }
+    return super.getConnection();
+  }
+
+  private boolean isReplicaRead(MappedStatement ms) {
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      return false;
+    }
+    switch (ms.getRoute()) {
+      case PRIMARY:
+        return false;
+      case REPLICA:
+        return true;
+      default:
+        return !writing;
+    }
+  }
+
+  private Connection getReplicaConnection() throws SQLException {
+    if (replicaConnection == null) {
+      Connection connection = ((RoutingDataSource) dataSource).getReplicaConnection();
+      if (connection == null) {
+        return null;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Opened replica JDBC Connection [" + connection + "]");
+      }
+      try {
+        if (!connection.getAutoCommit()) {
+          connection.setAutoCommit(true);
+        }
+        connection.setReadOnly(true);
+      } catch (SQLException e) {
+        connection.close();
+        throw e;
+      }
+      replicaConnection = connection;
+    }
+    return replicaConnection;
+  }
+
+  @Override
+  public void commit() throws SQLException {
+    super.commit();
+    writing = false;
+  }
+
+  @Override
+  public void rollback() throws SQLException {
+    super.rollback();
+    writing = false;
+  }
+
+  @Override
+  public void close() throws SQLException {
+    try {
+      if (replicaConnection != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Closing replica JDBC Connection [" + replicaConnection + "]");
+        }
+        try {
+          replicaConnection.setReadOnly(false);
+        } catch (SQLException e) {
+          if (log.isDebugEnabled()) {
+            log.debug("Error resetting read-only to false "
+              + "before closing the replica connection.  Cause: " + e);
+          }
+        } finally {
+          replicaConnection.close();
+        }
+      }
+    } finally {
+      replicaConnection = null;
+      super.close();
+    }
+  }
+
+}
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * A {@link Blob} column that is read on demand instead of being loaded into memory when the row is mapped.
+ * <p>
+ * The content is copied in chunks of {@link #CHUNK_SIZE} bytes into the given sink. Like the {@link Blob} it wraps,
+ * a blob stream is only guaranteed to be readable while its row is the current row of a
+ * {@link org.apache.ibatis.cursor.Cursor} (that does not prefetch rows) or, depending on the driver, while the
+ * transaction is open.
+ * {@link #close()} releases the blob.
+ *
+ * @since 3.5.0
+ * @see BlobStreamTypeHandler
+ */
+public final class BlobStream implements Closeable {
+
+  public static final int CHUNK_SIZE = 8192;
+
+  private final Blob blob;
+
+  BlobStream(Blob blob) {
+    this.blob = blob;
+  }
+
+  Blob getBlob() {
+    return blob;
+  }
+
+  public long length() throws SQLException {
+    return blob.length();
+  }
+
+  public InputStream getInputStream() throws SQLException {
+    return blob.getBinaryStream();
+  }
+
+  /**
+   * Copies the content to the output stream, which is not closed.
+   *
+   * @return the number of bytes copied
+   */
+  public long transferTo(OutputStream out) throws SQLException, IOException {
+    long count = 0;
+    byte[] buffer = new byte[CHUNK_SIZE];
+    try (InputStream in = getInputStream()) {
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        out.write(buffer, 0, n);
+        count += n;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Copies the content to the channel, which is not closed.
+   *
+   * @return the number of bytes copied
+   */
+  public long transferTo(WritableByteChannel channel) throws SQLException, IOException {
+    long count = 0;
+    ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+    try (ReadableByteChannel in = Channels.newChannel(getInputStream())) {
+      while (in.read(buffer) >= 0) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          count += channel.write(buffer);
+        }
+        buffer.clear();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Copies the content to a file, which is created or replaced. The file channel pulls the content straight
+   * from the blob stream.
+   *
+   * @return the number of bytes copied
+   */
+  public long transferTo(Path file) throws SQLException, IOException {
+    try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ReadableByteChannel in = Channels.newChannel(getInputStream())) {
+      long count = 0;
+      long n;
+      while ((n = out.transferFrom(in, count, CHUNK_SIZE)) > 0) {
+        count += n;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Copies the content to a temporary file and maps it read only into memory, so that it stays readable after
+   * the row is gone without taking heap space. The file is deleted as soon as the platform allows it.
+   */
+  public MappedByteBuffer map() throws SQLException, IOException {
+    Path file = Files.createTempFile("mybatis-blob", ".tmp");
+    try {
+      long length = transferTo(file);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      }
+    } finally {
+      try {
+        Files.delete(file);
+      } catch (IOException e) {
+        // still mapped on some platforms
+        file.toFile().deleteOnExit();
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      blob.free();
+    } catch (SQLException e) {
+      throw new IOException("Error freeing blob.  Cause: " + e, e);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link Blob}/{@link BlobStream}. The column is not read when the row is mapped,
+ * the caller streams it from the returned {@link BlobStream}.
+ *
+ * @since 3.5.0
+ */
+public class BlobStreamTypeHandler extends BaseTypeHandler<BlobStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, BlobStream parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setBlob(i, parameter.getBlob());
+  }
+
+  @Override
+  public BlobStream getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toBlobStream(rs.getBlob(columnName));
+  }
+
+  @Override
+  public BlobStream getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toBlobStream(rs.getBlob(columnIndex));
+  }
+
+  @Override
+  public BlobStream getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toBlobStream(cs.getBlob(columnIndex));
+  }
+
+  private BlobStream toBlobStream(Blob blob) {
+    return blob == null ? null : new BlobStream(blob);
+  }
+
+}
@@ -0,0 +1,100 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+/**
+ * A {@link Clob} column that is read on demand instead of being loaded into memory when the row is mapped.
+ * <p>
+ * The content is copied in chunks of {@link #CHUNK_SIZE} characters into the given sink. Like the {@link Clob} it
+ * wraps, a clob stream is only guaranteed to be readable while its row is the current row of a
+ * {@link org.apache.ibatis.cursor.Cursor} (that does not prefetch rows) or, depending on the driver, while the
+ * transaction is open.
+ * {@link #close()} releases the clob.
+ *
+ * @since 3.5.0
+ * @see ClobStreamTypeHandler
+ */
+public final class ClobStream implements Closeable {
+
+  public static final int CHUNK_SIZE = 8192;
+
+  private final Clob clob;
+
+  ClobStream(Clob clob) {
+    this.clob = clob;
+  }
+
+  Clob getClob() {
+    return clob;
+  }
+
+  public long length() throws SQLException {
+    return clob.length();
+  }
+
+  public Reader getReader() throws SQLException {
+    return clob.getCharacterStream();
+  }
+
+  /**
+   * Copies the content to the writer, which is not closed.
+   *
+   * @return the number of characters copied
+   */
+  public long transferTo(Writer out) throws SQLException, IOException {
+    long count = 0;
+    char[] buffer = new char[CHUNK_SIZE];
+    try (Reader in = getReader()) {
+      int n;
+      while ((n = in.read(buffer)) > 0) {
+        out.write(buffer, 0, n);
+        count += n;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Copies the content to a file in the given charset. The file is created or replaced.
+   *
+   * @return the number of characters copied
+   */
+  public long transferTo(Path file, Charset charset) throws SQLException, IOException {
+    try (Writer out = Files.newBufferedWriter(file, charset)) {
+      return transferTo(out);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      clob.free();
+    } catch (SQLException e) {
+      throw new IOException("Error freeing clob.  Cause: " + e, e);
+    }
+  }
+
+}
@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The {@link TypeHandler} for {@link Clob}/{@link ClobStream}. The column is not read when the row is mapped,
+ * the caller streams it from the returned {@link ClobStream}.
+ *
+ * @since 3.5.0
+ */
+public class ClobStreamTypeHandler extends BaseTypeHandler<ClobStream> {
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, ClobStream parameter, JdbcType jdbcType)
+      throws SQLException {
+    ps.setClob(i, parameter.getClob());
+  }
+
+  @Override
+  public ClobStream getNullableResult(ResultSet rs, String columnName)
+      throws SQLException {
+    return toClobStream(rs.getClob(columnName));
+  }
+
+  @Override
+  public ClobStream getNullableResult(ResultSet rs, int columnIndex)
+      throws SQLException {
+    return toClobStream(rs.getClob(columnIndex));
+  }
+
+  @Override
+  public ClobStream getNullableResult(CallableStatement cs, int columnIndex)
+      throws SQLException {
+    return toClobStream(cs.getClob(columnIndex));
+  }
+
+  private ClobStream toClobStream(Clob clob) {
+    return clob == null ? null : new ClobStream(clob);
+  }
+
+}
@@ -97,6 +97,7 @@ public final class TypeHandlerRegistry {
     register(JdbcType.DOUBLE, new DoubleTypeHandler());
 
     register(Reader.class, new ClobReaderTypeHandler());
+    register(ClobStream.class, new ClobStreamTypeHandler());
     register(String.class, new StringTypeHandler());
     register(String.class, JdbcType.CHAR, new StringTypeHandler());
     register(String.class, JdbcType.CLOB, new ClobTypeHandler());
@@ -125,6 +126,7 @@ public final class TypeHandlerRegistry {
     register(JdbcType.NUMERIC, new BigDecimalTypeHandler());
 
     register(InputStream.class, new BlobInputStreamTypeHandler());
+    register(BlobStream.class, new BlobStreamTypeHandler());
     register(Byte[].class, new ByteObjectArrayTypeHandler());
     register(Byte[].class, JdbcType.BLOB, new BlobByteObjectArrayTypeHandler());
     register(Byte[].class, JdbcType.LONGVARBINARY, new BlobByteObjectArrayTypeHandler());
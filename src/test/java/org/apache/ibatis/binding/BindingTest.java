@@ -23,6 +23,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -31,8 +32,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javassist.util.proxy.Proxy;
 
@@ -223,6 +229,97 @@ public class BindingTest {
     }
   }
 
+  @Test
+  public void shouldExecuteBoundSelectMapIntoDeclaredMapType() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      TreeMap<Integer,Blog> blogs = mapper.selectBlogsAsTreeMapById();
+      assertEquals(2, blogs.size());
+      assertEquals(Integer.valueOf(1), blogs.firstKey());
+      assertEquals(2, blogs.lastEntry().getValue().getId());
+    }
+  }
+
+  @Test
+  public void shouldExecuteBoundSelectOfPostsGroupedBySection() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      Map<Section,List<Post>> posts = mapper.selectPostsGroupedBySection();
+      assertEquals(4, posts.size());
+      assertEquals(1, posts.get(Section.NEWS).size());
+      assertEquals(2, posts.get(Section.IMAGES).size());
+      assertEquals(4, posts.get(Section.IMAGES).get(0).getId());
+      assertEquals(5, posts.get(Section.IMAGES).get(1).getId());
+      // the streamed results must not be cached as an empty list
+      assertEquals(5, session.selectList("org.apache.ibatis.binding.BoundBlogMapper.selectPostsGroupedBySection").size());
+    }
+  }
+
+  @Test
+  public void shouldExecuteBoundSelectIntoDeclaredCollectionType() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      LinkedList<Post> posts = mapper.selectPostsAsLinkedList();
+      assertEquals(5, posts.size());
+      assertEquals(1, posts.getFirst().getId());
+      assertEquals(5, posts.getLast().getId());
+    }
+  }
+
+  @Test
+  public void shouldExecuteBoundSelectMapWithCircularNestedSelect() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      Map<Integer,Post> posts = mapper.selectPostsOfBlogAsMapById(1);
+      assertEquals(2, posts.size());
+      Blog blog = posts.get(1).getBlog();
+      assertSame(blog, posts.get(2).getBlog());
+      // the posts of the blog are resolved from the list of the outer query
+      assertEquals(2, blog.getPosts().size());
+      assertSame(posts.get(1), blog.getPosts().get(0));
+      assertSame(posts.get(2), blog.getPosts().get(1));
+    }
+  }
+
+  @Test
+  public void shouldExecuteBoundSelectWithCircularNestedSelectAndProvidedResultHandler() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      final DefaultResultHandler handler = new DefaultResultHandler();
+      session.select("org.apache.ibatis.binding.BoundBlogMapper.selectPostsOfBlogAsMapById", 1, handler);
+      assertEquals(2, handler.getResultList().size());
+      Post post = (Post) handler.getResultList().get(0);
+      assertNotNull(post.getBlog());
+      assertNotNull(post.getBlog().getPosts());
+    }
+  }
+
+  @Test
+  public void shouldExecuteBoundSelectsAsynchronously() throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      CompletableFuture<Blog> blog = mapper.selectBlogAsync(1);
+      CompletableFuture<List<Post>> posts = mapper.selectPostsAsync();
+      CompletableFuture<Map<Section,List<Post>>> postsBySection = mapper.selectPostsGroupedBySectionAsync();
+      assertEquals("Jim Business", blog.get(10, TimeUnit.SECONDS).getTitle());
+      assertEquals(5, posts.get(10, TimeUnit.SECONDS).size());
+      assertEquals(2, postsBySection.get(10, TimeUnit.SECONDS).get(Section.IMAGES).size());
+    }
+  }
+
+  @Test
+  public void shouldCompleteAsynchronousSelectExceptionally() throws Exception {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      BoundBlogMapper mapper = session.getMapper(BoundBlogMapper.class);
+      CompletableFuture<Blog> blog = mapper.selectFromMissingTableAsync();
+      try {
+        blog.get(10, TimeUnit.SECONDS);
+        fail("Expected the select to fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof PersistenceException);
+      }
+    }
+  }
+
   @Test
   public void shouldExecuteMultipleBoundSelectOfBlogsByIdInWithProvidedResultHandlerBetweenSessions() {
     final DefaultResultHandler handler = new DefaultResultHandler();
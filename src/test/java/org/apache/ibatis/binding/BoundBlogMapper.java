@@ -21,12 +21,16 @@ import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.DraftPost;
 import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.domain.blog.Section;
 import org.apache.ibatis.mapping.FetchType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 @CacheNamespace(readWrite = false)
 public interface BoundBlogMapper {
@@ -49,6 +53,51 @@ public interface BoundBlogMapper {
   @MapKey("id")
   Map<Integer,Blog> selectRangeBlogsAsMapById(RowBounds rowBounds);
 
+  @Select({ "SELECT * FROM blog ORDER BY id"})
+  @MapKey("id")
+  TreeMap<Integer,Blog> selectBlogsAsTreeMapById();
+
+  @Select({ "SELECT * FROM post ORDER BY id"})
+  @MapKey("section")
+  @Options(useCache = false)
+  Map<Section,List<Post>> selectPostsGroupedBySection();
+
+  @Select({ "SELECT * FROM post ORDER BY id"})
+  @Options(useCache = false)
+  LinkedList<Post> selectPostsAsLinkedList();
+
+  @Select({ "SELECT * FROM post WHERE blog_id = #{blogId} ORDER BY id"})
+  @Results({
+      @Result(property = "id", column = "id", id = true),
+      @Result(property = "blog", column = "blog_id", one = @One(select = "selectBlogWithPostsOfBlog", fetchType = FetchType.EAGER))
+  })
+  @MapKey("id")
+  @Options(useCache = false)
+  Map<Integer,Post> selectPostsOfBlogAsMapById(int blogId);
+
+  @Select({ "SELECT * FROM blog WHERE id = #{id}"})
+  @Results({
+      @Result(property = "id", column = "id", id = true),
+      @Result(property = "posts", column = "id", many = @Many(select = "selectPostsOfBlogAsMapById", fetchType = FetchType.EAGER))
+  })
+  @Options(useCache = false)
+  Blog selectBlogWithPostsOfBlog(int id);
+
+  @Select("SELECT * FROM blog WHERE id = #{id}")
+  CompletableFuture<Blog> selectBlogAsync(int id);
+
+  @Select({ "SELECT * FROM post ORDER BY id"})
+  @Options(useCache = false)
+  CompletableFuture<List<Post>> selectPostsAsync();
+
+  @Select({ "SELECT * FROM post ORDER BY id"})
+  @MapKey("section")
+  @Options(useCache = false)
+  CompletableFuture<Map<Section,List<Post>>> selectPostsGroupedBySectionAsync();
+
+  @Select("SELECT * FROM no_such_table")
+  CompletableFuture<Blog> selectFromMissingTableAsync();
+
   //======================================================
 
   @Select({
@@ -42,6 +42,7 @@ import org.apache.ibatis.io.JBoss6VFS;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.logging.slf4j.Slf4jImpl;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.InMemoryStatementMetrics;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.AutoMappingBehavior;
@@ -62,6 +63,7 @@ import org.junit.Test;
 import static com.googlecode.catchexception.apis.BDDCatchException.*;
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -99,6 +101,19 @@ public class XmlConfigBuilderTest {
       assertNull(config.getLogPrefix());
       assertNull(config.getLogImpl());
       assertNull(config.getConfigurationFactory());
+      assertNull(config.getBatchPipelineThreshold());
+      assertThat(config.getBatchPipelineDepth()).isEqualTo(2);
+      assertThat(config.isParallelMapperParsing()).isFalse();
+      assertThat(config.isUseColumnIndex()).isFalse();
+      assertNull(config.getCursorPrefetchSize());
+      assertFalse(config.isParallelNestedQueries());
+      assertNull(config.getStatementMetricsListener());
+      assertNull(config.getSlowStatementThreshold());
+      assertNull(config.getLargeResultThreshold());
+      assertNull(config.getStatementSampleInterval());
+      assertFalse(config.isAsyncJdbcLogging());
+      assertThat(config.getBulkInsertParameterLimit()).isEqualTo(1000);
+      assertFalse(config.isReadOnlySelectSessions());
       assertThat(config.getTypeHandlerRegistry().getTypeHandler(RoundingMode.class)).isInstanceOf(EnumTypeHandler.class);
     }
   }
@@ -193,6 +208,19 @@ public class XmlConfigBuilderTest {
         assertThat(config.getLogImpl().getName()).isEqualTo(Slf4jImpl.class.getName());
         assertThat(config.getVfsImpl().getName()).isEqualTo(JBoss6VFS.class.getName());
         assertThat(config.getConfigurationFactory().getName()).isEqualTo(String.class.getName());
+        assertThat(config.getBatchPipelineThreshold()).isEqualTo(500);
+        assertThat(config.getBatchPipelineDepth()).isEqualTo(4);
+        assertThat(config.isParallelMapperParsing()).isTrue();
+        assertThat(config.isUseColumnIndex()).isTrue();
+        assertThat(config.getCursorPrefetchSize()).isEqualTo(64);
+        assertTrue(config.isParallelNestedQueries());
+        assertThat(config.getStatementMetricsListener()).isInstanceOf(InMemoryStatementMetrics.class);
+        assertThat(config.getSlowStatementThreshold()).isEqualTo(500);
+        assertThat(config.getLargeResultThreshold()).isEqualTo(10000);
+        assertThat(config.getStatementSampleInterval()).isEqualTo(1000);
+        assertTrue(config.isAsyncJdbcLogging());
+        assertThat(config.getBulkInsertParameterLimit()).isEqualTo(500);
+        assertTrue(config.isReadOnlySelectSessions());
 
         assertTrue(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor").equals(Author.class));
         assertTrue(config.getTypeAliasRegistry().getTypeAliases().get("blog").equals(Blog.class));
@@ -301,4 +329,45 @@ public class XmlConfigBuilderTest {
       .hasMessageContaining("The properties element cannot specify both a URL and a resource based property file reference.  Please specify one or the other.");
   }
 
+  @Test
+  public void shouldParseMappersInParallelLikeSequentially() {
+    Configuration sequential = buildMapperConfig(false);
+    Configuration parallel = buildMapperConfig(true);
+
+    assertThat(parallel.isParallelMapperParsing()).isTrue();
+    assertThat(parallel.getMappedStatementNames()).containsExactlyInAnyOrderElementsOf(sequential.getMappedStatementNames());
+    assertThat(parallel.getResultMapNames()).containsExactlyInAnyOrderElementsOf(sequential.getResultMapNames());
+    assertThat(parallel.getCacheNames()).containsExactlyInAnyOrderElementsOf(sequential.getCacheNames());
+    assertThat(parallel.getIncompleteStatements()).isEmpty();
+    assertThat(parallel.getIncompleteResultMaps()).isEmpty();
+  }
+
+  private Configuration buildMapperConfig(boolean parallelMapperParsing) {
+    final String MAPPER_CONFIG = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">\n"
+        + "<configuration>\n"
+        + "  <settings>\n"
+        + "    <setting name=\"parallelMapperParsing\" value=\"" + parallelMapperParsing + "\"/>\n"
+        + "  </settings>\n"
+        + "  <typeAliases>\n"
+        + "    <typeAlias alias=\"Author\" type=\"org.apache.ibatis.domain.blog.Author\"/>\n"
+        + "    <typeAlias alias=\"Blog\" type=\"org.apache.ibatis.domain.blog.Blog\"/>\n"
+        + "    <typeAlias alias=\"Comment\" type=\"org.apache.ibatis.domain.blog.Comment\"/>\n"
+        + "    <typeAlias alias=\"Post\" type=\"org.apache.ibatis.domain.blog.Post\"/>\n"
+        + "    <typeAlias alias=\"Section\" type=\"org.apache.ibatis.domain.blog.Section\"/>\n"
+        + "    <typeAlias alias=\"Tag\" type=\"org.apache.ibatis.domain.blog.Tag\"/>\n"
+        + "  </typeAliases>\n"
+        + "  <mappers>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/AuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/BlogMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/CachedAuthorMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/PostMapper.xml\"/>\n"
+        + "    <mapper resource=\"org/apache/ibatis/builder/NestedBlogMapper.xml\"/>\n"
+        + "  </mappers>\n"
+        + "</configuration>\n";
+
+    XMLConfigBuilder builder = new XMLConfigBuilder(new StringReader(MAPPER_CONFIG));
+    return builder.parse();
+  }
+
 }
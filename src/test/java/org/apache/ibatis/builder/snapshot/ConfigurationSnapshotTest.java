@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.CachedAuthorMapper;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.mappers.BlogMapper;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.submitted.autodiscover.mappers.DummyMapper;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ConfigurationSnapshotTest {
+
+  private static final String RESOURCE = "org/apache/ibatis/builder/MapperConfig.xml";
+
+  private static byte[] snapshotBytes;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    BaseDataTest.createBlogDataSource();
+    SqlSessionFactory sqlSessionFactory;
+    try (InputStream inputStream = Resources.getResourceAsStream(RESOURCE)) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(inputStream);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ConfigurationSnapshot.write(sqlSessionFactory.getConfiguration(), out);
+    snapshotBytes = out.toByteArray();
+  }
+
+  @Test
+  public void shouldRecordMapperResources() throws Exception {
+    ConfigurationSnapshot snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(snapshotBytes));
+    assertTrue(snapshot.isValid());
+    assertTrue(snapshot.covers(Arrays.asList(
+        "org/apache/ibatis/builder/AuthorMapper.xml",
+        "org/apache/ibatis/builder/BlogMapper.xml",
+        "org/apache/ibatis/builder/CachedAuthorMapper.xml",
+        "org/apache/ibatis/builder/PostMapper.xml",
+        "org/apache/ibatis/builder/NestedBlogMapper.xml")));
+    assertFalse(snapshot.covers(Collections.singletonList("org/apache/ibatis/builder/ProblemMapper.xml")));
+  }
+
+  @Test
+  public void shouldRestoreSameStatementsAsParsing() throws Exception {
+    Configuration parsed;
+    try (InputStream inputStream = Resources.getResourceAsStream(RESOURCE)) {
+      parsed = new SqlSessionFactoryBuilder().build(inputStream).getConfiguration();
+    }
+    Configuration restored = buildFromSnapshot().getConfiguration();
+
+    assertEquals(new HashSet<>(parsed.getMappedStatementNames()), new HashSet<>(restored.getMappedStatementNames()));
+    assertEquals(new HashSet<>(parsed.getResultMapNames()), new HashSet<>(restored.getResultMapNames()));
+    assertEquals(new HashSet<>(parsed.getParameterMapNames()), new HashSet<>(restored.getParameterMapNames()));
+    assertEquals(new HashSet<>(parsed.getCacheNames()), new HashSet<>(restored.getCacheNames()));
+    assertTrue(restored.hasMapper(BlogMapper.class));
+    assertTrue(restored.hasMapper(CachedAuthorMapper.class));
+
+    MappedStatement parsedStatement = parsed.getMappedStatement("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthorWithInlineParams");
+    MappedStatement restoredStatement = restored.getMappedStatement("org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthorWithInlineParams");
+    BoundSql parsedSql = parsedStatement.getBoundSql(101);
+    BoundSql restoredSql = restoredStatement.getBoundSql(101);
+    assertEquals(parsedSql.getSql(), restoredSql.getSql());
+    assertEquals(parsedSql.getParameterMappings().size(), restoredSql.getParameterMappings().size());
+    assertEquals(parsedSql.getParameterMappings().get(0).getTypeHandler().getClass(),
+        restoredSql.getParameterMappings().get(0).getTypeHandler().getClass());
+    assertNotNull(restored.getMappedStatement("org.apache.ibatis.builder.CachedAuthorMapper.selectAllAuthors").getCache());
+  }
+
+  @Test
+  public void shouldQueryWithRestoredStatements() throws Exception {
+    try (SqlSession session = buildFromSnapshot().openSession()) {
+      Blog blog = session.selectOne("org.apache.ibatis.domain.blog.mappers.BlogMapper.selectBlogWithPostsUsingSubSelect", 1);
+      assertEquals(1, blog.getId());
+      assertNotNull(blog.getAuthor());
+      assertEquals(2, blog.getPosts().size());
+    }
+  }
+
+  @Test
+  public void shouldNotRestoreSnapshotWithoutTheMappersOfAPackage() throws Exception {
+    ConfigurationSnapshot snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(snapshotBytes));
+    Configuration configuration;
+    try (InputStream inputStream = Resources.getResourceAsStream("org/apache/ibatis/submitted/autodiscover/MapperConfig.xml")) {
+      configuration = new SqlSessionFactoryBuilder().build(inputStream, snapshot).getConfiguration();
+    }
+    assertTrue(configuration.hasMapper(DummyMapper.class));
+    assertFalse(configuration.hasMapper(BlogMapper.class));
+  }
+
+  @Test(expected = BuilderException.class)
+  public void shouldRejectStreamThatIsNotASnapshot() throws Exception {
+    ConfigurationSnapshot.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+  }
+
+  private SqlSessionFactory buildFromSnapshot() throws Exception {
+    ConfigurationSnapshot snapshot = ConfigurationSnapshot.read(new ByteArrayInputStream(snapshotBytes));
+    try (InputStream inputStream = Resources.getResourceAsStream(RESOURCE)) {
+      return new SqlSessionFactoryBuilder().build(inputStream, snapshot);
+    }
+  }
+
+}
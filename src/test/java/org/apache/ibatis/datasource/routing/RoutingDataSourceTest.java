@@ -0,0 +1,123 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.routing;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.routing.RoutingDataSource.ReplicaSelection;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.junit.Test;
+
+public class RoutingDataSourceTest {
+
+  private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+  @Test
+  public void shouldReturnPrimaryConnection() throws Exception {
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), hsqldb("routing_replica"));
+    try (Connection connection = dataSource.getConnection()) {
+      assertEquals("jdbc:hsqldb:mem:routing_primary", connection.getMetaData().getURL());
+    }
+  }
+
+  @Test
+  public void shouldUseReplicasInTurn() throws Exception {
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), hsqldb("routing_a"), hsqldb("routing_b"));
+    String previous = null;
+    for (int i = 0; i < 4; i++) {
+      try (Connection connection = dataSource.getReplicaConnection()) {
+        String url = connection.getMetaData().getURL();
+        assertNotEquals(previous, url);
+        assertNotEquals("jdbc:hsqldb:mem:routing_primary", url);
+        previous = url;
+      }
+    }
+  }
+
+  @Test
+  public void shouldUseLeastActiveReplica() throws Exception {
+    PooledDataSource replicaA = new PooledDataSource(DRIVER, "jdbc:hsqldb:mem:routing_a", "sa", "");
+    PooledDataSource replicaB = new PooledDataSource(DRIVER, "jdbc:hsqldb:mem:routing_b", "sa", "");
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), replicaA, replicaB);
+    dataSource.setReplicaSelection(ReplicaSelection.LEAST_ACTIVE);
+    try (Connection busy = dataSource.getReplicaConnection()) {
+      String busyUrl = busy.getMetaData().getURL();
+      for (int i = 0; i < 3; i++) {
+        try (Connection connection = dataSource.getReplicaConnection()) {
+          assertNotEquals(busyUrl, connection.getMetaData().getURL());
+        }
+      }
+    } finally {
+      replicaA.forceCloseAll();
+      replicaB.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldEjectFailingReplica() throws Exception {
+    DataSource broken = new UnpooledDataSource(DRIVER, "jdbc:unknown:routing_broken", "sa", "");
+    DataSource replica = hsqldb("routing_replica");
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), broken, replica);
+    for (int i = 0; i < 2; i++) {
+      try (Connection connection = dataSource.getReplicaConnection()) {
+        assertEquals("jdbc:hsqldb:mem:routing_replica", connection.getMetaData().getURL());
+      }
+    }
+    assertTrue(dataSource.isEjected(broken));
+    assertFalse(dataSource.isEjected(replica));
+    dataSource.restore(broken);
+    assertFalse(dataSource.isEjected(broken));
+  }
+
+  @Test
+  public void shouldRetryReplicaAfterEjectionTime() throws Exception {
+    DataSource replica = hsqldb("routing_replica");
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), replica);
+    dataSource.setEjectionTime(0);
+    dataSource.eject(replica);
+    try (Connection connection = dataSource.getReplicaConnection()) {
+      assertNotNull(connection);
+    }
+    dataSource.setEjectionTime(60000);
+    dataSource.eject(replica);
+    assertNull(dataSource.getReplicaConnection());
+  }
+
+  @Test
+  public void shouldReturnNoConnectionWithoutAvailableReplica() throws SQLException {
+    DataSource broken = new UnpooledDataSource(DRIVER, "jdbc:unknown:routing_broken", "sa", "");
+    RoutingDataSource dataSource = new RoutingDataSource(hsqldb("routing_primary"), broken);
+    assertNull(dataSource.getReplicaConnection());
+    assertTrue(dataSource.isEjected(broken));
+    assertNull(new RoutingDataSource(hsqldb("routing_primary")).getReplicaConnection());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnknownReplica() {
+    new RoutingDataSource(hsqldb("routing_primary")).eject(hsqldb("routing_replica"));
+  }
+
+  private static DataSource hsqldb(String name) {
+    return new UnpooledDataSource(DRIVER, "jdbc:hsqldb:mem:" + name, "sa", "");
+  }
+
+}
@@ -17,6 +17,10 @@ package org.apache.ibatis.executor;
 
 import static org.junit.Assert.*;
 
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
 import org.junit.Test;
 
 public class ErrorContextTest {
@@ -55,4 +59,35 @@ public class ErrorContextTest {
     assertEquals(outer, recalled);
     assertEquals(outer, ErrorContext.instance());
   }
+
+  @Test
+  public void shouldRestoreTheStoredContext() {
+    ErrorContext context = ErrorContext.instance().resource("outer.xml").sql("select 1");
+    context.store().resource("inner.xml");
+    assertTrue(context.toString().contains("inner.xml"));
+    assertFalse(context.toString().contains("select 1"));
+    context.recall();
+    assertTrue(context.toString().contains("outer.xml"));
+    assertTrue(context.toString().contains("select 1"));
+    context.reset();
+  }
+
+  @Test
+  public void shouldDescribeTheRecordedStatement() {
+    Configuration configuration = new Configuration();
+    MappedStatement ms = new MappedStatement.Builder(configuration, "org.example.Mapper.select",
+        new StaticSqlSource(configuration, "select 1"), SqlCommandType.SELECT).resource("org/example/Mapper.xml").build();
+    ErrorContext context = ErrorContext.instance().statement(ms, ErrorContext.Activity.QUERY);
+    String description = context.toString();
+    assertTrue(description.contains("### The error may exist in org/example/Mapper.xml"));
+    assertTrue(description.contains("### The error may involve org.example.Mapper.select"));
+    assertTrue(description.contains("### The error occurred while executing a query"));
+
+    context.activity("doing something else");
+    assertTrue(context.toString().contains("### The error occurred while doing something else"));
+
+    context.statement(ms, ErrorContext.Activity.SETTING_PARAMETERS);
+    assertTrue(context.toString().contains("### The error may involve defaultParameterMap"));
+    context.reset();
+  }
 }
@@ -0,0 +1,204 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.Test;
+
+public class PipelinedBatchExecutorTest extends BaseExecutorTest {
+
+  public PipelinedBatchExecutorTest() {
+    config.setBatchPipelineThreshold(2);
+    config.setBatchPipelineDepth(1);
+  }
+
+  @Test
+  public void shouldFlushPipelinedBatchesInOrder() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      for (int i = 0; i < 7; i++) {
+        executor.update(insertStatement, new Author(200 + i, "someone" + i, "******", "someone@apache.org", null, Section.NEWS));
+      }
+      List<BatchResult> results = executor.flushStatements();
+      assertEquals(4, results.size());
+      int rows = 0;
+      for (BatchResult result : results) {
+        rows += result.getParameterObjects().size();
+      }
+      assertEquals(7, rows);
+      for (int i = 0; i < 7; i++) {
+        List<Author> authors = executor.query(selectStatement, 200 + i, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+        assertEquals("someone" + i, authors.get(0).getUsername());
+      }
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldReportFailingPipelinedBatch() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+      executor.update(insertStatement, new Author(300, "someone", "******", "someone@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(301, "someone", "******", "someone@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(101, "duplicate", "******", "someone@apache.org", null, Section.NEWS));
+      executor.update(insertStatement, new Author(302, "someone", "******", "someone@apache.org", null, Section.NEWS));
+      executor.flushStatements();
+      fail("Expected a BatchExecutorException");
+    } catch (BatchExecutorException e) {
+      assertEquals("insertAuthor", e.getFailingStatementId());
+      assertEquals(1, e.getSuccessfulBatchResults().size());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldNotExecuteBatchesQueuedAfterAFailingOne() throws Exception {
+    config.setBatchPipelineDepth(3);
+    CountDownLatch failure = new CountDownLatch(1);
+    List<Integer> executedBatches = Collections.synchronizedList(new ArrayList<>());
+    try (Connection connection = ds.getConnection()) {
+      connection.setAutoCommit(false);
+      Executor executor = createExecutor(new JdbcTransaction(batchConnection(connection, executedBatches, 0, failure)));
+      try {
+        MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+        for (int i = 0; i < 6; i++) {
+          executor.update(insertStatement, new Author(400 + i, "someone" + i, "******", "someone@apache.org", null, Section.NEWS));
+        }
+        failure.countDown();
+        executor.flushStatements();
+        fail("Expected a BatchExecutorException");
+      } catch (BatchExecutorException e) {
+        assertEquals(0, e.getSuccessfulBatchResults().size());
+        assertEquals(Collections.singletonList(0), executedBatches);
+      } finally {
+        executor.rollback(true);
+        executor.close(false);
+      }
+      assertEquals(Collections.singletonList(0), executedBatches);
+    }
+  }
+
+  @Test
+  public void shouldWaitForTheRunningBatchWhenRollingBackInterrupted() throws Exception {
+    config.setBatchPipelineDepth(3);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> executedBatches = Collections.synchronizedList(new ArrayList<>());
+    try (Connection connection = ds.getConnection()) {
+      connection.setAutoCommit(false);
+      Executor executor = createExecutor(new JdbcTransaction(batchConnection(connection, executedBatches, -1, release)));
+      try {
+        MappedStatement insertStatement = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+        for (int i = 0; i < 6; i++) {
+          executor.update(insertStatement, new Author(500 + i, "someone" + i, "******", "someone@apache.org", null, Section.NEWS));
+        }
+        new Thread(() -> {
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          release.countDown();
+        }).start();
+        Thread.currentThread().interrupt();
+        executor.rollback(true);
+        assertTrue(Thread.interrupted());
+        // the first batch was running, the others never start
+        assertEquals(Collections.singletonList(0), executedBatches);
+      } finally {
+        Thread.interrupted();
+        executor.close(false);
+      }
+      Thread.sleep(200);
+      assertEquals(Collections.singletonList(0), executedBatches);
+    }
+  }
+
+  /**
+   * Returns a connection whose prepared statements record the index of the batch they execute, each batch being
+   * prepared on a statement of its own. The first batch
+   * waits for the latch before it executes, and fails instead when its index is the failing one.
+   */
+  private static Connection batchConnection(Connection connection, List<Integer> executedBatches, int failingBatch,
+      CountDownLatch latch) {
+    AtomicInteger preparedStatements = new AtomicInteger();
+    return (Connection) Proxy.newProxyInstance(PipelinedBatchExecutorTest.class.getClassLoader(),
+        new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+          Object result = invoke(connection, method, args);
+          if (!"prepareStatement".equals(method.getName())) {
+            return result;
+          }
+          PreparedStatement statement = (PreparedStatement) result;
+          int batch = preparedStatements.getAndIncrement();
+          PreparedStatement statementProxy = (PreparedStatement) Proxy.newProxyInstance(
+              PipelinedBatchExecutorTest.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+              (p, m, a) -> {
+                if ("executeBatch".equals(m.getName())) {
+                  if (batch == 0) {
+                    latch.await(10, TimeUnit.SECONDS);
+                  }
+                  executedBatches.add(batch);
+                  if (batch == failingBatch) {
+                    throw new BatchUpdateException("Batch " + batch + " failed", new int[0]);
+                  }
+                }
+                return invoke(statement, m, a);
+              });
+          return statementProxy;
+        });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Override
+  protected Executor createExecutor(Transaction transaction) {
+    return new BatchExecutor(config, transaction);
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.bulk;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class InsertTemplateTest {
+
+  @Test
+  public void shouldRepeatRowConstructor() {
+    InsertTemplate template = InsertTemplate.parse("insert into users (id, name) values (?, upper(?)) returning id");
+    assertEquals(2, template.getPlaceholders());
+    assertEquals("insert into users (id, name) values (?, upper(?)) returning id", template.toSql(1));
+    assertEquals("insert into users (id, name) values (?, upper(?)), (?, upper(?)), (?, upper(?)) returning id", template.toSql(3));
+  }
+
+  @Test
+  public void shouldIgnoreQuotedText() {
+    InsertTemplate template = InsertTemplate.parse("INSERT INTO \"values\" (a, b) VALUES ('?) values (', ?)");
+    assertEquals(1, template.getPlaceholders());
+    assertEquals("INSERT INTO \"values\" (a, b) VALUES ('?) values (', ?), ('?) values (', ?)", template.toSql(2));
+  }
+
+  @Test
+  public void shouldNotParseStatementsThatCannotBeRepeated() {
+    assertNull(InsertTemplate.parse("insert into users (id, name) select ?, ? from dual"));
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, ?), (?, ?)"));
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, ?) on conflict (id) do update set name = ?"));
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, ?"));
+  }
+
+  @Test
+  public void shouldBuildCopyCommand() {
+    assertEquals("COPY users (id, name) FROM STDIN", InsertTemplate.parse("insert into users (id, name) values (?, ?)").toCopySql());
+    assertEquals("COPY mbtest.users FROM STDIN", InsertTemplate.parse("INSERT\n  INTO mbtest.users\n  VALUES (?,?)").toCopySql());
+  }
+
+  @Test
+  public void shouldNotBuildCopyCommandForExpressions() {
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, upper(?))").toCopySql());
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, 'a')").toCopySql());
+    assertNull(InsertTemplate.parse("insert into users (id, name) values (?, ?) returning id").toCopySql());
+  }
+
+}
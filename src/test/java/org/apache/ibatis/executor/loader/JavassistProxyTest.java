@@ -17,6 +17,7 @@ package org.apache.ibatis.executor.loader;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.Serializable;
@@ -70,4 +71,25 @@ public class JavassistProxyTest extends SerializableProxyTest {
     assertFalse(author.getClass().equals(author2.getClass()));
   }
 
+  @Test
+  public void shouldShareTheProxyClassOfAType() throws Exception {
+    Configuration configuration = new Configuration();
+    Object proxy1 = proxyFactory.createProxy(author, new ResultLoaderMap(), configuration, new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
+    Object proxy2 = proxyFactory.createProxy(author, new ResultLoaderMap(), configuration, new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
+    assertSame(proxy1.getClass(), proxy2.getClass());
+    assertEquals(author, proxy2);
+  }
+
+  @Test
+  public void shouldCopyTheResultObjectToItsProxy() throws Exception {
+    ResultLoaderMap loader = new ResultLoaderMap();
+    loader.addLoader("bio", null, null);
+    Author proxy = (Author) proxyFactory.createProxy(author, loader, new Configuration(), new DefaultObjectFactory(), new ArrayList<Class<?>>(), new ArrayList<Object>());
+    assertEquals(999, proxy.getId());
+    assertEquals("someone@somewhere.com", proxy.getEmail());
+    proxy.setBio("updated");
+    assertFalse(loader.hasLoader("bio"));
+    assertEquals("updated", proxy.getBio());
+  }
+
 }
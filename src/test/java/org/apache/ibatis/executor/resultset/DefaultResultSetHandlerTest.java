@@ -18,6 +18,8 @@ package org.apache.ibatis.executor.resultset;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -101,6 +103,70 @@ public class DefaultResultSetHandlerTest {
     assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
   }
 
+  @Test
+  public void shouldReadColumnByIndexWhenUseColumnIndexIsEnabled() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setUseColumnIndex(true);
+
+    final RowBounds rowBounds = new RowBounds(0, 100);
+    final DefaultResultSetHandler fastResultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+            null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, rowBounds);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(100);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = fastResultSetHandler.handleResultSets(stmt);
+    assertEquals(1, results.size());
+    assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
+    verify(rs, never()).getInt("CoLuMn1");
+  }
+
+  @Test
+  public void shouldReadTheMappedAndAutoMappedColumnsOfEveryRowByIndex() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    ms.getConfiguration().setUseColumnIndex(true);
+
+    final RowBounds rowBounds = new RowBounds(0, 100);
+    final DefaultResultSetHandler fastResultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+            null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, rowBounds);
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(1).thenReturn(2);
+    when(rs.getInt(2)).thenReturn(100).thenReturn(200);
+    when(rsmd.getColumnCount()).thenReturn(2);
+    when(rsmd.getColumnLabel(1)).thenReturn("id");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnLabel(2)).thenReturn("column1");
+    when(rsmd.getColumnType(2)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(2)).thenReturn(Integer.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = fastResultSetHandler.handleResultSets(stmt);
+    assertEquals(2, results.size());
+    assertEquals(Integer.valueOf(1), ((HashMap) results.get(0)).get("id"));
+    assertEquals(Integer.valueOf(100), ((HashMap) results.get(0)).get("cOlUmN1"));
+    assertEquals(Integer.valueOf(2), ((HashMap) results.get(1)).get("id"));
+    assertEquals(Integer.valueOf(200), ((HashMap) results.get(1)).get("cOlUmN1"));
+    verify(rs, never()).getInt("id");
+    verify(rs, never()).getInt("CoLuMn1");
+  }
+
   @Test
   public void shouldThrowExceptionWithColumnName() throws Exception {
     final MappedStatement ms = getMappedStatement();
@@ -0,0 +1,77 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.sharding;
+
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+public class OrderByTest {
+
+  @Test
+  public void shouldParseColumnsWithDirectionAndNullOrdering() {
+    OrderBy orderBy = OrderBy.parse("select a from t ORDER BY t.\"Name\" asc nulls last, id desc LIMIT 10");
+    List<OrderBy.Column> columns = orderBy.getColumns();
+    assertEquals(2, columns.size());
+    assertEquals("Name", columns.get(0).getName());
+    assertFalse(columns.get(0).isDescending());
+    assertFalse(columns.get(0).isNullsFirst());
+    assertTrue(columns.get(0).isNullsOrdered());
+    assertEquals("id", columns.get(1).getName());
+    assertTrue(columns.get(1).isDescending());
+    assertFalse(columns.get(1).isNullsOrdered());
+  }
+
+  @Test
+  public void shouldIgnoreNestedOrderBy() {
+    assertNull(OrderBy.parse("select * from (select * from t order by id) x"));
+    assertNull(OrderBy.parse("select row_number() over (order by id) from t"));
+    assertEquals("name", OrderBy.parse("select * from (select * from t order by id) x order by name").getColumns().get(0).getName());
+  }
+
+  @Test
+  public void shouldNotParseExpressions() {
+    assertNull(OrderBy.parse("select * from t order by lower(name)"));
+    assertNull(OrderBy.parse("select * from t order by 1"));
+    assertNull(OrderBy.parse("select * from t order by a + b"));
+  }
+
+  @Test
+  public void shouldCompareNullsInTheGivenOrder() {
+    OrderBy orderBy = OrderBy.parse("select * from t order by a nulls first, b desc nulls last");
+    assertTrue(orderBy.compare(new Object[] { null, 1 }, new Object[] { 1, 1 }) < 0);
+    assertTrue(orderBy.compare(new Object[] { 1, null }, new Object[] { 1, 2 }) > 0);
+    assertTrue(orderBy.compare(new Object[] { 1, 3 }, new Object[] { 1, 2 }) < 0);
+    assertEquals(0, orderBy.compare(new Object[] { 1L, 2 }, new Object[] { 1L, 2 }));
+  }
+
+  @Test
+  public void shouldOnlyMergeKeysOrderedLikeTheDatabase() {
+    OrderBy orderBy = OrderBy.parse("select * from t order by a, b nulls last");
+    assertTrue(orderBy.isMergeable(new Object[] { 1, null }));
+    assertTrue(orderBy.isMergeable(new Object[] { new Date(), true }));
+    assertTrue(orderBy.isMergeable(new Object[] { LocalDate.now(), 2.5 }));
+    assertFalse(orderBy.isMergeable(new Object[] { null, 1 }));
+    assertFalse(orderBy.isMergeable(new Object[] { "x", 1 }));
+    assertFalse(orderBy.isMergeable(new Object[] { UUID.randomUUID(), 1 }));
+  }
+
+}
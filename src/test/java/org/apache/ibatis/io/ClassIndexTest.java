@@ -0,0 +1,141 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.ibatis.domain.misc.CustomBeanWrapper;
+import org.apache.ibatis.domain.misc.Employee;
+import org.apache.ibatis.domain.misc.RichType;
+import org.apache.ibatis.domain.misc.generics.GenericInterface;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ClassIndexTest {
+
+  private static File indexRoot;
+  // only sees the indexed root
+  private static URLClassLoader indexedClassLoader;
+  // also sees the test classes, which have no index
+  private static URLClassLoader partiallyIndexedClassLoader;
+
+  @BeforeClass
+  public static void setUp() throws IOException {
+    indexRoot = File.createTempFile("mybatis", "index");
+    indexRoot.delete();
+    File indexFile = new File(indexRoot, ClassIndex.INDEX_RESOURCE);
+    indexFile.getParentFile().mkdirs();
+    try (Writer writer = new FileWriter(indexFile)) {
+      writer.write("# generated\n");
+      writer.write("C org.apache.ibatis.domain.misc.RichType\n");
+      writer.write("C org.apache.ibatis.domain.misc.Employee\n");
+      writer.write("I org.apache.ibatis.domain.misc.generics.GenericInterface\n");
+    }
+    for (Class<?> type : Arrays.asList(RichType.class, Employee.class, GenericInterface.class)) {
+      String classFile = type.getName().replace('.', '/') + ".class";
+      File target = new File(indexRoot, classFile);
+      target.getParentFile().mkdirs();
+      try (InputStream in = ClassIndexTest.class.getClassLoader().getResourceAsStream(classFile)) {
+        Files.copy(in, target.toPath());
+      }
+    }
+    URL[] urls = { indexRoot.toURI().toURL() };
+    indexedClassLoader = new URLClassLoader(urls, null);
+    partiallyIndexedClassLoader = new URLClassLoader(urls, ClassIndexTest.class.getClassLoader());
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    indexedClassLoader.close();
+    partiallyIndexedClassLoader.close();
+    delete(indexRoot);
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  @Test
+  public void shouldListIndexedTypesOfPackageAndSubpackages() {
+    ClassIndex index = ClassIndex.getInstance(indexedClassLoader);
+    assertTrue(index.isIndexed("org.apache.ibatis.domain.misc"));
+    assertTrue(index.isIndexed("org.apache.ibatis.domain"));
+    assertFalse(index.isIndexed("org.apache.ibatis.domain.blog"));
+    assertFalse(index.isIndexed("org.apache.ibatis.domain.mis"));
+    assertEquals(Arrays.asList("org.apache.ibatis.domain.misc.RichType", "org.apache.ibatis.domain.misc.Employee"),
+        index.getTypes("org.apache.ibatis.domain.misc", ClassIndex.Kind.CLASS));
+    assertEquals(Collections.singletonList("org.apache.ibatis.domain.misc.generics.GenericInterface"),
+        index.getTypes("org.apache.ibatis.domain.misc", ClassIndex.Kind.INTERFACE));
+    assertEquals(3, index.getTypes("org.apache.ibatis.domain", ClassIndex.Kind.ANY).size());
+  }
+
+  @Test
+  public void shouldResolveIndexedPackageWithoutScanning() {
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+    resolverUtil.setClassLoader(indexedClassLoader);
+    resolverUtil.find(new ResolverUtil.IsA(Object.class), "org.apache.ibatis.domain.misc", ClassIndex.Kind.CLASS);
+    assertEquals(new HashSet<>(Arrays.asList(RichType.class.getName(), Employee.class.getName())), names(resolverUtil.getClasses()));
+  }
+
+  @Test
+  public void shouldScanPackageFoundInRootWithoutIndex() {
+    assertFalse(ClassIndex.getInstance(partiallyIndexedClassLoader).isIndexed("org.apache.ibatis.domain.misc"));
+    assertFalse(ClassIndex.getInstance(partiallyIndexedClassLoader).isIndexed("org.apache.ibatis.domain"));
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+    resolverUtil.setClassLoader(partiallyIndexedClassLoader);
+    resolverUtil.find(new ResolverUtil.IsA(Object.class), "org.apache.ibatis.domain.misc", ClassIndex.Kind.CLASS);
+    assertTrue(names(resolverUtil.getClasses()).contains(CustomBeanWrapper.class.getName()));
+  }
+
+  @Test
+  public void shouldScanPackageMissingFromIndex() {
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+    resolverUtil.setClassLoader(partiallyIndexedClassLoader);
+    resolverUtil.find(new ResolverUtil.IsA(Object.class), "org.apache.ibatis.domain.blog", ClassIndex.Kind.CLASS);
+    assertTrue(resolverUtil.getClasses().size() > 2);
+  }
+
+  private static Set<String> names(Set<? extends Class<?>> classes) {
+    Set<String> names = new HashSet<>();
+    for (Class<?> type : classes) {
+      names.add(type.getName());
+    }
+    return names;
+  }
+
+}
@@ -21,9 +21,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.BaseDataTest;
@@ -75,6 +79,38 @@ public class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldServeManyConcurrentSessionsFromASmallPool() throws Exception {
+    PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    ds.setPoolTimeToWait(50);
+    ExecutorService executor = Executors.newFixedThreadPool(64);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        futures.add(executor.submit(() -> {
+          try (Connection con = ds.getConnection();
+               PreparedStatement st = con.prepareStatement("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+               ResultSet rs = st.executeQuery()) {
+            assertTrue(rs.next());
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(4, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(2000, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
   @Test
   public void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -91,6 +127,120 @@ public class PooledDataSourceTest extends BaseDataTest {
     c.close();
   }
 
+  @Test
+  public void shouldSkipRedundantSessionStateCalls() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:pool_state", "sa", "");
+    try {
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      c.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+      long avoided = ds.getPoolState().getAvoidedStateCallCount();
+      c.setAutoCommit(false);
+      assertFalse(c.getAutoCommit());
+      c.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+      assertEquals(Connection.TRANSACTION_READ_COMMITTED, c.getTransactionIsolation());
+      assertEquals(avoided + 4, ds.getPoolState().getAvoidedStateCallCount());
+      c.setAutoCommit(true);
+      assertTrue(c.getAutoCommit());
+      assertTrue(PooledDataSource.unwrapConnection(c).getAutoCommit());
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRollbackReturnedConnectionOnlyWhenAStatementRan() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:pool_rollback", "sa", "");
+    ds.setPoolMaximumActiveConnections(1);
+    try {
+      try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+        st.execute("CREATE TABLE items (id INT)");
+      }
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      c.commit();
+      long avoided = ds.getPoolState().getAvoidedRollbackCount();
+      c.close();
+      assertEquals(avoided + 1, ds.getPoolState().getAvoidedRollbackCount());
+
+      c = ds.getConnection();
+      try (Statement st = c.createStatement()) {
+        st.executeUpdate("INSERT INTO items (id) VALUES (1)");
+      }
+      avoided = ds.getPoolState().getAvoidedRollbackCount();
+      c.close();
+      assertEquals(avoided, ds.getPoolState().getAvoidedRollbackCount());
+
+      try (Connection c2 = ds.getConnection(); Statement st = c2.createStatement();
+           ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM items")) {
+        assertTrue(rs.next());
+        assertEquals(0, rs.getInt(1));
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldRollbackReturnedConnectionWhenAStatementPreparedBeforeCommitRan() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:pool_rollback_prepared", "sa", "");
+    ds.setPoolMaximumActiveConnections(1);
+    try {
+      try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+        st.execute("CREATE TABLE items (id INT)");
+      }
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      try (PreparedStatement ps = c.prepareStatement("INSERT INTO items (id) VALUES (1)")) {
+        c.commit();
+        ps.executeUpdate();
+      }
+      long avoided = ds.getPoolState().getAvoidedRollbackCount();
+      c.close();
+      assertEquals(avoided, ds.getPoolState().getAvoidedRollbackCount());
+
+      try (Connection c2 = ds.getConnection(); Statement st = c2.createStatement();
+           ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM items")) {
+        assertTrue(rs.next());
+        assertEquals(0, rs.getInt(1));
+      }
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldStopTrackingUnwrappedConnection() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:pool_unwrap", "sa", "");
+    try {
+      Connection c = ds.getConnection();
+      assertTrue(c.getAutoCommit());
+      PooledDataSource.unwrapConnection(c).setAutoCommit(false);
+      assertFalse(c.getAutoCommit());
+      c.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNotTrackSessionStateWhenDisabled() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:pool_untracked", "sa", "");
+    ds.setPoolTrackConnectionState(false);
+    try {
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      c.setAutoCommit(false);
+      assertFalse(c.getAutoCommit());
+      c.close();
+      assertEquals(0, ds.getPoolState().getAvoidedStateCallCount());
+      assertEquals(0, ds.getPoolState().getAvoidedRollbackCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Ignore("See the comments")
   @Test
   public void shouldReconnectWhenServerKilledLeakedConnection() throws Exception {
@@ -0,0 +1,137 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.statement.PreparedStatementHandler;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncJdbcLoggerTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Mock
+  private Log log;
+
+  @Test
+  public void shouldLogAQueryLikeTheLoggingProxies() {
+    AsyncJdbcLogger logger = new AsyncJdbcLogger();
+    MappedStatement ms = newMappedStatement("select *\n  from author where id = ?", Integer.class, StatementType.PREPARED);
+    BoundSql boundSql = ms.getBoundSql(101);
+    logger.log(log, ms, boundSql, AsyncJdbcLogger.Kind.QUERY, 1);
+    logger.close();
+    verify(log).debug("==>  Preparing: select * from author where id = ? ");
+    verify(log).debug("==> Parameters: 101(Integer)");
+    verify(log).debug("<==      Total: 1");
+  }
+
+  @Test
+  public void shouldTruncateLongValues() {
+    AsyncJdbcLogger logger = new AsyncJdbcLogger(16, 0, 5);
+    MappedStatement ms = newMappedStatement("update author set bio = ?", String.class, StatementType.PREPARED);
+    BoundSql boundSql = ms.getBoundSql("a very long biography");
+    logger.log(log, ms, boundSql, AsyncJdbcLogger.Kind.UPDATE, 3);
+    logger.close();
+    verify(log).debug("==> Parameters: a ver...(String)");
+    verify(log).debug("<==    Updates: 3");
+  }
+
+  @Test
+  public void shouldLogTheSqlOfPlainStatements() {
+    AsyncJdbcLogger logger = new AsyncJdbcLogger();
+    MappedStatement ms = newMappedStatement("select * from author", null, StatementType.STATEMENT);
+    logger.log(log, ms, ms.getBoundSql(null), AsyncJdbcLogger.Kind.CURSOR, 0);
+    logger.close();
+    verify(log).debug("==>  Executing: select * from author ");
+  }
+
+  @Test
+  public void shouldStartAnotherWriterAfterTheWriterStopped() throws Exception {
+    AsyncJdbcLogger logger = new AsyncJdbcLogger();
+    MappedStatement ms = newMappedStatement("select * from author", null, StatementType.STATEMENT);
+    logger.log(log, ms, ms.getBoundSql(null), AsyncJdbcLogger.Kind.CURSOR, 0);
+    logger.flush();
+    // the idle writer stops after a second
+    Thread.sleep(1500);
+    MappedStatement other = newMappedStatement("select * from blog", null, StatementType.STATEMENT);
+    logger.log(log, other, other.getBoundSql(null), AsyncJdbcLogger.Kind.CURSOR, 0);
+    logger.close();
+    verify(log).debug("==>  Executing: select * from author ");
+    verify(log).debug("==>  Executing: select * from blog ");
+  }
+
+  @Test
+  public void shouldLogAFailedExecution() throws Exception {
+    AsyncJdbcLogger logger = new AsyncJdbcLogger();
+    configuration.setAsyncJdbcLogger(logger);
+    configuration.setAsyncJdbcLogging(true);
+    MappedStatement ms = newMappedStatement("update author set bio = ?", String.class, StatementType.PREPARED);
+    SystemMetaObject.forObject(ms).setValue("statementLog", log);
+    when(log.isDebugEnabled()).thenReturn(true);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    when(ps.execute()).thenThrow(new SQLException("failed"));
+    PreparedStatementHandler handler = new PreparedStatementHandler(null, ms, "bio", RowBounds.DEFAULT, null, ms.getBoundSql("bio"));
+    try {
+      handler.update(ps);
+      fail("Should have thrown a SQLException");
+    } catch (SQLException e) {
+      assertEquals("failed", e.getMessage());
+    }
+    logger.close();
+    verify(log).debug("==>  Preparing: update author set bio = ? ");
+    verify(log).debug("==> Parameters: bio(String)");
+    verify(log, never()).debug(startsWith("<=="));
+  }
+
+  @Test
+  public void shouldRoundTheCapacityToAPowerOfTwo() {
+    assertEquals(8, new AsyncJdbcLogger(5, 0, 0).getCapacity());
+  }
+
+  private MappedStatement newMappedStatement(String sql, Class<?> parameterType, StatementType statementType) {
+    StaticSqlSource sqlSource = new StaticSqlSource(configuration, sql, parameterType == null
+        ? Collections.<ParameterMapping>emptyList()
+        : Collections.singletonList(new ParameterMapping.Builder(configuration, "value", parameterType).build()));
+    return new MappedStatement.Builder(configuration, "test", sqlSource, SqlCommandType.SELECT)
+        .statementType(statementType).build();
+  }
+
+}
@@ -0,0 +1,107 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InMemoryStatementMetricsTest extends BaseDataTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static InMemoryStatementMetrics metrics;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    createBlogDataSource();
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/builder/MapperConfig.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    metrics = new InMemoryStatementMetrics();
+    sqlSessionFactory.getConfiguration().setStatementMetricsListener(metrics);
+  }
+
+  @Before
+  public void resetMetrics() {
+    metrics.reset();
+  }
+
+  @Test
+  public void shouldRecordThePhasesOfAQuery() {
+    String statementId = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors";
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Author> authors = sqlSession.selectList(statementId);
+      assertThat(authors).hasSize(2);
+      // served by the local cache
+      sqlSession.selectList(statementId);
+    }
+    StatementMetrics statementMetrics = metrics.getMetrics(statementId);
+    assertThat(statementMetrics.getLatency(StatementPhase.BOUND_SQL).getCount()).isEqualTo(2);
+    assertThat(statementMetrics.getLatency(StatementPhase.PREPARE).getCount()).isEqualTo(1);
+    assertThat(statementMetrics.getLatency(StatementPhase.PARAMETERIZE).getCount()).isEqualTo(1);
+    assertThat(statementMetrics.getLatency(StatementPhase.EXECUTE).getCount()).isEqualTo(1);
+    assertThat(statementMetrics.getLatency(StatementPhase.RESULT_HANDLING).getCount()).isEqualTo(1);
+    assertThat(statementMetrics.getRowsFetched()).isEqualTo(2);
+    assertThat(statementMetrics.getRowsMapped()).isEqualTo(2);
+    assertThat(statementMetrics.getLocalCacheMisses()).isEqualTo(1);
+    assertThat(statementMetrics.getLocalCacheHits()).isEqualTo(1);
+    assertThat(statementMetrics.getCacheHits() + statementMetrics.getCacheMisses()).isEqualTo(0);
+    assertThat(metrics.getStatementIds()).contains(statementId);
+  }
+
+  @Test
+  public void shouldRecordSecondLevelCacheHits() {
+    String statementId = "org.apache.ibatis.builder.CachedAuthorMapper.selectAllAuthors";
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectList(statementId);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectList(statementId);
+    }
+    StatementMetrics statementMetrics = metrics.getMetrics(statementId);
+    assertThat(statementMetrics.getCacheHits()).isEqualTo(1);
+    assertThat(statementMetrics.getLatency(StatementPhase.EXECUTE).getCount()).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  public void shouldReportPercentilesAsBucketUpperBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(500);
+    histogram.record(1500);
+    histogram.record(3000);
+    histogram.record(10000);
+    assertThat(histogram.getCount()).isEqualTo(4);
+    assertThat(histogram.getMaxNanos()).isEqualTo(10000);
+    assertThat(histogram.getMeanNanos()).isEqualTo(3750);
+    assertThat(histogram.getPercentileNanos(50)).isEqualTo(2000);
+    assertThat(histogram.getPercentileNanos(100)).isEqualTo(16000);
+    histogram.reset();
+    assertThat(histogram.getCount()).isEqualTo(0);
+    assertThat(histogram.getPercentileNanos(99)).isEqualTo(0);
+  }
+
+}
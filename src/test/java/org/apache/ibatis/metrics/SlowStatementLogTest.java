@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SlowStatementLogTest extends BaseDataTest {
+
+  private static final String SELECT_ALL_AUTHORS = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAllAuthors";
+  private static final String SELECT_AUTHOR = "org.apache.ibatis.domain.blog.mappers.AuthorMapper.selectAuthorWithInlineParams";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  public interface UnmonitoredMapper {
+    @Select("select * from author")
+    @Options(largeResultThreshold = 0)
+    List<Author> selectAllAuthors();
+  }
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    createBlogDataSource();
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/builder/MapperConfig.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addMapper(UnmonitoredMapper.class);
+  }
+
+  @Before
+  public void resetSettings() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setSlowStatementThreshold(null);
+    configuration.setLargeResultThreshold(null);
+    configuration.setStatementSampleInterval(null);
+    configuration.setSlowStatementLog(new SlowStatementLog());
+  }
+
+  @Test
+  public void shouldCaptureLargeResults() {
+    sqlSessionFactory.getConfiguration().setLargeResultThreshold(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectList(SELECT_ALL_AUTHORS);
+      sqlSession.selectOne(SELECT_AUTHOR, 101);
+    }
+    List<SlowStatementRecord> records = sqlSessionFactory.getConfiguration().getSlowStatementLog().drain();
+    assertThat(records).hasSize(1);
+    SlowStatementRecord record = records.get(0);
+    assertThat(record.getStatementId()).isEqualTo(SELECT_ALL_AUTHORS);
+    assertThat(record.getReason()).isEqualTo(SlowStatementRecord.Reason.LARGE_RESULT);
+    assertThat(record.getRows()).isEqualTo(2);
+    assertThat(record.getSql()).containsIgnoringCase("from author");
+    assertThat(sqlSessionFactory.getConfiguration().getSlowStatementLog().getRecords()).isEmpty();
+  }
+
+  @Test
+  public void shouldCaptureTheParametersOfSampledExecutions() {
+    sqlSessionFactory.getConfiguration().setStatementSampleInterval(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectOne(SELECT_AUTHOR, 101);
+    }
+    List<SlowStatementRecord> records = sqlSessionFactory.getConfiguration().getSlowStatementLog().getRecords();
+    assertThat(records).hasSize(1);
+    assertThat(records.get(0).getReason()).isEqualTo(SlowStatementRecord.Reason.SAMPLED);
+    assertThat(records.get(0).getParameters()).containsExactly("101(Integer)");
+    assertThat(records.get(0).getRows()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldLetAStatementOverrideTheGlobalThreshold() {
+    sqlSessionFactory.getConfiguration().setLargeResultThreshold(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertThat(sqlSession.getMapper(UnmonitoredMapper.class).selectAllAuthors()).hasSize(2);
+    }
+    assertThat(sqlSessionFactory.getConfiguration().getSlowStatementLog().getRecords()).isEmpty();
+  }
+
+  @Test
+  public void shouldKeepTheLatestRecordsOnly() {
+    sqlSessionFactory.getConfiguration().setStatementSampleInterval(1);
+    sqlSessionFactory.getConfiguration().setSlowStatementLog(new SlowStatementLog(2));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.selectOne(SELECT_AUTHOR, 101);
+      sqlSession.selectOne(SELECT_AUTHOR, 102);
+      sqlSession.selectOne(SELECT_AUTHOR, 103);
+    }
+    List<SlowStatementRecord> records = sqlSessionFactory.getConfiguration().getSlowStatementLog().drain();
+    assertThat(records).hasSize(2);
+    assertThat(records.get(0).getParameters()).containsExactly("102(Integer)");
+    assertThat(records.get(1).getParameters()).containsExactly("103(Integer)");
+    assertThat(records.get(1).getRows()).isEqualTo(0);
+  }
+
+}
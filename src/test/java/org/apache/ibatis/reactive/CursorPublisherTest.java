@@ -0,0 +1,151 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reactive;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CursorPublisherTest {
+
+  @Mock
+  private Cursor<String> cursor;
+
+  private final AtomicInteger tasks = new AtomicInteger();
+
+  private final Executor executor = task -> {
+    tasks.incrementAndGet();
+    task.run();
+  };
+
+  @Test
+  public void shouldPublishOnDemandInChunks() throws Exception {
+    when(cursor.iterator()).thenReturn(Arrays.asList("a", "b", "c", "d", "e").iterator());
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> cursor, executor, 2).subscribe(subscriber);
+
+    assertEquals(0, tasks.get());
+    subscriber.subscription.request(3);
+    assertEquals(Arrays.asList("a", "b", "c"), subscriber.items);
+    assertEquals(2, tasks.get());
+    assertFalse(subscriber.completed);
+
+    subscriber.subscription.request(10);
+    assertEquals(Arrays.asList("a", "b", "c", "d", "e"), subscriber.items);
+    assertTrue(subscriber.completed);
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldCloseCursorOnCancel() throws Exception {
+    when(cursor.iterator()).thenReturn(Arrays.asList("a", "b", "c").iterator());
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> cursor, executor, 2).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(1);
+
+    assertEquals(Arrays.asList("a"), subscriber.items);
+    assertFalse(subscriber.completed);
+    assertNull(subscriber.error);
+    verify(cursor).close();
+  }
+
+  @Test
+  public void shouldNotOpenCursorBeforeRequest() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<String>(() -> {
+      throw new IllegalStateException("should not be opened");
+    }, executor, 2).subscribe(subscriber);
+
+    subscriber.subscription.cancel();
+    assertNull(subscriber.error);
+  }
+
+  @Test
+  public void shouldSignalErrorWhenCursorCannotBeOpened() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<String>(() -> {
+      throw new IllegalStateException("broken");
+    }, executor, 2).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+    assertEquals("broken", subscriber.error.getMessage());
+    assertTrue(subscriber.items.isEmpty());
+  }
+
+  @Test
+  public void shouldSignalErrorOnNonPositiveRequest() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    new CursorPublisher<>(() -> cursor, executor, 2).subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+    assertTrue(subscriber.error instanceof IllegalArgumentException);
+    assertTrue(subscriber.items.isEmpty());
+  }
+
+  @Test
+  public void shouldAcceptASingleSubscriber() {
+    CursorPublisher<String> publisher = new CursorPublisher<>(() -> cursor, executor, 2);
+    publisher.subscribe(new RecordingSubscriber());
+    RecordingSubscriber second = new RecordingSubscriber();
+    publisher.subscribe(second);
+
+    assertNotNull(second.subscription);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  private static class RecordingSubscriber implements Subscriber<String> {
+    private final List<String> items = new ArrayList<>();
+    private Subscription subscription;
+    private boolean completed;
+    private Throwable error;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(String item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
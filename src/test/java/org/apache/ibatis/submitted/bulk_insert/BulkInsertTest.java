@@ -0,0 +1,174 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_insert;
+
+import static org.junit.Assert.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BulkInsertTest {
+
+  private static final String NAMESPACE = Mapper.class.getName() + ".";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/bulk_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_insert/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldInsertAllRowsInChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        List<User> users = users(1, 5);
+        assertEquals(5, sqlSession.insertAll(NAMESPACE + "insertUser", users));
+        List<User> inserted = sqlSession.getMapper(Mapper.class).getUsers();
+        assertEquals(5, inserted.size());
+        for (int i = 0; i < 5; i++) {
+          assertEquals(Integer.valueOf(i + 1), inserted.get(i).getId());
+          assertEquals("User" + (i + 1), inserted.get(i).getName());
+          assertEquals("u" + (i + 1), inserted.get(i).getNickname());
+        }
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldAssignGeneratedKeysToEveryRow() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        List<User> users = users(null, 5);
+        assertEquals(5, sqlSession.insertAll(NAMESPACE + "insertUserWithGeneratedKey", users));
+        List<User> inserted = sqlSession.getMapper(Mapper.class).getUsers();
+        assertEquals(5, inserted.size());
+        for (int i = 0; i < 5; i++) {
+          assertEquals(inserted.get(i).getId(), users.get(i).getId());
+          assertEquals(users.get(i).getName(), inserted.get(i).getName());
+          assertEquals("U" + (i + 1), inserted.get(i).getNickname());
+        }
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldInsertRowsWithDifferentSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        List<User> users = users(1, 5);
+        users.get(1).setNickname(null);
+        users.get(2).setNickname(null);
+        assertEquals(5, sqlSession.insertAll(NAMESPACE + "insertUserDynamic", users));
+        List<User> inserted = sqlSession.getMapper(Mapper.class).getUsers();
+        assertEquals(5, inserted.size());
+        assertEquals("u1", inserted.get(0).getNickname());
+        assertNull(inserted.get(1).getNickname());
+        assertNull(inserted.get(2).getNickname());
+        assertEquals("u4", inserted.get(3).getNickname());
+        assertEquals("User5", inserted.get(4).getName());
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldRunStatementsWithoutValuesAsBatch() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        assertEquals(3, sqlSession.insertAll(NAMESPACE + "insertUserFromSelect", users(1, 3)));
+        assertEquals(3, sqlSession.getMapper(Mapper.class).getUsers().size());
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldFlushPendingBatchBeforeInsertingAll() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      try {
+        Mapper mapper = sqlSession.getMapper(Mapper.class);
+        mapper.insertUser(new User(1, "User1", "u1"));
+        assertEquals(2, sqlSession.insertAll(NAMESPACE + "insertUser", users(2, 2)));
+        assertEquals(3, mapper.getUsers().size());
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldInsertNothing() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(0, sqlSession.insertAll(NAMESPACE + "insertUser", Collections.emptyList()));
+    }
+  }
+
+  @Test
+  public void shouldRejectSelectStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.insertAll(NAMESPACE + "getUsers", Arrays.asList(new User()));
+      fail();
+    } catch (PersistenceException e) {
+      assertTrue(e.getCause() instanceof ExecutorException);
+    }
+  }
+
+  @Test
+  public void shouldRejectSelectKey() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.insertAll(NAMESPACE + "insertUserWithSelectKey", Arrays.asList(new User()));
+      fail();
+    } catch (PersistenceException e) {
+      assertTrue(e.getCause() instanceof ExecutorException);
+    }
+  }
+
+  private static List<User> users(Integer firstId, int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int n = (firstId == null ? 1 : firstId) + i;
+      users.add(new User(firstId == null ? null : n, "User" + n, "u" + n));
+    }
+    return users;
+  }
+
+}
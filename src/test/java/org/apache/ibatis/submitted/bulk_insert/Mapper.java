@@ -0,0 +1,50 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_insert;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectKey;
+
+public interface Mapper {
+
+  @Insert("insert into users (id, name, nickname) values (#{id}, #{name}, #{nickname})")
+  int insertUser(User user);
+
+  @Insert("insert into users (name, nickname) values (#{name}, upper(#{nickname}))")
+  @Options(useGeneratedKeys = true, keyProperty = "id")
+  int insertUserWithGeneratedKey(User user);
+
+  @Insert({ "<script>",
+      "insert into users (id, name<if test='nickname != null'>, nickname</if>)",
+      "values (#{id}, #{name}<if test='nickname != null'>, #{nickname}</if>)",
+      "</script>" })
+  int insertUserDynamic(User user);
+
+  @Insert("insert into users (id, name, nickname) select #{id}, #{name}, #{nickname} from (values(0))")
+  int insertUserFromSelect(User user);
+
+  @Insert("insert into users (name) values (#{name})")
+  @SelectKey(statement = "call next value for users_seq", keyProperty = "id", before = true, resultType = int.class)
+  int insertUserWithSelectKey(User user);
+
+  @Select("select * from users order by id")
+  List<User> getUsers();
+
+}
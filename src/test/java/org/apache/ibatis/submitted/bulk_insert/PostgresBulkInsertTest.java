@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_insert;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.test.EmbeddedPostgresqlTests;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import ru.yandex.qatools.embed.postgresql.EmbeddedPostgres;
+import ru.yandex.qatools.embed.postgresql.util.SocketUtil;
+
+@Category(EmbeddedPostgresqlTests.class)
+public class PostgresBulkInsertTest {
+
+  private static final String NAMESPACE = PostgresMapper.class.getName() + ".";
+
+  private static final EmbeddedPostgres postgres = new EmbeddedPostgres();
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // Launch PostgreSQL server. Download / unarchive if necessary.
+    String url = postgres.start(EmbeddedPostgres.cachedRuntimeConfig(Paths.get(System.getProperty("java.io.tmpdir"), "pgembed")), "localhost", SocketUtil.findFreePort(), "bulk_insert", "postgres", "root", Collections.emptyList());
+
+    Configuration configuration = new Configuration();
+    Environment environment = new Environment("development", new JdbcTransactionFactory(), new UnpooledDataSource(
+        "org.postgresql.Driver", url, null));
+    configuration.setEnvironment(environment);
+    configuration.setBulkInsertParameterLimit(8);
+    configuration.addMapper(PostgresMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_insert/CreatePostgresDB.sql");
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    postgres.stop();
+  }
+
+  @Test
+  public void shouldCopyRows() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        Date created = new Date(1514808000000L);
+        List<Item> items = new ArrayList<>();
+        items.add(new Item(1, "tab\tnew line\nback\\slash", new byte[] { 0, 1, (byte) 0xff }, new BigDecimal("12.50"), created));
+        items.add(new Item(2, null, null, null, null));
+        items.add(new Item(3, "\\N", new byte[0], new BigDecimal("1E+3"), created));
+        assertEquals(3, sqlSession.insertAll(NAMESPACE + "insertItem", items));
+
+        List<Item> copied = sqlSession.getMapper(PostgresMapper.class).getItems();
+        assertEquals(3, copied.size());
+        assertEquals("tab\tnew line\nback\\slash", copied.get(0).getName());
+        assertArrayEquals(new byte[] { 0, 1, (byte) 0xff }, copied.get(0).getData());
+        assertEquals(new BigDecimal("12.50"), copied.get(0).getAmount());
+        assertEquals(created, copied.get(0).getCreated());
+        assertNull(copied.get(1).getName());
+        assertNull(copied.get(1).getData());
+        assertNull(copied.get(1).getAmount());
+        assertNull(copied.get(1).getCreated());
+        assertEquals("\\N", copied.get(2).getName());
+        assertArrayEquals(new byte[0], copied.get(2).getData());
+        assertEquals(new BigDecimal("1000.00"), copied.get(2).getAmount());
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldCopyTimestampsWithTheOffsetOfTheJvm() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        String sessionTimeZone = "Pacific/Chatham".equals(TimeZone.getDefault().getID()) ? "America/Caracas" : "Pacific/Chatham";
+        try (Statement statement = sqlSession.getConnection().createStatement()) {
+          statement.execute("SET TIME ZONE '" + sessionTimeZone + "'");
+        }
+        Date created = new Date(1514808000000L);
+        List<Item> items = new ArrayList<>();
+        items.add(new Item(1, null, null, null, created));
+        items.add(new Item(2, null, null, null, created));
+        assertEquals(2, sqlSession.insertAll(NAMESPACE + "insertItemWithTimeZone", items));
+
+        PostgresMapper mapper = sqlSession.getMapper(PostgresMapper.class);
+        assertEquals(created, mapper.getCreatedWithTimeZone(1));
+        assertEquals(created, mapper.getCreatedWithTimeZone(2));
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+  @Test
+  public void shouldInsertMultipleRowsAndAssignGeneratedKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      try {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+          items.add(new Item(null, "Item" + i, new byte[] { (byte) i }, BigDecimal.valueOf(i), new Date()));
+        }
+        assertEquals(5, sqlSession.insertAll(NAMESPACE + "insertItemWithGeneratedKey", items));
+
+        List<Item> inserted = sqlSession.getMapper(PostgresMapper.class).getItems();
+        assertEquals(5, inserted.size());
+        for (int i = 0; i < 5; i++) {
+          assertNotNull(items.get(i).getId());
+          assertEquals(items.get(i).getId(), inserted.get(i).getId());
+          assertEquals("Item" + i, inserted.get(i).getName());
+        }
+      } finally {
+        sqlSession.rollback();
+      }
+    }
+  }
+
+}
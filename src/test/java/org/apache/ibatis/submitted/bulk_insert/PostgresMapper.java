@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_insert;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+
+public interface PostgresMapper {
+
+  @Insert("insert into mbtest.items (id, name, data, amount, created) values (#{id}, #{name}, #{data}, #{amount}, #{created})")
+  int insertItem(Item item);
+
+  @Insert("insert into mbtest.items (name, data, amount, created) values (#{name}, #{data}, #{amount}, #{created})")
+  @Options(useGeneratedKeys = true, keyProperty = "id")
+  int insertItemWithGeneratedKey(Item item);
+
+  @Insert("insert into mbtest.items (id, created_tz) values (#{id}, #{created})")
+  int insertItemWithTimeZone(Item item);
+
+  @Select("select created_tz from mbtest.items where id = #{id}")
+  Date getCreatedWithTimeZone(Integer id);
+
+  @Select("select * from mbtest.items order by id")
+  List<Item> getItems();
+
+}
@@ -105,4 +105,29 @@ public class CursorNestedTest {
       Assert.assertTrue(usersCursor.isConsumed());
     }
   }
+
+  @Test
+  public void shouldGetCompleteUsersFromOrderedAnnotatedStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Assert.assertTrue(sqlSessionFactory.getConfiguration()
+          .getMappedStatement("org.apache.ibatis.submitted.cursor_nested.Mapper.getAllUsersWithAnnotations").isResultOrdered());
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsersWithAnnotations();
+      Iterator<User> iterator = usersCursor.iterator();
+
+      User user = iterator.next();
+      Assert.assertEquals("User1", user.getName());
+      Assert.assertEquals(2, user.getGroups().size());
+      Assert.assertEquals(3, user.getRoles().size());
+
+      user = iterator.next();
+      Assert.assertEquals("User2", user.getName());
+      Assert.assertEquals(1, user.getGroups().size());
+      Assert.assertEquals(3, user.getRoles().size());
+
+      iterator.next();
+      iterator.next();
+      Assert.assertFalse(iterator.hasNext());
+      Assert.assertTrue(usersCursor.isConsumed());
+    }
+  }
 }
@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CursorPrefetchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+    sqlSessionFactory.getConfiguration().addMapper(FailingMapper.class);
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldGetAllUsersInOrder() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers()) {
+      List<String> names = new ArrayList<>();
+      for (User user : usersCursor) {
+        names.add(user.getName());
+        Assert.assertEquals(names.size() - 1, usersCursor.getCurrentIndex());
+      }
+      Assert.assertEquals(5, names.size());
+      Assert.assertEquals("User1", names.get(0));
+      Assert.assertEquals("User5", names.get(4));
+      Assert.assertTrue(usersCursor.isConsumed());
+      Assert.assertFalse(usersCursor.isOpen());
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBounds() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<User> usersCursor = sqlSession.selectCursor("org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers", null, new RowBounds(1, 3))) {
+      List<String> names = new ArrayList<>();
+      for (User user : usersCursor) {
+        names.add(user.getName());
+      }
+      Assert.assertEquals(3, names.size());
+      Assert.assertEquals("User2", names.get(0));
+      Assert.assertEquals("User4", names.get(2));
+      Assert.assertEquals(3, usersCursor.getCurrentIndex());
+      Assert.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  public void shouldStopPrefetchingWhenClosedEarly() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Iterator<User> iterator = usersCursor.iterator();
+      Assert.assertEquals("User1", iterator.next().getName());
+
+      usersCursor.close();
+      Assert.assertFalse(usersCursor.isOpen());
+      Assert.assertFalse(usersCursor.isConsumed());
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void shouldThrowMappingErrorWhenReached() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Cursor<FailingUser> usersCursor = sqlSession.getMapper(FailingMapper.class).getAllUsers()) {
+      Iterator<FailingUser> iterator = usersCursor.iterator();
+      Assert.assertEquals(Integer.valueOf(1), iterator.next().getId());
+      Assert.assertEquals(Integer.valueOf(2), iterator.next().getId());
+      try {
+        iterator.next();
+        Assert.fail("Should have thrown the mapping error of the third row");
+      } catch (ReflectionException e) {
+        // expected
+      }
+      Assert.assertFalse(usersCursor.isOpen());
+      Assert.assertFalse(iterator.hasNext());
+    }
+  }
+
+  public interface FailingMapper {
+
+    @Select("select * from users order by id")
+    Cursor<FailingUser> getAllUsers();
+
+  }
+
+  public static class FailingUser {
+
+    private Integer id;
+
+    public Integer getId() {
+      return id;
+    }
+
+    public void setId(Integer id) {
+      if (id == 3) {
+        throw new IllegalStateException("Cannot map user 3");
+      }
+      this.id = id;
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CursorStreamTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldStreamAllUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      try (Stream<User> users = usersCursor.stream()) {
+        List<String> names = users.map(User::getName).collect(Collectors.toList());
+        Assert.assertEquals(5, names.size());
+        Assert.assertEquals("User1", names.get(0));
+        Assert.assertEquals("User5", names.get(4));
+      }
+      Assert.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  public void shouldCloseCursorWhenStreamIsClosed() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      try (Stream<User> users = usersCursor.stream()) {
+        Assert.assertEquals("User1", users.findFirst().get().getName());
+        Assert.assertTrue(usersCursor.isOpen());
+      }
+      Assert.assertFalse(usersCursor.isOpen());
+      Assert.assertFalse(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  public void shouldEstimateSizeFromRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.selectCursor("getAllUsers", null, new RowBounds(1, 3));
+      Spliterator<User> spliterator = usersCursor.spliterator();
+      Assert.assertEquals(3, spliterator.estimateSize());
+      Assert.assertTrue(spliterator.tryAdvance(user -> Assert.assertEquals("User2", user.getName())));
+      Assert.assertEquals(2, spliterator.estimateSize());
+      Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+    }
+  }
+
+  @Test
+  public void shouldSplitOffBlocksOfMappedUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      Spliterator<User> spliterator = usersCursor.spliterator();
+      Assert.assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+      Spliterator<User> block = spliterator.trySplit();
+      Assert.assertNotNull(block);
+      Assert.assertEquals(5, block.estimateSize());
+      Assert.assertNull(spliterator.trySplit());
+      Assert.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  public void shouldProcessUsersInParallel() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession();
+         Stream<User> users = sqlSession.getMapper(Mapper.class).getAllUsers().stream()) {
+      Assert.assertEquals(15, users.parallel().mapToInt(User::getId).sum());
+    }
+  }
+
+}
@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.reactive.Publisher;
+import org.apache.ibatis.reactive.Subscriber;
+import org.apache.ibatis.reactive.Subscription;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PublisherTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addMapper(PublisherMapper.class);
+
+    // populate in-memory database
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  public void shouldPublishUsersOnDemand() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Publisher<User> users = sqlSession.getMapper(PublisherMapper.class).getAllUsersAsPublisher();
+      QueueSubscriber subscriber = new QueueSubscriber();
+      users.subscribe(subscriber);
+
+      subscriber.subscription.request(2);
+      Assert.assertEquals("User1", subscriber.next());
+      Assert.assertEquals("User2", subscriber.next());
+      Assert.assertNull(subscriber.signals.poll(100, TimeUnit.MILLISECONDS));
+
+      subscriber.subscription.request(Long.MAX_VALUE);
+      Assert.assertEquals("User3", subscriber.next());
+      Assert.assertEquals("User4", subscriber.next());
+      Assert.assertEquals("User5", subscriber.next());
+      Assert.assertEquals(QueueSubscriber.COMPLETE, subscriber.next());
+      Assert.assertFalse(subscriber.threads.contains(Thread.currentThread()));
+    }
+  }
+
+  @Test
+  public void shouldPublishWithRowBounds() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Publisher<User> users = sqlSession.selectPublisher("getAllUsers", null, new RowBounds(3, 10));
+      QueueSubscriber subscriber = new QueueSubscriber();
+      users.subscribe(subscriber);
+
+      subscriber.subscription.request(10);
+      Assert.assertEquals("User4", subscriber.next());
+      Assert.assertEquals("User5", subscriber.next());
+      Assert.assertEquals(QueueSubscriber.COMPLETE, subscriber.next());
+    }
+  }
+
+  public interface PublisherMapper {
+
+    @Select("select * from users order by id")
+    Publisher<User> getAllUsersAsPublisher();
+
+  }
+
+  private static class QueueSubscriber implements Subscriber<User> {
+
+    private static final String COMPLETE = "complete";
+
+    private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private volatile Subscription subscription;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(User item) {
+      if (!threads.contains(Thread.currentThread())) {
+        threads.add(Thread.currentThread());
+      }
+      signals.add(item.getName());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      signals.add(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      signals.add(COMPLETE);
+    }
+
+    private Object next() throws InterruptedException {
+      Object signal = signals.poll(5, TimeUnit.SECONDS);
+      Assert.assertNotNull("No signal received", signal);
+      return signal;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2018 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.submitted.nested_query_cache;
 
+import java.util.List;
+
 import org.apache.ibatis.domain.blog.Blog;
 
 public interface BlogMapper {
@@ -23,4 +25,8 @@ public interface BlogMapper {
 
   Blog selectBlogUsingConstructor(int id);
 
+  List<Blog> selectBlogs();
+
+  Blog selectBlogWithPostsOfBlog(int id);
+
 }
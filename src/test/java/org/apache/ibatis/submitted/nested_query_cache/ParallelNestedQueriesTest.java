@@ -0,0 +1,126 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.nested_query_cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.domain.blog.Blog;
+import org.apache.ibatis.domain.blog.Post;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelNestedQueriesTest extends BaseDataTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static CountingExecutor asyncExecutor;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/nested_query_cache/MapperConfig.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    asyncExecutor = new CountingExecutor();
+    sqlSessionFactory.getConfiguration().setParallelNestedQueries(true);
+    sqlSessionFactory.getConfiguration().setAsyncExecutor(asyncExecutor);
+
+    createBlogDataSource();
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    asyncExecutor.shutdown();
+  }
+
+  @Test
+  public void shouldLoadNestedQueriesOfAllRowsConcurrently() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      int executed = asyncExecutor.executed.get();
+      List<Blog> blogs = sqlSession.getMapper(BlogMapper.class).selectBlogs();
+      assertEquals(2, blogs.size());
+      assertEquals(101, blogs.get(0).getAuthor().getId());
+      assertEquals(2, blogs.get(0).getPosts().size());
+      assertEquals(102, blogs.get(1).getAuthor().getId());
+      assertEquals(2, blogs.get(1).getPosts().size());
+      // an author and the posts of each blog
+      assertEquals(executed + 4, asyncExecutor.executed.get());
+    }
+  }
+
+  @Test
+  public void shouldPutConcurrentNestedQueriesIntoTheLocalCache() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<Blog> blogs = sqlSession.getMapper(BlogMapper.class).selectBlogs();
+      List<Post> posts = sqlSession.selectList("org.apache.ibatis.submitted.nested_query_cache.BlogMapper.selectPostsForBlog", 1);
+      assertSame(blogs.get(0).getPosts(), posts);
+    }
+  }
+
+  @Test
+  public void shouldResolveCircularNestedQueriesOnTheSessionExecutor() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      int executed = asyncExecutor.executed.get();
+      Blog blog = sqlSession.getMapper(BlogMapper.class).selectBlogWithPostsOfBlog(1);
+      assertEquals(2, blog.getPosts().size());
+      assertSame(blog, blog.getPosts().get(0).getBlog());
+      assertSame(blog, blog.getPosts().get(1).getBlog());
+      // the posts have nested selects, so they do not run concurrently
+      assertEquals(executed, asyncExecutor.executed.get());
+    }
+  }
+
+  @Test
+  public void shouldLoadNestedQueriesInSequenceWithAResultHandler() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      int executed = asyncExecutor.executed.get();
+      sqlSession.select("org.apache.ibatis.submitted.nested_query_cache.BlogMapper.selectBlogs", context -> {
+        Blog blog = (Blog) context.getResultObject();
+        assertEquals(blog.getId() == 1 ? 101 : 102, blog.getAuthor().getId());
+        assertEquals(2, blog.getPosts().size());
+      });
+      assertEquals(executed, asyncExecutor.executed.get());
+    }
+  }
+
+  private static class CountingExecutor extends ThreadPoolExecutor {
+
+    private final AtomicInteger executed = new AtomicInteger();
+
+    CountingExecutor() {
+      super(2, 2, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      executed.incrementAndGet();
+      super.execute(command);
+    }
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.read_only_session;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionException;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadOnlySessionTest {
+
+  private PooledDataSource dataSource;
+  private ReadOnlyRecorder recorder;
+  private SqlSessionFactory sqlSessionFactory;
+
+  @Before
+  public void setUp() throws Exception {
+    dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:read_only_session", "sa", "");
+    dataSource.setPoolMaximumActiveConnections(1);
+    BaseDataTest.runScript(dataSource, "org/apache/ibatis/submitted/read_only_session/CreateDB.sql");
+    Configuration configuration = new Configuration(new Environment("development", new JdbcTransactionFactory(), dataSource));
+    recorder = new ReadOnlyRecorder();
+    configuration.addInterceptor(recorder);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  public void shouldSetConnectionReadOnlyUntilSessionIsClosed() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openReadOnlySession()) {
+      assertEquals("User1", sqlSession.getMapper(Mapper.class).getName(1));
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertUser(2, "User2"));
+      sqlSession.commit();
+    }
+    assertEquals(Arrays.asList(true, false), recorder.getReadOnly());
+  }
+
+  @Test
+  public void shouldRejectWritesInReadOnlySession() {
+    try (SqlSession sqlSession = sqlSessionFactory.openReadOnlySession()) {
+      try {
+        sqlSession.getMapper(Mapper.class).insertUser(3, "User3");
+        fail();
+      } catch (SqlSessionException e) {
+        assertTrue(e.getMessage().contains("read-only"));
+      }
+    }
+    assertTrue(recorder.getReadOnly().isEmpty());
+  }
+
+  @Test
+  public void shouldFillSecondLevelCacheWithoutCommit() {
+    String namespace = Mapper.class.getName();
+    try (SqlSession sqlSession = sqlSessionFactory.openReadOnlySession()) {
+      assertEquals("User1", sqlSession.getMapper(Mapper.class).getName(1));
+      assertEquals(1, sqlSessionFactory.getConfiguration().getCache(namespace).getSize());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals("User1", sqlSession.getMapper(Mapper.class).getName(1));
+    }
+    assertEquals(1, recorder.getReadOnly().size());
+  }
+
+  @Test
+  public void shouldOpenReadOnlySessionsForSelectsOfSqlSessionManager() {
+    sqlSessionFactory.getConfiguration().setReadOnlySelectSessions(true);
+    SqlSessionManager manager = SqlSessionManager.newInstance(sqlSessionFactory);
+    Mapper mapper = manager.getMapper(Mapper.class);
+    assertEquals(1, mapper.insertUser(4, "User4"));
+    sqlSessionFactory.getConfiguration().getCache(Mapper.class.getName()).clear();
+    assertEquals("User4", mapper.getName(4));
+    assertEquals(Arrays.asList(false, true), recorder.getReadOnly());
+  }
+
+}
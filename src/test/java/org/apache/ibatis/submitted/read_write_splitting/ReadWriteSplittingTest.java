@@ -0,0 +1,116 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.read_write_splitting;
+
+import static org.junit.Assert.*;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.datasource.routing.RoutingDataSource;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ReadWriteSplittingTest {
+
+  private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+  private static DataSource primary;
+  private static DataSource replica;
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    primary = new UnpooledDataSource(DRIVER, "jdbc:hsqldb:mem:rw_primary", "sa", "");
+    replica = new PooledDataSource(DRIVER, "jdbc:hsqldb:mem:rw_replica", "sa", "");
+    BaseDataTest.runScript(primary, "org/apache/ibatis/submitted/read_write_splitting/CreatePrimaryDB.sql");
+    BaseDataTest.runScript(replica, "org/apache/ibatis/submitted/read_write_splitting/CreateReplicaDB.sql");
+    sqlSessionFactory = newSqlSessionFactory(new RoutingDataSource(primary, replica));
+  }
+
+  private static SqlSessionFactory newSqlSessionFactory(DataSource dataSource) {
+    Configuration configuration = new Configuration(new Environment("development", new JdbcTransactionFactory(), dataSource));
+    configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    configuration.addMapper(Mapper.class);
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  public void shouldReadFromReplicaOutsideWriteTransaction() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("replica", mapper.getName(1));
+      assertEquals("replica", mapper.getName(1));
+    }
+  }
+
+  @Test
+  public void shouldReadFromPrimaryInsideWriteTransaction() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("replica", mapper.getName(1));
+      mapper.insertUser(2, "inserted");
+      assertEquals("primary", mapper.getName(1));
+      assertEquals("inserted", mapper.getName(2));
+      sqlSession.rollback();
+      assertEquals("replica", mapper.getName(1));
+    }
+  }
+
+  @Test
+  public void shouldReadFromReplicaAfterEachAutoCommittedWrite() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(3, "committed");
+      assertEquals("replica", mapper.getName(1));
+      assertNull(mapper.getName(3));
+    }
+  }
+
+  @Test
+  public void shouldFollowStatementRoute() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("primary", mapper.getNameFromPrimary(1));
+      assertEquals("replica", mapper.getName(1));
+      mapper.insertUser(4, "inserted");
+      assertEquals("replica", mapper.getNameFromReplica(1));
+      assertEquals("primary", mapper.getName(1));
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  public void shouldReadFromPrimaryWhenNoReplicaIsAvailable() {
+    DataSource broken = new UnpooledDataSource(DRIVER, "jdbc:unknown:rw_replica", "sa", "");
+    RoutingDataSource dataSource = new RoutingDataSource(primary, broken);
+    try (SqlSession sqlSession = newSqlSessionFactory(dataSource).openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("primary", mapper.getName(1));
+      assertTrue(dataSource.isEjected(broken));
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sharding;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  @Insert("insert into users (id, tenant_id, name) values (#{id}, #{tenantId}, #{name})")
+  int insertUser(User user);
+
+  @Insert("insert into users (id, tenant_id, name) values (#{id}, 0, #{name})")
+  int insertUserWithoutTenant(@Param("id") int id, @Param("name") String name);
+
+  @Select("select * from users where tenant_id = #{tenantId} order by id")
+  List<User> getUsersOfTenant(@Param("tenantId") int tenantId);
+
+  @Select("select * from users order by id desc")
+  List<User> getUsersByIdDesc();
+
+  @Select("select * from users order by id")
+  List<User> getUsersById(RowBounds rowBounds);
+
+  @Select("select * from users order by id")
+  @ResultType(User.class)
+  void selectUsersById(ResultHandler<User> resultHandler);
+
+  @Select("select * from users order by name")
+  List<User> getUsersByName(RowBounds rowBounds);
+
+  @Select("select count(*) from users")
+  List<Integer> countUsersOfEachShard();
+
+  @Update("update users set name = #{name} where tenant_id = #{tenantId} and id = #{id}")
+  int updateUser(User user);
+
+  @Delete("delete from users where name like #{prefix}")
+  int deleteUsersByPrefix(String prefix);
+
+}
@@ -0,0 +1,262 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.sharding;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.sharding.PropertyShardKeyExtractor;
+import org.apache.ibatis.executor.sharding.Sharding;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ShardingTest {
+
+  private static final String DRIVER = "org.hsqldb.jdbcDriver";
+
+  private static final List<DataSource> shards = new ArrayList<>();
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    List<Environment> environments = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      DataSource dataSource = new UnpooledDataSource(DRIVER, "jdbc:hsqldb:mem:shard" + i, "sa", "");
+      shards.add(dataSource);
+      environments.add(new Environment("shard" + i, new JdbcTransactionFactory(), dataSource));
+    }
+    Configuration configuration = new Configuration();
+    configuration.setMapUnderscoreToCamelCase(true);
+    // tenants are routed to the shard tenantId % 3
+    configuration.setSharding(new Sharding(environments, new PropertyShardKeyExtractor("tenantId")));
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Before
+  public void createTables() throws Exception {
+    for (DataSource shard : shards) {
+      BaseDataTest.runScript(shard, "org/apache/ibatis/submitted/sharding/CreateDB.sql");
+    }
+  }
+
+  private void insertUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User(1, 1, "alice"));
+      mapper.insertUser(new User(2, 2, "bob"));
+      mapper.insertUser(new User(3, 3, "carol"));
+      mapper.insertUser(new User(4, 4, "dave"));
+      mapper.insertUser(new User(5, 5, "eve"));
+      mapper.insertUser(new User(6, 6, "frank"));
+      sqlSession.commit();
+    }
+  }
+
+  private static int countRows(int shard) throws Exception {
+    try (Connection connection = shards.get(shard).getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("select count(*) from users")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  private static List<String> names(List<User> users) {
+    List<String> names = new ArrayList<>();
+    for (User user : users) {
+      names.add(user.getName());
+    }
+    return names;
+  }
+
+  @Test
+  public void shouldInsertOnTheShardOfTheTenant() throws Exception {
+    insertUsers();
+    assertEquals(2, countRows(0));
+    assertEquals(2, countRows(1));
+    assertEquals(2, countRows(2));
+  }
+
+  @Test
+  public void shouldQueryTheShardOfTheTenant() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsersOfTenant(4);
+      assertEquals(1, users.size());
+      assertEquals("dave", users.get(0).getName());
+      assertEquals(Integer.valueOf(4), users.get(0).getTenantId());
+    }
+  }
+
+  @Test
+  public void shouldMergeOrderedResultsOfAllShards() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("frank", "eve", "dave", "carol", "bob", "alice"), names(mapper.getUsersByIdDesc()));
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsToMergedResults() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList("bob", "carol", "dave"), names(mapper.getUsersById(new RowBounds(1, 3))));
+      assertEquals(Arrays.asList("eve", "frank"), names(mapper.getUsersById(new RowBounds(4, 10))));
+      assertEquals(Arrays.asList("alice", "bob", "carol", "dave", "eve", "frank"), names(mapper.getUsersById(RowBounds.DEFAULT)));
+    }
+  }
+
+  @Test
+  public void shouldPassMergedResultsToResultHandler() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<String> names = new ArrayList<>();
+      mapper.selectUsersById(context -> {
+        names.add(context.getResultObject().getName());
+        if (names.size() == 4) {
+          context.stop();
+        }
+      });
+      assertEquals(Arrays.asList("alice", "bob", "carol", "dave"), names);
+    }
+  }
+
+  @Test
+  public void shouldNotMergeResultsOrderedByStrings() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      // the order of strings depends on the collation of each database
+      List<String> names = names(mapper.getUsersByName(RowBounds.DEFAULT));
+      assertEquals(Arrays.asList("carol", "frank", "alice", "dave", "bob", "eve"), names);
+    }
+  }
+
+  @Test
+  public void shouldFailToApplyRowBoundsToResultsThatCannotBeMerged() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try {
+        mapper.getUsersByName(new RowBounds(1, 3));
+        fail();
+      } catch (PersistenceException e) {
+        assertTrue(e.getCause() instanceof ExecutorException);
+      }
+    }
+  }
+
+  @Test
+  public void shouldConcatenateUnorderedResultsOfAllShards() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(Arrays.asList(2, 2, 2), mapper.countUsersOfEachShard());
+    }
+  }
+
+  @Test
+  public void shouldUpdateTheShardOfTheTenant() {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.updateUser(new User(5, 5, "eva")));
+      assertEquals(0, mapper.updateUser(new User(5, 2, "eva")));
+      assertEquals("eva", mapper.getUsersOfTenant(5).get(0).getName());
+    }
+  }
+
+  @Test
+  public void shouldDeleteOnAllShardsWithoutShardKey() throws Exception {
+    insertUsers();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User(7, 7, "anne"));
+      assertEquals(2, mapper.deleteUsersByPrefix("a%"));
+      sqlSession.commit();
+    }
+    assertEquals(2, countRows(0));
+    assertEquals(1, countRows(1));
+    assertEquals(2, countRows(2));
+  }
+
+  @Test
+  public void shouldRollbackAllShards() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUser(new User(1, 1, "alice"));
+      mapper.insertUser(new User(2, 2, "bob"));
+      mapper.insertUser(new User(3, 3, "carol"));
+      sqlSession.rollback();
+    }
+    assertEquals(0, countRows(0));
+    assertEquals(0, countRows(1));
+    assertEquals(0, countRows(2));
+  }
+
+  @Test
+  public void shouldFailToInsertWithoutShardKey() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try {
+        mapper.insertUserWithoutTenant(1, "alice");
+        fail();
+      } catch (PersistenceException e) {
+        assertTrue(e.getCause() instanceof ExecutorException);
+      }
+    }
+    assertEquals(0, countRows(0));
+  }
+
+  @Test
+  public void shouldInsertAllOnTheShardsOfTheTenants() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      int count = sqlSession.insertAll("org.apache.ibatis.submitted.sharding.Mapper.insertUser", Arrays.asList(
+          new User(1, 1, "alice"), new User(2, 2, "bob"), new User(3, 3, "carol"), new User(4, 4, "dave")));
+      assertEquals(4, count);
+      sqlSession.commit();
+    }
+    assertEquals(1, countRows(0));
+    assertEquals(2, countRows(1));
+    assertEquals(1, countRows(2));
+  }
+
+}
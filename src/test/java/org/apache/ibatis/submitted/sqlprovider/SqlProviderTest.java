@@ -27,8 +27,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.CacheableProvider;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.builder.BuilderException;
@@ -53,6 +55,7 @@ public class SqlProviderTest {
         .getResourceAsReader("org/apache/ibatis/submitted/sqlprovider/mybatis-config.xml")) {
       sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
       sqlSessionFactory.getConfiguration().addMapper(StaticMethodSqlProviderMapper.class);
+      sqlSessionFactory.getConfiguration().addMapper(CacheableProviderMapper.class);
     }
 
     // populate in-memory database
@@ -470,6 +473,33 @@ public class SqlProviderTest {
     void multipleProviderContext();
   }
 
+  @Test
+  public void shouldReuseTheSqlOfCacheableProviders() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      CacheableProviderMapper mapper = sqlSession.getMapper(CacheableProviderMapper.class);
+      assertEquals("User1", mapper.selectUsersOrderedBy("User%", "id").get(0).getName());
+      assertEquals("User1", mapper.selectUsersOrderedBy("User%", "id").get(0).getName());
+      assertEquals("User1", mapper.selectUsersOrderedBy("User%", "id").get(0).getName());
+      assertEquals("User4", mapper.selectUsersOrderedBy("User%", "id desc").get(0).getName());
+      assertEquals("User1", mapper.selectUserById(1).getName());
+      assertEquals("User2", mapper.selectUserById(2).getName());
+    }
+    // the SQL of the keyed method is only built for new keys
+    assertEquals(2, CacheableProviderMapper.CacheableSqlProvider.keyedInvocations.get());
+    // one provider instance per statement
+    assertEquals(2, CacheableProviderMapper.CacheableSqlProvider.instances.get());
+
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    ProviderSqlSource keyed = (ProviderSqlSource) configuration
+        .getMappedStatement(CacheableProviderMapper.class.getName() + ".selectUsersOrderedBy").getSqlSource();
+    assertEquals(2, keyed.getCacheHits());
+    assertEquals(2, keyed.getCacheMisses());
+    ProviderSqlSource byText = (ProviderSqlSource) configuration
+        .getMappedStatement(CacheableProviderMapper.class.getName() + ".selectUserById").getSqlSource();
+    assertEquals(1, byText.getCacheHits());
+    assertEquals(1, byText.getCacheMisses());
+  }
+
   public static class ErrorSqlBuilder {
     public void methodNotFound() {
       throw new UnsupportedOperationException("methodNotFound");
@@ -538,4 +568,39 @@ public class SqlProviderTest {
 
   }
 
+  public interface CacheableProviderMapper {
+    @SelectProvider(type = CacheableSqlProvider.class, method = "selectUsersOrderedBy")
+    List<User> selectUsersOrderedBy(@Param("name") String name, @Param("orderBy") String orderBy);
+
+    @SelectProvider(type = CacheableSqlProvider.class, method = "selectUserById")
+    User selectUserById(Integer id);
+
+    class CacheableSqlProvider {
+
+      static final AtomicInteger instances = new AtomicInteger();
+      static final AtomicInteger keyedInvocations = new AtomicInteger();
+
+      public CacheableSqlProvider() {
+        instances.incrementAndGet();
+      }
+
+      public String orderByKey(@Param("name") String name, @Param("orderBy") String orderBy) {
+        return orderBy;
+      }
+
+      @CacheableProvider(keyMethod = "orderByKey")
+      public String selectUsersOrderedBy(@Param("name") String name, @Param("orderBy") String orderBy) {
+        keyedInvocations.incrementAndGet();
+        return "SELECT * FROM users WHERE name LIKE #{name} ORDER BY " + orderBy;
+      }
+
+      @CacheableProvider
+      public String selectUserById(Integer id) {
+        return "SELECT * FROM users WHERE id = #{id}";
+      }
+
+    }
+
+  }
+
 }
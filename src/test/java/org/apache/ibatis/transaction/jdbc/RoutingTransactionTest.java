@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.transaction.jdbc;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.datasource.routing.RoutingDataSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RoutingTransactionTest {
+
+  @Mock
+  private DataSource primary;
+
+  @Mock
+  private DataSource replica;
+
+  @Mock
+  private Connection replicaConnection;
+
+  @Test
+  public void shouldCloseReplicaConnectionWhenReadOnlyCannotBeReset() throws Exception {
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(replicaConnection.getAutoCommit()).thenReturn(true);
+    doThrow(new SQLException("closed by the server")).when(replicaConnection).setReadOnly(false);
+
+    RoutingTransaction transaction = new RoutingTransaction(new RoutingDataSource(primary, replica), null, false);
+    assertSame(replicaConnection, transaction.getConnection(select()));
+    transaction.close();
+
+    verify(replicaConnection).close();
+  }
+
+  private static MappedStatement select() {
+    Configuration configuration = new Configuration();
+    return new MappedStatement.Builder(configuration, "select",
+        new StaticSqlSource(configuration, "select 1", new ArrayList<>()), SqlCommandType.SELECT).build();
+  }
+
+}
@@ -0,0 +1,194 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.util.Iterator;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests for {@link BlobStreamTypeHandler}.
+ */
+public class BlobStreamTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<BlobStream> TYPE_HANDLER = new BlobStreamTypeHandler();
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @Mock
+  protected Blob blob;
+
+  @BeforeClass
+  public static void setupSqlSessionFactory() throws Exception {
+    DataSource dataSource = BaseDataTest.createUnpooledDataSource("org/apache/ibatis/type/jdbc.properties");
+    TransactionFactory transactionFactory = new JdbcTransactionFactory();
+    Environment environment = new Environment("Production", transactionFactory, dataSource);
+    Configuration configuration = new Configuration(environment);
+    configuration.addMapper(Mapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+            "org/apache/ibatis/type/BlobInputStreamTypeHandlerTest.sql");
+  }
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, new BlobStream(blob), null);
+    verify(ps).setBlob(1, blob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getBlob("column")).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertThat(TYPE_HANDLER.getResult(rs, "column").transferTo(out)).isEqualTo(5);
+    assertThat(out.toString("UTF-8")).isEqualTo("Hello");
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getBlob("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getBlob(1)).thenReturn(blob);
+    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertThat(TYPE_HANDLER.getResult(rs, 1).transferTo(Channels.newChannel(out))).isEqualTo(5);
+    assertThat(out.toString("UTF-8")).isEqualTo("Hello");
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getBlob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(blob);
+    TYPE_HANDLER.getResult(cs, 1).close();
+    verify(blob).free();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getBlob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+  @Test
+  public void shouldStreamTheCurrentRowOfACursor() throws Exception {
+    byte[] content = new byte[3 * BlobStream.CHUNK_SIZE + 17];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    Path file = Files.createTempFile("blob-stream-test", ".tmp");
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Mapper mapper = session.getMapper(Mapper.class);
+      mapper.insert(1, content);
+      mapper.insert(2, content);
+      session.commit();
+
+      try (Cursor<BlobStreamContent> cursor = mapper.findAll()) {
+        Iterator<BlobStreamContent> iterator = cursor.iterator();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(iterator.next().getContent().transferTo(out)).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+
+        BlobStream blobStream = iterator.next().getContent();
+        assertThat(blobStream.length()).isEqualTo(content.length);
+        assertThat(blobStream.transferTo(file)).isEqualTo(content.length);
+        assertThat(Files.readAllBytes(file)).isEqualTo(content);
+        ByteBuffer mapped = blobStream.map();
+        byte[] mappedContent = new byte[mapped.remaining()];
+        mapped.get(mappedContent);
+        assertThat(mappedContent).isEqualTo(content);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  interface Mapper {
+    @Select("SELECT ID, CONTENT FROM TEST_BLOB ORDER BY ID")
+    Cursor<BlobStreamContent> findAll();
+
+    @Insert("INSERT INTO TEST_BLOB (ID, CONTENT) VALUES(#{id}, #{content,jdbcType=BLOB})")
+    void insert(@Param("id") int id, @Param("content") byte[] content);
+  }
+
+  static class BlobStreamContent {
+    private int id;
+    private BlobStream content;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public BlobStream getContent() {
+      return content;
+    }
+
+    public void setContent(BlobStream content) {
+      this.content = content;
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2018 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Clob;
+
+import org.junit.Test;
+import org.mockito.Mock;
+
+/**
+ * Tests for {@link ClobStreamTypeHandler}.
+ */
+public class ClobStreamTypeHandlerTest extends BaseTypeHandlerTest {
+
+  private static final TypeHandler<ClobStream> TYPE_HANDLER = new ClobStreamTypeHandler();
+
+  @Mock
+  protected Clob clob;
+
+  @Override
+  @Test
+  public void shouldSetParameter() throws Exception {
+    TYPE_HANDLER.setParameter(ps, 1, new ClobStream(clob), null);
+    verify(ps).setClob(1, clob);
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByName() throws Exception {
+    when(rs.getClob("column")).thenReturn(clob);
+    when(clob.getCharacterStream()).thenReturn(new StringReader("Hello"));
+    StringWriter out = new StringWriter();
+    assertThat(TYPE_HANDLER.getResult(rs, "column").transferTo(out)).isEqualTo(5);
+    assertThat(out.toString()).isEqualTo("Hello");
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByName() throws Exception {
+    when(rs.getClob("column")).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, "column")).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromResultSetByPosition() throws Exception {
+    when(rs.getClob(1)).thenReturn(clob);
+    when(clob.getCharacterStream()).thenReturn(new StringReader("Hello"));
+    Path file = Files.createTempFile("clob-stream-test", ".tmp");
+    try {
+      assertThat(TYPE_HANDLER.getResult(rs, 1).transferTo(file, StandardCharsets.UTF_8)).isEqualTo(5);
+      assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).isEqualTo("Hello");
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromResultSetByPosition() throws Exception {
+    when(rs.getClob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(rs, 1)).isNull();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultFromCallableStatement() throws Exception {
+    when(cs.getClob(1)).thenReturn(clob);
+    TYPE_HANDLER.getResult(cs, 1).close();
+    verify(clob).free();
+  }
+
+  @Override
+  @Test
+  public void shouldGetResultNullFromCallableStatement() throws Exception {
+    when(cs.getClob(1)).thenReturn(null);
+    assertThat(TYPE_HANDLER.getResult(cs, 1)).isNull();
+  }
+
+}